@@ -0,0 +1,53 @@
+package com.diabetes.prediction.benchmark;
+
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.DataAnalyzer;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dataset analysis (summary statistics, correlations and risk factors) with the report output discarded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class AnalysisBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private PatientDataset dataset;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = SyntheticData.silenceConsole();
+        dataset = SyntheticData.generate(rows, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void analyzeDataset() {
+        DataAnalyzer.analyzeDataset(dataset);
+    }
+}
@@ -0,0 +1,33 @@
+package com.diabetes.prediction.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of target/benchmarks.jar: the standard JMH command line, with the GC profiler
+ * always attached so every result carries its allocation rate.
+ *
+ * Usage:
+ *   mvn -Pbenchmark package -DskipTests
+ *   java -jar target/benchmarks.jar                         (everything)
+ *   java -jar target/benchmarks.jar Scoring -p rows=100000  (one suite, one size)
+ *   java -jar target/benchmarks.jar -rf json -rff results.json
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,90 @@
+package com.diabetes.prediction.benchmark;
+
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.DataLoader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CSV loading: the original line-by-line loader against the columnar, mapped, parallel and cached paths
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class LoadingBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private Path directory;
+    private String csvPath;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = SyntheticData.silenceConsole();
+        directory = Files.createTempDirectory("loading-benchmark");
+        csvPath = SyntheticData.writeCsv(SyntheticData.generate(rows, 42), directory.resolve("patients.csv"))
+                .toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public List<Patient> loadDataset() throws IOException {
+        return DataLoader.loadDataset(csvPath);
+    }
+
+    @Benchmark
+    public PatientDataset loadColumnar() throws IOException {
+        return DataLoader.loadColumnar(csvPath);
+    }
+
+    @Benchmark
+    public PatientDataset loadMapped() throws IOException {
+        return DataLoader.loadMapped(csvPath);
+    }
+
+    @Benchmark
+    public PatientDataset loadParallel() throws IOException {
+        return DataLoader.loadParallel(csvPath);
+    }
+
+    /**
+     * The first call builds the binary cache next to the CSV; warmup absorbs it, so this measures reuse
+     */
+    @Benchmark
+    public PatientDataset loadCached() throws IOException {
+        return DataLoader.loadCached(csvPath);
+    }
+}
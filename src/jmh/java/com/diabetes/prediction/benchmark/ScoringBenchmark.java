@@ -0,0 +1,155 @@
+package com.diabetes.prediction.benchmark;
+
+import com.diabetes.prediction.model.CompactFeatureColumns;
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.FeaturePrecision;
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scoring with a fixed model: single predictions per call, and whole-dataset batches
+ * through the row loop, the row-major batch API, the columnar batch API, and float or quantized columns
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ScoringBenchmark {
+    private static final int SINGLE_ROW_POOL = 1024;
+
+    static DiabetesPredictor sampleModel() {
+        return new DiabetesPredictor(
+                new double[]{0.4, 1.1, -0.2, 0.05, -0.1, 0.7, 0.3, 0.2}, -0.85,
+                new double[]{3.8, 120.9, 69.1, 20.5, 79.8, 32.0, 0.47, 33.2},
+                new double[]{3.4, 31.9, 19.3, 15.9, 115.2, 7.9, 0.33, 11.7});
+    }
+
+    /**
+     * A small pool of patients cycled through one per call, so single predictions see varying inputs
+     */
+    @State(Scope.Thread)
+    public static class SingleRow {
+        DiabetesPredictor predictor;
+        Patient[] patients;
+        double[][] features;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            predictor = sampleModel();
+            PatientDataset dataset = SyntheticData.generate(SINGLE_ROW_POOL, 7);
+            patients = dataset.toPatients().toArray(new Patient[0]);
+            features = new double[SINGLE_ROW_POOL][PatientDataset.NUM_FEATURES];
+            for (int r = 0; r < SINGLE_ROW_POOL; r++) {
+                for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+                    features[r][f] = dataset.get(r, f);
+                }
+            }
+        }
+
+        int nextIndex() {
+            int index = next;
+            next = (index + 1) & (SINGLE_ROW_POOL - 1);
+            return index;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batch {
+        @Param({"1000", "100000", "1000000", "10000000"})
+        int rows;
+
+        DiabetesPredictor predictor;
+        PatientDataset dataset;
+        double[][] rowMajor;
+        double[] out;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            predictor = sampleModel();
+            dataset = SyntheticData.generate(rows, 42);
+            rowMajor = new double[rows][PatientDataset.NUM_FEATURES];
+            for (int r = 0; r < rows; r++) {
+                for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+                    rowMajor[r][f] = dataset.get(r, f);
+                }
+            }
+            out = new double[rows];
+        }
+    }
+
+    /**
+     * The same rows stored as float, 16-bit or 8-bit columns
+     */
+    @State(Scope.Benchmark)
+    public static class CompactBatch {
+        @Param({"1000000", "10000000"})
+        int rows;
+
+        @Param({"FLOAT32", "INT16", "INT8"})
+        FeaturePrecision precision;
+
+        DiabetesPredictor predictor;
+        CompactFeatureColumns columns;
+        double[] out;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            predictor = sampleModel();
+            columns = CompactFeatureColumns.encode(SyntheticData.generate(rows, 42), predictor, precision);
+            out = new double[rows];
+        }
+    }
+
+    @Benchmark
+    public double singlePatient(SingleRow state) {
+        return state.predictor.predictProbability(state.patients[state.nextIndex()]);
+    }
+
+    @Benchmark
+    public double singleFeatureVector(SingleRow state) {
+        return state.predictor.predictProbability(state.features[state.nextIndex()]);
+    }
+
+    @Benchmark
+    public void batchRowLoop(Batch state, Blackhole blackhole) {
+        DiabetesPredictor predictor = state.predictor;
+        PatientDataset dataset = state.dataset;
+        for (int row = 0; row < state.rows; row++) {
+            blackhole.consume(predictor.predictProbability(dataset, row));
+        }
+    }
+
+    @Benchmark
+    public double[] batchRowMajor(Batch state) {
+        state.predictor.predictProbabilities(state.rowMajor, state.out);
+        return state.out;
+    }
+
+    @Benchmark
+    public double[] batchColumnar(Batch state) {
+        state.predictor.predictProbabilities(state.dataset, 0, state.rows, state.out);
+        return state.out;
+    }
+
+    @Benchmark
+    public double[] batchCompact(CompactBatch state) {
+        state.predictor.predictProbabilities(state.columns, 0, state.rows, state.out);
+        return state.out;
+    }
+}
@@ -0,0 +1,89 @@
+package com.diabetes.prediction.benchmark;
+
+import com.diabetes.prediction.model.PatientDataset;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic patients shaped like the Pima Indians dataset, for benchmarks at any scale.
+ * Values are rounded the way the real CSV is, so writing and re-parsing a dataset is lossless.
+ */
+final class SyntheticData {
+    private static final String HEADER =
+            "Pregnancies,Glucose,BloodPressure,SkinThickness,Insulin,BMI,DiabetesPedigreeFunction,Age,Outcome";
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Generate rows with roughly the real feature distributions and a logistic outcome (about 35% positive)
+     */
+    static PatientDataset generate(int rows, long seed) {
+        Random random = new Random(seed);
+        PatientDataset.Builder builder = new PatientDataset.Builder(rows);
+        for (int r = 0; r < rows; r++) {
+            double pregnancies = Math.min(17, Math.round(Math.abs(random.nextGaussian() * 3.4 + 3.8)));
+            double glucose = clamp(Math.round(random.nextGaussian() * 32 + 121), 0, 199);
+            double bloodPressure = clamp(Math.round(random.nextGaussian() * 19 + 69), 0, 122);
+            double skinThickness = clamp(Math.round(random.nextGaussian() * 16 + 20), 0, 99);
+            double insulin = random.nextBoolean() ? 0 : clamp(Math.round(random.nextGaussian() * 115 + 155), 0, 846);
+            double bmi = clamp(Math.round((random.nextGaussian() * 7.9 + 32) * 10) / 10.0, 0, 67.1);
+            double pedigree = Math.round((0.078 - 0.4 * Math.log(1 - random.nextDouble())) * 1000) / 1000.0;
+            double age = Math.min(81, 21 + Math.round(-12 * Math.log(1 - random.nextDouble())));
+
+            double logit = -9.0 + 0.12 * pregnancies + 0.035 * glucose + 0.09 * bmi
+                    + 0.9 * pedigree + 0.013 * age;
+            int outcome = random.nextDouble() < 1.0 / (1.0 + Math.exp(-logit)) ? 1 : 0;
+
+            builder.add(pregnancies, glucose, bloodPressure, skinThickness, insulin, bmi, pedigree, age, outcome);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Write a dataset as CSV in the same layout as data/diabetes.csv
+     */
+    static Path writeCsv(PatientDataset dataset, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            StringBuilder line = new StringBuilder(64);
+            for (int row = 0; row < dataset.size(); row++) {
+                line.setLength(0);
+                for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+                    double value = dataset.get(row, f);
+                    if (value == Math.rint(value)) {
+                        line.append((long) value);
+                    } else {
+                        line.append(value);
+                    }
+                    line.append(',');
+                }
+                line.append(dataset.getOutcome(row));
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Send System.out to nowhere so progress printing does not dominate the measurements;
+     * returns the previous stream for restoring in teardown
+     */
+    static PrintStream silenceConsole() {
+        PrintStream previous = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return previous;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
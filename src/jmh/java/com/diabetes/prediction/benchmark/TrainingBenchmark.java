@@ -0,0 +1,62 @@
+package com.diabetes.prediction.benchmark;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.ModelTrainer;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full training runs per optimizer. Gradient descent always runs up to its fixed iteration budget,
+ * so the largest sizes are left out here; pass -p rows=10000000 to measure them explicitly.
+ * trainModel shuffles the dataset in place, which changes the row order but not the work per run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class TrainingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"GRADIENT_DESCENT", "IRLS", "LBFGS"})
+    private ModelTrainer.Optimizer optimizer;
+
+    private PatientDataset dataset;
+    private ModelTrainer trainer;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = SyntheticData.silenceConsole();
+        dataset = SyntheticData.generate(rows, 42);
+        trainer = new ModelTrainer();
+        trainer.setOptimizer(optimizer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public DiabetesPredictor trainModel() {
+        return trainer.trainModel(dataset);
+    }
+}
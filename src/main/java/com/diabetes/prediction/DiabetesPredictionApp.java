@@ -1,15 +1,151 @@
 package com.diabetes.prediction;
 
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.FeaturePrecision;
+import com.diabetes.prediction.model.ModelRegistry;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PredictionCache;
+import com.diabetes.prediction.server.PredictionCoalescer;
+import com.diabetes.prediction.server.ScoringServer;
 import com.diabetes.prediction.ui.DiabetesPredictionUI;
+import com.diabetes.prediction.utils.BatchScorer;
+import com.diabetes.prediction.utils.CsvStreamReader;
+import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.HyperparameterSpace;
+import com.diabetes.prediction.utils.ModelEvaluator;
+import com.diabetes.prediction.utils.ModelLoader;
+import com.diabetes.prediction.utils.ModelSelector;
+import com.diabetes.prediction.utils.ModelTrainer;
+import com.diabetes.prediction.utils.PrecisionReport;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Main application class for Diabetes Prediction System
  * Dataset: Pima Indian Diabetes Dataset
+ *
+ * Usage:
+ *   (no arguments)                      launch the JavaFX UI; add --retrain to ignore the saved model
+ *   --train [dataset.csv] [model file]  train and save a model without the UI
+ *   --select [dataset.csv] [model file] pick hyperparameters by cross-validation, save the best model
+ *   --batch input.csv output.csv [model file]
+ *                                       score every row of input.csv without the UI
+ *   --evaluate holdout.csv [model file] [bins]
+ *                                       ROC/PR curves and a threshold sweep on a labelled holdout;
+ *                                       with bins, stream it in bounded memory instead of sorting
+ *   --precision [dataset.csv] [model file]
+ *                                       compare float32, int16 and int8 feature storage against
+ *                                       double-precision scoring, with error bounds
+ *   --serve [port] [model file | model directory]
+ *                                       run the HTTP scoring server (default port 8080); given a
+ *                                       directory, serve its newest *.model file (or none until
+ *                                       one arrives) and hot-swap in each model written there afterwards
  */
 public class DiabetesPredictionApp {
+    private static final String DEFAULT_DATASET_PATH = "data/diabetes.csv";
+    private static final int SERVER_CACHE_SIZE = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && "--train".equals(args[0])) {
+            String datasetPath = args.length > 1 ? args[1] : DEFAULT_DATASET_PATH;
+            String modelPath = args.length > 2 ? args[2] : ModelLoader.DEFAULT_MODEL_PATH;
+            DiabetesPredictor predictor = ModelLoader.trainAndSave(datasetPath, modelPath);
+            new ModelTrainer().evaluateModel(predictor, DataLoader.loadParallel(datasetPath));
+            return;
+        }
+        if (args.length > 0 && "--select".equals(args[0])) {
+            String datasetPath = args.length > 1 ? args[1] : DEFAULT_DATASET_PATH;
+            String modelPath = args.length > 2 ? args[2] : ModelLoader.DEFAULT_MODEL_PATH;
+            HyperparameterSpace space = new HyperparameterSpace()
+                    .optimizers(ModelTrainer.Optimizer.GRADIENT_DESCENT, ModelTrainer.Optimizer.IRLS)
+                    .learningRates(0.01, 0.05, 0.2)
+                    .l2Penalties(0.0, 1e-3, 1e-2, 1e-1);
+            ModelSelector.Report report = new ModelSelector().select(DataLoader.loadCached(datasetPath), space.grid());
+            report.print();
+            DiabetesPredictor best = report.getBestPredictor();
+            best = best.withTrainingInfo(best.getTrainingInfo()
+                    .withDatasetFingerprint(DataLoader.fingerprint(datasetPath)));
+            best.save(Paths.get(modelPath));
+            System.out.println("Saved model with " + report.getBest().getHyperparameters() + " to " + modelPath);
+            return;
+        }
+        if (args.length > 0 && "--batch".equals(args[0])) {
+            if (args.length < 3) {
+                System.err.println("Usage: --batch input.csv output.csv [model file]");
+                System.exit(2);
+            }
+            DiabetesPredictor predictor = loadModel(args, 3);
+            new BatchScorer(predictor).score(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+
+        if (args.length > 0 && "--evaluate".equals(args[0])) {
+            if (args.length < 2) {
+                System.err.println("Usage: --evaluate holdout.csv [model file] [bins]");
+                System.exit(2);
+            }
+            DiabetesPredictor predictor = loadModel(args, 2);
+            ModelEvaluator evaluator = new ModelEvaluator();
+            ModelEvaluator.Evaluation evaluation = args.length > 3
+                    ? evaluator.evaluateHistogram(predictor, new CsvStreamReader(Paths.get(args[1])),
+                            Integer.parseInt(args[3]))
+                    : evaluator.evaluate(predictor, DataLoader.loadParallel(args[1]));
+            evaluation.print();
+            return;
+        }
+
+        if (args.length > 0 && "--precision".equals(args[0])) {
+            String datasetPath = args.length > 1 ? args[1] : DEFAULT_DATASET_PATH;
+            DiabetesPredictor predictor = loadModel(args, 2);
+            PatientDataset dataset = DataLoader.loadParallel(datasetPath);
+            for (FeaturePrecision precision : FeaturePrecision.values()) {
+                PrecisionReport.compute(predictor, dataset, precision).print();
+            }
+            return;
+        }
+
+        if (args.length > 0 && "--serve".equals(args[0])) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : ScoringServer.DEFAULT_PORT;
+            ModelRegistry registry = new ModelRegistry();
+            Path modelPath = args.length > 2 ? Paths.get(args[2]) : null;
+            if (modelPath != null && Files.isDirectory(modelPath)) {
+                // Watch first so a model written while the newest one loads is not missed
+                registry.watch(modelPath);
+                if (registry.publishLatest(modelPath) == null) {
+                    // Nothing servable yet; scoring answers 503 until a model is written there
+                    System.out.println("No model in " + modelPath + " yet; waiting for one");
+                }
+            } else {
+                registry.publish(loadModel(args, 2),
+                        modelPath != null ? modelPath : Paths.get(ModelLoader.DEFAULT_MODEL_PATH));
+            }
+            ScoringServer server = new ScoringServer(registry, port);
+            PredictionCoalescer coalescer = new PredictionCoalescer(registry);
+            server.setCoalescer(coalescer);
+            server.setCache(new PredictionCache(SERVER_CACHE_SIZE));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(1);
+                coalescer.close();
+                registry.close();
+            }));
+            server.start();
+            return;
+        }
 
-    public static void main(String[] args) {
         // Launch the JavaFX UI
         DiabetesPredictionUI.main(args);
     }
+
+    /**
+     * Load the model file named by args[index] as it is. Without that argument, use the default model,
+     * which is retrained (and saved) first if it no longer matches the default dataset.
+     */
+    private static DiabetesPredictor loadModel(String[] args, int index) throws IOException {
+        if (args.length > index) {
+            return DiabetesPredictor.load(Paths.get(args[index]));
+        }
+        return ModelLoader.loadOrTrain(DEFAULT_DATASET_PATH, ModelLoader.DEFAULT_MODEL_PATH, false);
+    }
 }
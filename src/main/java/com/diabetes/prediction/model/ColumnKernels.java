@@ -0,0 +1,39 @@
+package com.diabetes.prediction.model;
+
+/**
+ * Arithmetic kernels over feature columns shared by batch scoring and training.
+ *
+ * This is the Java 11 version, which runs the scalar loops. The multi-release JAR carries a Java 17
+ * version of this class (src/main/java17) that runs them on jdk.incubator.vector when the JVM was
+ * started with --add-modules jdk.incubator.vector, and falls back to the scalar loops otherwise.
+ * Both versions perform the same operations in the same order, so results are bit-identical.
+ */
+public final class ColumnKernels {
+
+    private ColumnKernels() {
+    }
+
+    /**
+     * Whether the kernels run on SIMD vectors; always false in this version
+     */
+    public static boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * out[r] = initial + weights[0] * columns[0][offset + r] + ... for r in [0, length), with the terms
+     * added in column order. Only the first columns.length weights are used.
+     */
+    public static void linear(double[][] columns, int offset, int length, double[] weights, double initial,
+                              double[] out) {
+        ScalarKernels.checkLinear(columns, weights, out, length);
+        ScalarKernels.linear(columns, offset, length, weights, initial, out, 0);
+    }
+
+    /**
+     * Replace column[0, length) with its z-scores, (x - mean) / std, or zeros when std is 0
+     */
+    public static void standardize(double[] column, int length, double mean, double std) {
+        ScalarKernels.standardize(column, 0, length, mean, std);
+    }
+}
@@ -0,0 +1,154 @@
+package com.diabetes.prediction.model;
+
+/**
+ * Feature columns stored as float or as 8/16-bit codes, for scoring large cohorts with a fraction of
+ * the memory traffic of double columns.
+ *
+ * Every stored value decodes as offset + scale * stored. For the quantized formats the offset is the
+ * feature mean and the scale a fixed fraction of its standard deviation, both taken from the model's
+ * normalization; for FLOAT32 they are 0 and 1. Encoding records the largest decoding error and the
+ * number of clipped values per feature, which bound the scoring error (see PrecisionReport).
+ */
+public class CompactFeatureColumns {
+    private final FeaturePrecision precision;
+    private final int size;
+    private final float[][] floats;
+    private final short[][] shorts;
+    private final byte[][] bytes;
+    private final double[] offsets;
+    private final double[] scales;
+    private final double[] maxErrors;
+    private final long[] clippedCounts;
+
+    private CompactFeatureColumns(FeaturePrecision precision, int size, int numFeatures) {
+        this.precision = precision;
+        this.size = size;
+        this.floats = precision == FeaturePrecision.FLOAT32 ? new float[numFeatures][size] : null;
+        this.shorts = precision == FeaturePrecision.INT16 ? new short[numFeatures][size] : null;
+        this.bytes = precision == FeaturePrecision.INT8 ? new byte[numFeatures][size] : null;
+        this.offsets = new double[numFeatures];
+        this.scales = new double[numFeatures];
+        this.maxErrors = new double[numFeatures];
+        this.clippedCounts = new long[numFeatures];
+    }
+
+    /**
+     * Encode every row of the dataset, quantizing around the predictor's feature means and stds
+     */
+    public static CompactFeatureColumns encode(PatientDataset dataset, DiabetesPredictor predictor,
+                                               FeaturePrecision precision) {
+        double[][] columns = new double[PatientDataset.NUM_FEATURES][];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = dataset.getColumn(i);
+        }
+        return encode(columns, 0, dataset.size(), predictor.getFeatureMeans(), predictor.getFeatureStds(), precision);
+    }
+
+    /**
+     * Encode rows [offset, offset + length) of raw feature columns, quantizing around the given means and stds
+     */
+    public static CompactFeatureColumns encode(double[][] columns, int offset, int length, double[] means,
+                                               double[] stds, FeaturePrecision precision) {
+        CompactFeatureColumns encoded = new CompactFeatureColumns(precision, length, columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            if (precision.isQuantized()) {
+                encoded.quantize(i, columns[i], offset, means[i], stds[i]);
+            } else {
+                encoded.narrow(i, columns[i], offset);
+            }
+        }
+        return encoded;
+    }
+
+    private void narrow(int feature, double[] column, int offset) {
+        float[] out = floats[feature];
+        double maxError = 0.0;
+        for (int r = 0; r < size; r++) {
+            float value = (float) column[offset + r];
+            out[r] = value;
+            maxError = Math.max(maxError, Math.abs(column[offset + r] - value));
+        }
+        offsets[feature] = 0.0;
+        scales[feature] = 1.0;
+        maxErrors[feature] = maxError;
+    }
+
+    private void quantize(int feature, double[] column, int offset, double mean, double std) {
+        int maxCode = precision.getMaxCode();
+        double scale = std * precision.getClipStds() / maxCode;
+        double maxError = 0.0;
+        long clipped = 0;
+        for (int r = 0; r < size; r++) {
+            double value = column[offset + r];
+            long code = scale != 0 ? Math.round((value - mean) / scale) : 0;
+            if (code > maxCode || code < -maxCode) {
+                code = code > 0 ? maxCode : -maxCode;
+                clipped++;
+            }
+            if (shorts != null) {
+                shorts[feature][r] = (short) code;
+            } else {
+                bytes[feature][r] = (byte) code;
+            }
+            maxError = Math.max(maxError, Math.abs(value - (mean + scale * code)));
+        }
+        offsets[feature] = mean;
+        scales[feature] = scale;
+        maxErrors[feature] = maxError;
+        clippedCounts[feature] = clipped;
+    }
+
+    /**
+     * out[r] += weight * stored value of rows [from, from + length), for r in [0, length)
+     */
+    void addScaled(int feature, double weight, int from, int length, double[] out) {
+        if (floats != null) {
+            float[] column = floats[feature];
+            for (int r = 0; r < length; r++) {
+                out[r] += weight * column[from + r];
+            }
+        } else if (shorts != null) {
+            short[] column = shorts[feature];
+            for (int r = 0; r < length; r++) {
+                out[r] += weight * column[from + r];
+            }
+        } else {
+            byte[] column = bytes[feature];
+            for (int r = 0; r < length; r++) {
+                out[r] += weight * column[from + r];
+            }
+        }
+    }
+
+    /**
+     * Decoded value of one row and feature
+     */
+    public double get(int row, int feature) {
+        double stored = floats != null ? floats[feature][row]
+                : shorts != null ? shorts[feature][row] : bytes[feature][row];
+        return offsets[feature] + scales[feature] * stored;
+    }
+
+    public FeaturePrecision getPrecision() { return precision; }
+    public int size() { return size; }
+    public int getNumFeatures() { return offsets.length; }
+    public double getOffset(int feature) { return offsets[feature]; }
+    public double getScale(int feature) { return scales[feature]; }
+
+    /**
+     * Largest |raw - decoded| over the encoded rows of the feature, clipped values included
+     */
+    public double getMaxError(int feature) { return maxErrors[feature]; }
+
+    /**
+     * Number of values of the feature that fell outside the quantized range and were clipped
+     */
+    public long getClippedCount(int feature) { return clippedCounts[feature]; }
+
+    /**
+     * Bytes of stored feature values
+     */
+    public long getByteSize() {
+        return (long) size * offsets.length * precision.getBytesPerValue();
+    }
+}
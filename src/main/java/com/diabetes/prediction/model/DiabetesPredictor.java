@@ -1,35 +1,152 @@
 package com.diabetes.prediction.model;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
- * Diabetes prediction model using Logistic Regression
+ * Diabetes prediction model using Logistic Regression.
+ * Immutable: parameter arrays are copied on the way in and out, so the folded weights used for
+ * scoring always agree with the weights reported and saved.
  */
 public class DiabetesPredictor {
-    private double[] weights;
-    private double bias;
-    private double[] featureMeans;
-    private double[] featureStds;
+    private final double[] weights;
+    private final double bias;
+    private final double[] featureMeans;
+    private final double[] featureStds;
+    private final TrainingInfo trainingInfo;
+
+    // Z-score normalization folded into the linear model: logit = foldedBias + sum(foldedWeights[i] * x[i])
+    private final double[] foldedWeights;
+    private final double foldedBias;
 
     public DiabetesPredictor(double[] weights, double bias, double[] featureMeans, double[] featureStds) {
-        this.weights = weights;
+        this(weights, bias, featureMeans, featureStds, TrainingInfo.UNKNOWN);
+    }
+
+    public DiabetesPredictor(double[] weights, double bias, double[] featureMeans, double[] featureStds,
+                             TrainingInfo trainingInfo) {
+        this.weights = weights.clone();
         this.bias = bias;
-        this.featureMeans = featureMeans;
-        this.featureStds = featureStds;
+        this.featureMeans = featureMeans.clone();
+        this.featureStds = featureStds.clone();
+        this.trainingInfo = trainingInfo;
+
+        this.foldedWeights = new double[this.weights.length];
+        double folded = bias;
+        for (int i = 0; i < this.weights.length; i++) {
+            if (this.featureStds[i] != 0) {
+                foldedWeights[i] = this.weights[i] / this.featureStds[i];
+                folded -= foldedWeights[i] * this.featureMeans[i];
+            }
+        }
+        this.foldedBias = folded;
     }
 
     /**
      * Predict diabetes probability for a patient
      */
     public double predictProbability(Patient patient) {
-        double[] features = patient.getFeatures();
-        double[] normalizedFeatures = normalizeFeatures(features);
+        double[] w = foldedWeights;
+        double logit = foldedBias
+                + w[0] * patient.getPregnancies()
+                + w[1] * patient.getGlucose()
+                + w[2] * patient.getBloodPressure()
+                + w[3] * patient.getSkinThickness()
+                + w[4] * patient.getInsulin()
+                + w[5] * patient.getBmi()
+                + w[6] * patient.getDiabetesPedigreeFunction()
+                + w[7] * patient.getAge();
+        return sigmoid(logit);
+    }
 
-        double logit = bias;
-        for (int i = 0; i < weights.length; i++) {
-            logit += weights[i] * normalizedFeatures[i];
+    /**
+     * Predict diabetes probability for a raw (unnormalized) feature vector in dataset column order
+     */
+    public double predictProbability(double[] features) {
+        double logit = foldedBias;
+        for (int i = 0; i < foldedWeights.length; i++) {
+            logit += foldedWeights[i] * features[i];
         }
+        return sigmoid(logit);
+    }
 
-        // Sigmoid function
-        return 1.0 / (1.0 + Math.exp(-logit));
+    /**
+     * Predict diabetes probability for one row of a columnar dataset, without allocating
+     */
+    public double predictProbability(PatientDataset dataset, int row) {
+        double logit = foldedBias;
+        for (int i = 0; i < foldedWeights.length; i++) {
+            logit += foldedWeights[i] * dataset.get(row, i);
+        }
+        return sigmoid(logit);
+    }
+
+    /**
+     * Score a batch of row-major feature vectors into out[0..rows.length)
+     */
+    public void predictProbabilities(double[][] rows, double[] out) {
+        if (out.length < rows.length) {
+            throw new IllegalArgumentException("Output buffer too small: " + out.length + " < " + rows.length);
+        }
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = predictProbability(rows[r]);
+        }
+    }
+
+    /**
+     * Score a block of columns: rows [offset, offset + length) of each feature column go to out[0..length)
+     */
+    public void predictProbabilities(double[][] columns, int offset, int length, double[] out) {
+        if (columns.length != foldedWeights.length) {
+            throw new IllegalArgumentException("Expected " + foldedWeights.length + " columns, got " + columns.length);
+        }
+
+        // Logits for the whole block first (vectorized across rows where the JVM allows), then sigmoids
+        ColumnKernels.linear(columns, offset, length, foldedWeights, foldedBias, out);
+        for (int r = 0; r < length; r++) {
+            out[r] = sigmoid(out[r]);
+        }
+    }
+
+    /**
+     * Score rows [from, to) of a columnar dataset into out[0..to - from)
+     */
+    public void predictProbabilities(PatientDataset dataset, int from, int to, double[] out) {
+        double[][] columns = new double[foldedWeights.length][];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = dataset.getColumn(i);
+        }
+        predictProbabilities(columns, from, to - from, out);
+    }
+
+    /**
+     * Score rows [from, to) of float or quantized columns into out[0..to - from), without decoding them.
+     * The decode's offset and scale are folded into the bias and weights, and the sums are taken in
+     * double, so the only difference from the double path is the encoding error (see PrecisionReport).
+     */
+    public void predictProbabilities(CompactFeatureColumns columns, int from, int to, double[] out) {
+        if (columns.getNumFeatures() != foldedWeights.length) {
+            throw new IllegalArgumentException("Expected " + foldedWeights.length + " columns, got "
+                    + columns.getNumFeatures());
+        }
+        int length = to - from;
+        if (out.length < length) {
+            throw new IllegalArgumentException("Output buffer too small: " + out.length + " < " + length);
+        }
+
+        double logitBias = foldedBias;
+        for (int i = 0; i < foldedWeights.length; i++) {
+            logitBias += foldedWeights[i] * columns.getOffset(i);
+        }
+        for (int r = 0; r < length; r++) {
+            out[r] = logitBias;
+        }
+        for (int i = 0; i < foldedWeights.length; i++) {
+            columns.addScaled(i, foldedWeights[i] * columns.getScale(i), from, length, out);
+        }
+        for (int r = 0; r < length; r++) {
+            out[r] = sigmoid(out[r]);
+        }
     }
 
     /**
@@ -40,23 +157,65 @@ public class DiabetesPredictor {
     }
 
     /**
-     * Normalize features using z-score normalization
+     * Predict diabetes (true/false) for one row of a columnar dataset
+     */
+    public boolean predict(PatientDataset dataset, int row) {
+        return predictProbability(dataset, row) >= 0.5;
+    }
+
+    /**
+     * Copy of this model carrying different training metadata
+     */
+    public DiabetesPredictor withTrainingInfo(TrainingInfo info) {
+        return new DiabetesPredictor(weights, bias, featureMeans, featureStds, info);
+    }
+
+    /**
+     * Equivalent model expressed against different normalization statistics: same probabilities
+     * for every input, with the weights and bias re-mapped to the new means and standard deviations
+     * (used to warm-start training after the data, and so its statistics, have changed).
+     * A feature whose new standard deviation is 0 is constant and gets weight 0.
      */
-    private double[] normalizeFeatures(double[] features) {
-        double[] normalized = new double[features.length];
-        for (int i = 0; i < features.length; i++) {
-            if (featureStds[i] != 0) {
-                normalized[i] = (features[i] - featureMeans[i]) / featureStds[i];
-            } else {
-                normalized[i] = 0;
+    public DiabetesPredictor renormalized(double[] newMeans, double[] newStds) {
+        double[] newWeights = new double[weights.length];
+        double newBias = foldedBias;
+        for (int i = 0; i < weights.length; i++) {
+            if (newStds[i] != 0) {
+                newWeights[i] = foldedWeights[i] * newStds[i];
+                newBias += foldedWeights[i] * newMeans[i];
             }
         }
-        return normalized;
+        return new DiabetesPredictor(newWeights, newBias, newMeans, newStds, trainingInfo);
+    }
+
+    /**
+     * Save the model to a versioned, checksummed binary file (replaced atomically)
+     */
+    public void save(Path path) throws IOException {
+        ModelFile.write(this, path);
+    }
+
+    /**
+     * Load a model saved with save; fails with IOException on corrupt, truncated or incompatible files
+     */
+    public static DiabetesPredictor load(Path path) throws IOException {
+        return ModelFile.read(path);
+    }
+
+    private static double sigmoid(double logit) {
+        return 1.0 / (1.0 + Math.exp(-logit));
     }
 
     // Getters
-    public double[] getWeights() { return weights; }
+    public double[] getWeights() { return weights.clone(); }
     public double getBias() { return bias; }
-    public double[] getFeatureMeans() { return featureMeans; }
-    public double[] getFeatureStds() { return featureStds; }
+    public double[] getFeatureMeans() { return featureMeans.clone(); }
+    public double[] getFeatureStds() { return featureStds.clone(); }
+    public TrainingInfo getTrainingInfo() { return trainingInfo; }
+
+    /**
+     * Weights with the normalization folded in, applied directly to raw feature values
+     */
+    public double[] getFoldedWeights() { return foldedWeights.clone(); }
+    public double getFoldedBias() { return foldedBias; }
 }
@@ -0,0 +1,36 @@
+package com.diabetes.prediction.model;
+
+/**
+ * Storage formats for CompactFeatureColumns, trading accuracy for memory bandwidth in bulk scoring.
+ *
+ * FLOAT32 keeps the raw value as a float. The integer formats store the feature's z-score in steps
+ * of clipStds / maxCode standard deviations, so values further than clipStds from the mean are clipped.
+ */
+public enum FeaturePrecision {
+    FLOAT32(4, 0, 0.0),
+    INT16(2, Short.MAX_VALUE, 8.0),
+    INT8(1, Byte.MAX_VALUE, 6.0);
+
+    private final int bytesPerValue;
+    private final int maxCode;
+    private final double clipStds;
+
+    FeaturePrecision(int bytesPerValue, int maxCode, double clipStds) {
+        this.bytesPerValue = bytesPerValue;
+        this.maxCode = maxCode;
+        this.clipStds = clipStds;
+    }
+
+    public int getBytesPerValue() { return bytesPerValue; }
+    public boolean isQuantized() { return maxCode > 0; }
+
+    /**
+     * Largest code magnitude of a quantized format (0 for FLOAT32)
+     */
+    public int getMaxCode() { return maxCode; }
+
+    /**
+     * Distance from the mean, in standard deviations, beyond which a quantized value is clipped
+     */
+    public double getClipStds() { return clipStds; }
+}
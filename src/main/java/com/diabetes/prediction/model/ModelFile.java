@@ -0,0 +1,119 @@
+package com.diabetes.prediction.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary model format.
+ *
+ * Layout (big-endian): magic "DPMD", format version, feature count, weights, bias, feature means,
+ * feature stds, training metadata, then a CRC32 of every preceding byte.
+ */
+class ModelFile {
+    private static final int MAGIC = 0x44504D44; // "DPMD"
+    private static final short FORMAT_VERSION = 1;
+
+    private ModelFile() {
+    }
+
+    static void write(DiabetesPredictor predictor, Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        double[] weights = predictor.getWeights();
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeInt(weights.length);
+        writeDoubles(out, weights);
+        out.writeDouble(predictor.getBias());
+        writeDoubles(out, predictor.getFeatureMeans());
+        writeDoubles(out, predictor.getFeatureStds());
+
+        TrainingInfo info = predictor.getTrainingInfo();
+        out.writeLong(info.getRowCount());
+        out.writeInt(info.getPasses());
+        out.writeUTF(info.getOptimizer());
+        out.writeLong(info.getTrainedAtMillis());
+        out.writeUTF(info.getDatasetFingerprint());
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        // Write next to the target and move into place so readers never see a partial file
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static DiabetesPredictor read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < 8 + 4 + 2) {
+            throw new IOException("Model file is truncated: " + path);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        long storedCrc = 0;
+        for (int i = bytes.length - 8; i < bytes.length; i++) {
+            storedCrc = (storedCrc << 8) | (bytes[i] & 0xFF);
+        }
+        if (storedCrc != crc.getValue()) {
+            throw new IOException("Model file checksum mismatch: " + path);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a model file: " + path);
+        }
+        short version = in.readShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported model file version " + version + ": " + path);
+        }
+        int numFeatures = in.readInt();
+        if (numFeatures != PatientDataset.NUM_FEATURES) {
+            throw new IOException("Model has " + numFeatures + " features, expected "
+                    + PatientDataset.NUM_FEATURES + ": " + path);
+        }
+
+        double[] weights = readDoubles(in, numFeatures);
+        double bias = in.readDouble();
+        double[] means = readDoubles(in, numFeatures);
+        double[] stds = readDoubles(in, numFeatures);
+        TrainingInfo info = new TrainingInfo(in.readLong(), in.readInt(), in.readUTF(), in.readLong(), in.readUTF());
+        return new DiabetesPredictor(weights, bias, means, stds, info);
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in, int count) throws IOException {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+}
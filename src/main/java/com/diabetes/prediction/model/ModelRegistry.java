@@ -0,0 +1,316 @@
+package com.diabetes.prediction.model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Publishes numbered, immutable model versions to scorers, with rollback and optional directory watching.
+ * A version pairs a version number with a DiabetesPredictor, which copies its parameters in and out,
+ * so nothing a caller does to its arrays can change a published model or the same-model check.
+ *
+ * Scorers read the current version with a single atomic read and keep that predictor for the rest of
+ * their request or batch, so publishing or rolling back never blocks them or pauses work in flight;
+ * only publishers, rollbacks and listeners synchronize with each other. The versions replaced most
+ * recently are kept so a bad model can be rolled back without reloading anything.
+ */
+public class ModelRegistry implements AutoCloseable {
+    public static final String MODEL_FILE_SUFFIX = ".model";
+    public static final int DEFAULT_HISTORY_SIZE = 8;
+
+    private final AtomicReference<ModelVersion> current = new AtomicReference<>();
+    private final int historySize;
+    private final List<Consumer<ModelVersion>> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final Deque<ModelVersion> history = new ArrayDeque<>();
+    private long nextVersion = 1;
+    private WatchService watchService;
+
+    public ModelRegistry() {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * Registry keeping up to historySize replaced versions for rollback
+     */
+    public ModelRegistry(int historySize) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException("History size must not be negative: " + historySize);
+        }
+        this.historySize = historySize;
+    }
+
+    /**
+     * Registry serving the given model as version 1
+     */
+    public ModelRegistry(DiabetesPredictor initial) {
+        this();
+        publish(initial);
+    }
+
+    /**
+     * The version being served, or null before the first publish
+     */
+    public ModelVersion getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * The predictor being served, or null before the first publish. Read it once per request or batch.
+     */
+    public DiabetesPredictor getPredictor() {
+        ModelVersion version = current.get();
+        return version == null ? null : version.getPredictor();
+    }
+
+    public ModelVersion publish(DiabetesPredictor predictor) {
+        return publish(predictor, null);
+    }
+
+    /**
+     * Serve the predictor from now on as a new version; source is the file it came from, if any
+     */
+    public synchronized ModelVersion publish(DiabetesPredictor predictor, Path source) {
+        if (predictor == null) {
+            throw new IllegalArgumentException("Predictor must not be null");
+        }
+        ModelVersion version = new ModelVersion(nextVersion++, predictor, source, System.currentTimeMillis());
+        ModelVersion previous = current.getAndSet(version);
+        if (previous != null && historySize > 0) {
+            history.push(previous);
+            if (history.size() > historySize) {
+                history.removeLast();
+            }
+        }
+        notifyListeners(version);
+        return version;
+    }
+
+    /**
+     * Publish the predictor unless the same model (same parameters and training time) is already
+     * being served, in which case the current version is returned. Lets a process that saves a model
+     * into a watched directory publish it itself without the watcher publishing it a second time.
+     */
+    public synchronized ModelVersion publishIfChanged(DiabetesPredictor predictor, Path source) {
+        ModelVersion serving = current.get();
+        if (serving != null && sameModel(serving.getPredictor(), predictor)) {
+            return serving;
+        }
+        return publish(predictor, source);
+    }
+
+    /**
+     * Go back to the version served before the current one, discarding the current one
+     */
+    public synchronized ModelVersion rollback() {
+        ModelVersion previous = history.poll();
+        if (previous == null) {
+            throw new IllegalStateException("No earlier model version to roll back to");
+        }
+        current.set(previous);
+        notifyListeners(previous);
+        return previous;
+    }
+
+    /**
+     * Versions available for rollback, most recent first
+     */
+    public synchronized List<ModelVersion> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * Call the listener with every version published or rolled back to, on the thread that did it.
+     * Listeners run one at a time in version order, so keep them short (e.g. hand off to a UI thread).
+     */
+    public void addListener(Consumer<ModelVersion> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<ModelVersion> listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(ModelVersion version) {
+        for (Consumer<ModelVersion> listener : listeners) {
+            try {
+                listener.accept(version);
+            } catch (RuntimeException e) {
+                System.err.println("Model registry listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Publish the most recently modified model file in the directory; returns null if there is
+     * none or it cannot be loaded
+     */
+    public ModelVersion publishLatest(Path directory) throws IOException {
+        Path newest = newestModelFile(directory);
+        return newest == null ? null : loadAndPublish(newest);
+    }
+
+    /**
+     * Until close, publish every model file (*.model) created or replaced in the directory.
+     * A file that fails to load, such as one still being copied, is skipped with a warning and
+     * retried on its next change; a file holding the model already being served is not republished.
+     */
+    public synchronized void watch(Path directory) throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException("Already watching a model directory");
+        }
+        WatchService service = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            service.close();
+            throw e;
+        }
+        watchService = service;
+
+        Thread watcher = new Thread(() -> watchLoop(directory, service), "model-registry-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        System.out.println("Watching " + directory + " for new models");
+    }
+
+    private void watchLoop(Path directory, WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                // A copy raises several events for the same file; load each file once per wake-up
+                Set<Path> changed = new LinkedHashSet<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        Path newest = newestModelFile(directory);
+                        if (newest != null) {
+                            changed.add(newest);
+                        }
+                    } else {
+                        Path name = (Path) event.context();
+                        if (name.toString().endsWith(MODEL_FILE_SUFFIX)) {
+                            changed.add(directory.resolve(name));
+                        }
+                    }
+                }
+                for (Path file : changed) {
+                    loadAndPublish(file);
+                }
+                if (!key.reset()) {
+                    System.err.println("Model directory " + directory + " is no longer accessible; stopped watching");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closing
+        } catch (IOException e) {
+            System.err.println("Stopped watching " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private ModelVersion loadAndPublish(Path file) {
+        DiabetesPredictor predictor;
+        try {
+            predictor = DiabetesPredictor.load(file);
+        } catch (IOException e) {
+            System.err.println("Ignoring model file " + file + ": " + e.getMessage());
+            return null;
+        }
+        ModelVersion serving = current.get();
+        ModelVersion version = publishIfChanged(predictor, file);
+        if (version != serving) {
+            System.out.println("Published model version " + version.getNumber() + " from " + file);
+        }
+        return version;
+    }
+
+    private static Path newestModelFile(Path directory) throws IOException {
+        Path newest = null;
+        FileTime newestTime = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + MODEL_FILE_SUFFIX)) {
+            for (Path file : files) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (newestTime == null || modified.compareTo(newestTime) > 0) {
+                    newest = file;
+                    newestTime = modified;
+                }
+            }
+        }
+        return newest;
+    }
+
+    private static boolean sameModel(DiabetesPredictor a, DiabetesPredictor b) {
+        return Arrays.equals(a.getWeights(), b.getWeights()) && Double.compare(a.getBias(), b.getBias()) == 0
+                && Arrays.equals(a.getFeatureMeans(), b.getFeatureMeans())
+                && Arrays.equals(a.getFeatureStds(), b.getFeatureStds())
+                && a.getTrainingInfo().getTrainedAtMillis() == b.getTrainingInfo().getTrainedAtMillis();
+    }
+
+    /**
+     * Stop watching the model directory, if watching; the current version keeps being served
+     */
+    @Override
+    public void close() {
+        WatchService service;
+        synchronized (this) {
+            service = watchService;
+            watchService = null;
+        }
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                System.err.println("Could not close model directory watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * One published model: its version number, the (immutable) predictor, and where it was loaded from
+     */
+    public static final class ModelVersion {
+        private final long number;
+        private final DiabetesPredictor predictor;
+        private final Path source;
+        private final long publishedAtMillis;
+
+        private ModelVersion(long number, DiabetesPredictor predictor, Path source, long publishedAtMillis) {
+            this.number = number;
+            this.predictor = predictor;
+            this.source = source;
+            this.publishedAtMillis = publishedAtMillis;
+        }
+
+        public long getNumber() { return number; }
+        public DiabetesPredictor getPredictor() { return predictor; }
+        public long getPublishedAtMillis() { return publishedAtMillis; }
+
+        /**
+         * File the model was loaded from, or null if it was published directly
+         */
+        public Path getSource() { return source; }
+
+        @Override
+        public String toString() {
+            return "v" + number + (source != null ? " (" + source + ")" : "");
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.diabetes.prediction.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Columnar, primitive-backed store of patient records.
+ * Each feature lives in its own double[] column and outcomes are packed into a byte[],
+ * so training and analysis loops can scan contiguous arrays without allocating per row.
+ */
+public class PatientDataset {
+    public static final int NUM_FEATURES = 8;
+
+    public static final String[] FEATURE_NAMES = {"Pregnancies", "Glucose", "BloodPressure", "SkinThickness",
+            "Insulin", "BMI", "DiabetesPedigreeFunction", "Age"};
+
+    private final double[][] columns;
+    private final byte[] outcomes;
+    private final int size;
+
+    /**
+     * Wrap existing columns; arrays are used as-is and not copied
+     */
+    public PatientDataset(double[][] columns, byte[] outcomes, int size) {
+        if (columns.length != NUM_FEATURES) {
+            throw new IllegalArgumentException("Expected " + NUM_FEATURES + " feature columns, got " + columns.length);
+        }
+        for (double[] column : columns) {
+            if (column.length < size) {
+                throw new IllegalArgumentException("Feature column shorter than dataset size " + size);
+            }
+        }
+        if (outcomes.length < size) {
+            throw new IllegalArgumentException("Outcome column shorter than dataset size " + size);
+        }
+        this.columns = columns;
+        this.outcomes = outcomes;
+        this.size = size;
+    }
+
+    /**
+     * Convert a list of patients into columnar form
+     */
+    public static PatientDataset fromPatients(List<Patient> patients) {
+        int n = patients.size();
+        double[][] columns = new double[NUM_FEATURES][n];
+        byte[] outcomes = new byte[n];
+
+        int row = 0;
+        for (Patient patient : patients) {
+            columns[0][row] = patient.getPregnancies();
+            columns[1][row] = patient.getGlucose();
+            columns[2][row] = patient.getBloodPressure();
+            columns[3][row] = patient.getSkinThickness();
+            columns[4][row] = patient.getInsulin();
+            columns[5][row] = patient.getBmi();
+            columns[6][row] = patient.getDiabetesPedigreeFunction();
+            columns[7][row] = patient.getAge();
+            outcomes[row] = (byte) patient.getOutcome();
+            row++;
+        }
+        return new PatientDataset(columns, outcomes, n);
+    }
+
+    /**
+     * Concatenate datasets in the given order into one new dataset
+     */
+    public static PatientDataset concat(List<PatientDataset> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        long total = 0;
+        for (PatientDataset part : parts) {
+            total += part.size;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many rows for one dataset: " + total);
+        }
+
+        int n = (int) total;
+        double[][] columns = new double[NUM_FEATURES][n];
+        byte[] outcomes = new byte[n];
+        int offset = 0;
+        for (PatientDataset part : parts) {
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                System.arraycopy(part.columns[f], 0, columns[f], offset, part.size);
+            }
+            System.arraycopy(part.outcomes, 0, outcomes, offset, part.size);
+            offset += part.size;
+        }
+        return new PatientDataset(columns, outcomes, n);
+    }
+
+    /**
+     * Materialize the rows back into Patient objects (for UI and legacy callers)
+     */
+    public List<Patient> toPatients() {
+        List<Patient> patients = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            patients.add(getPatient(row));
+        }
+        return patients;
+    }
+
+    public Patient getPatient(int row) {
+        return new Patient((int) columns[0][row], columns[1][row], columns[2][row], columns[3][row],
+                columns[4][row], columns[5][row], columns[6][row], (int) columns[7][row], outcomes[row]);
+    }
+
+    /**
+     * Shuffle rows in place using the same swap sequence as Collections.shuffle,
+     * so a given seed produces the same row order as shuffling the equivalent List
+     */
+    public void shuffle(Random random) {
+        for (int i = size; i > 1; i--) {
+            swap(i - 1, random.nextInt(i));
+        }
+    }
+
+    private void swap(int a, int b) {
+        for (double[] column : columns) {
+            double tmp = column[a];
+            column[a] = column[b];
+            column[b] = tmp;
+        }
+        byte tmp = outcomes[a];
+        outcomes[a] = outcomes[b];
+        outcomes[b] = tmp;
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public double get(int row, int feature) { return columns[feature][row]; }
+    public int getOutcome(int row) { return outcomes[row]; }
+
+    /**
+     * Direct access to a feature column; valid indices are [0, size())
+     */
+    public double[] getColumn(int feature) { return columns[feature]; }
+
+    /**
+     * Direct access to the outcome column; valid indices are [0, size())
+     */
+    public byte[] getOutcomes() { return outcomes; }
+
+    /**
+     * Growable builder used by loaders that append rows one at a time
+     */
+    public static class Builder {
+        private double[][] columns;
+        private byte[] outcomes;
+        private int size;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int initialCapacity) {
+            int capacity = Math.max(initialCapacity, 16);
+            columns = new double[NUM_FEATURES][capacity];
+            outcomes = new byte[capacity];
+        }
+
+        public Builder add(double pregnancies, double glucose, double bloodPressure, double skinThickness,
+                           double insulin, double bmi, double diabetesPedigreeFunction, double age, int outcome) {
+            ensureCapacity(size + 1);
+            columns[0][size] = pregnancies;
+            columns[1][size] = glucose;
+            columns[2][size] = bloodPressure;
+            columns[3][size] = skinThickness;
+            columns[4][size] = insulin;
+            columns[5][size] = bmi;
+            columns[6][size] = diabetesPedigreeFunction;
+            columns[7][size] = age;
+            outcomes[size] = (byte) outcome;
+            size++;
+            return this;
+        }
+
+        /**
+         * Append a row from a feature array in column order
+         */
+        public Builder add(double[] features, int outcome) {
+            return add(features[0], features[1], features[2], features[3],
+                    features[4], features[5], features[6], features[7], outcome);
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= outcomes.length) {
+                return;
+            }
+            int capacity = Math.max(required, outcomes.length + (outcomes.length >> 1));
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                columns[f] = Arrays.copyOf(columns[f], capacity);
+            }
+            outcomes = Arrays.copyOf(outcomes, capacity);
+        }
+
+        public int size() { return size; }
+
+        /**
+         * Trim the columns to the number of rows added and build the dataset
+         */
+        public PatientDataset build() {
+            double[][] trimmed = new double[NUM_FEATURES][];
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                trimmed[f] = columns[f].length == size ? columns[f] : Arrays.copyOf(columns[f], size);
+            }
+            byte[] trimmedOutcomes = outcomes.length == size ? outcomes : Arrays.copyOf(outcomes, size);
+            return new PatientDataset(trimmed, trimmedOutcomes, size);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.diabetes.prediction.model;
+
+/**
+ * A subset of a PatientDataset's rows, given as a range of an index array into the dataset.
+ * Nothing is copied: many views (for example every cross-validation fold) can share one dataset
+ * and one index array, so their memory cost does not grow with the number of views.
+ */
+public class PatientDatasetView {
+    private final PatientDataset dataset;
+    private final int[] rows;
+    private final int from;
+    private final int size;
+
+    /**
+     * View of rows[from], ..., rows[from + size - 1]; the index array is used as-is and not copied
+     */
+    public PatientDatasetView(PatientDataset dataset, int[] rows, int from, int size) {
+        if (from < 0 || size < 0 || from > rows.length - size) {
+            throw new IllegalArgumentException("Range [" + from + ", " + from + " + " + size
+                    + ") is outside an index array of length " + rows.length);
+        }
+        this.dataset = dataset;
+        this.rows = rows;
+        this.from = from;
+        this.size = size;
+    }
+
+    private PatientDatasetView(PatientDataset dataset) {
+        this.dataset = dataset;
+        this.rows = null;
+        this.from = 0;
+        this.size = dataset.size();
+    }
+
+    /**
+     * View of every row of the dataset, in order
+     */
+    public static PatientDatasetView of(PatientDataset dataset) {
+        return new PatientDatasetView(dataset);
+    }
+
+    public PatientDataset getDataset() { return dataset; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Index in the underlying dataset of the i-th row of this view
+     */
+    public int rowAt(int i) {
+        return rows == null ? i : rows[from + i];
+    }
+
+    /**
+     * Copy the feature values of view rows [from, from + length) into out[0..length)
+     */
+    public void copyColumn(int feature, int from, int length, double[] out) {
+        double[] column = dataset.getColumn(feature);
+        if (rows == null) {
+            System.arraycopy(column, from, out, 0, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out[i] = column[rows[this.from + from + i]];
+        }
+    }
+
+    public double get(int i, int feature) { return dataset.get(rowAt(i), feature); }
+    public int getOutcome(int i) { return dataset.getOutcome(rowAt(i)); }
+}
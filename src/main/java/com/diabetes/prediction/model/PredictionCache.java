@@ -0,0 +1,224 @@
+package com.diabetes.prediction.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of predicted probabilities keyed by the exact feature vector.
+ *
+ * Entries live in independently locked LRU stripes chosen by the key's hash, so concurrent
+ * scorers only contend when they hit the same stripe. Each stripe remembers which predictor its
+ * entries were computed with and clears itself the first time it is used with a different one,
+ * so swapping in a new model invalidates the cache without a global lock or an explicit call.
+ */
+public class PredictionCache {
+    private static final int MIN_ENTRIES_PER_STRIPE = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PredictionCache(int maxEntries) {
+        this(maxEntries, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public PredictionCache(int maxEntries, int concurrency) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        // Power-of-two stripe count, but never so many that stripes become tiny
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(concurrency, maxEntries / MIN_ENTRIES_PER_STRIPE)));
+        this.stripes = new Stripe[stripeCount];
+        // Stripes are picked from the top hash bits; the maps inside a stripe index by the low bits
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+        this.maxEntries = maxEntries;
+        int perStripe = maxEntries / stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder so the stripe capacities add up to maxEntries exactly
+            stripes[i] = new Stripe(perStripe + (i < maxEntries % stripeCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Cached probability for the patient, computing and caching it on a miss
+     */
+    public double predictProbability(DiabetesPredictor predictor, Patient patient) {
+        return predictProbability(predictor, patient.getFeatures());
+    }
+
+    /**
+     * Cached probability for a raw feature vector (dataset column order), computing and caching it on a miss
+     */
+    public double predictProbability(DiabetesPredictor predictor, double[] features) {
+        Key key = new Key(features);
+        double cached = lookup(predictor, key);
+        if (!Double.isNaN(cached)) {
+            return cached;
+        }
+        double probability = predictor.predictProbability(features);
+        store(predictor, key, probability);
+        return probability;
+    }
+
+    /**
+     * Cached probability for the features under this predictor, or NaN on a miss
+     */
+    public double lookup(DiabetesPredictor predictor, double[] features) {
+        return lookup(predictor, new Key(features));
+    }
+
+    /**
+     * Cache a probability computed elsewhere (for example by a batch or a coalescer)
+     */
+    public void put(DiabetesPredictor predictor, double[] features, double probability) {
+        store(predictor, new Key(features), probability);
+    }
+
+    private double lookup(DiabetesPredictor predictor, Key key) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.ensureOwner(predictor);
+            Double value = stripe.entries.get(key);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    private void store(DiabetesPredictor predictor, Key key, double probability) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.ensureOwner(predictor);
+            stripe.entries.put(key, probability);
+        }
+    }
+
+    private Stripe stripeFor(Key key) {
+        return stripeShift == 32 ? stripes[0] : stripes[key.hash >>> stripeShift];
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxEntries() { return maxEntries; }
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    /**
+     * Number of stripes cleared because they were used with a different predictor
+     */
+    public long getInvalidationCount() { return invalidations.sum(); }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private class Stripe {
+        final LinkedHashMap<Key, Double> entries;
+        DiabetesPredictor owner;
+
+        Stripe(int capacity) {
+            this.entries = new LinkedHashMap<Key, Double>(Math.max(16, capacity * 4 / 3 + 1), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void ensureOwner(DiabetesPredictor predictor) {
+            if (owner != predictor) {
+                if (owner != null && !entries.isEmpty()) {
+                    invalidations.increment();
+                }
+                entries.clear();
+                owner = predictor;
+            }
+        }
+    }
+
+    /**
+     * The eight features as raw IEEE bits: exact matching, no boxing, hash computed once
+     */
+    private static final class Key {
+        private final long f0, f1, f2, f3, f4, f5, f6, f7;
+        private final int hash;
+
+        Key(double[] features) {
+            if (features.length != PatientDataset.NUM_FEATURES) {
+                throw new IllegalArgumentException("Expected " + PatientDataset.NUM_FEATURES + " features, got "
+                        + features.length);
+            }
+            f0 = Double.doubleToLongBits(features[0]);
+            f1 = Double.doubleToLongBits(features[1]);
+            f2 = Double.doubleToLongBits(features[2]);
+            f3 = Double.doubleToLongBits(features[3]);
+            f4 = Double.doubleToLongBits(features[4]);
+            f5 = Double.doubleToLongBits(features[5]);
+            f6 = Double.doubleToLongBits(features[6]);
+            f7 = Double.doubleToLongBits(features[7]);
+
+            long h = f0;
+            h = h * 31 + f1;
+            h = h * 31 + f2;
+            h = h * 31 + f3;
+            h = h * 31 + f4;
+            h = h * 31 + f5;
+            h = h * 31 + f6;
+            h = h * 31 + f7;
+            // Finalizer mix so both the top bits (stripe) and the low bits (map bucket) are well spread
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            this.hash = (int) h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return hash == k.hash && f0 == k.f0 && f1 == k.f1 && f2 == k.f2 && f3 == k.f3
+                    && f4 == k.f4 && f5 == k.f5 && f6 == k.f6 && f7 == k.f7;
+        }
+    }
+}
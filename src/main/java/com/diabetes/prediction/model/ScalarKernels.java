@@ -0,0 +1,55 @@
+package com.diabetes.prediction.model;
+
+/**
+ * Plain-loop implementations of the ColumnKernels operations. They are the reference the vectorized
+ * kernels must match bit for bit, and they also score the tail rows that do not fill a vector.
+ */
+final class ScalarKernels {
+
+    private ScalarKernels() {
+    }
+
+    /**
+     * out[outOffset + r] = initial + sum over i of weights[i] * columns[i][offset + r], for r in [0, length)
+     */
+    static void linear(double[][] columns, int offset, int length, double[] weights, double initial,
+                       double[] out, int outOffset) {
+        // Accumulate column by column so each pass is a straight scan over one array
+        double[] first = columns[0];
+        double w0 = weights[0];
+        for (int r = 0; r < length; r++) {
+            out[outOffset + r] = initial + w0 * first[offset + r];
+        }
+        for (int i = 1; i < columns.length; i++) {
+            double[] column = columns[i];
+            double w = weights[i];
+            for (int r = 0; r < length; r++) {
+                out[outOffset + r] += w * column[offset + r];
+            }
+        }
+    }
+
+    /**
+     * Replace column[from, from + length) with its z-scores, or zeros when std is 0
+     */
+    static void standardize(double[] column, int from, int length, double mean, double std) {
+        if (std == 0) {
+            for (int r = from; r < from + length; r++) {
+                column[r] = 0;
+            }
+            return;
+        }
+        for (int r = from; r < from + length; r++) {
+            column[r] = (column[r] - mean) / std;
+        }
+    }
+
+    static void checkLinear(double[][] columns, double[] weights, double[] out, int length) {
+        if (weights.length < columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " weights, got " + weights.length);
+        }
+        if (out.length < length) {
+            throw new IllegalArgumentException("Output buffer too small: " + out.length + " < " + length);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.diabetes.prediction.model;
+
+/**
+ * Metadata describing how a model was trained, stored alongside the weights in the model file
+ */
+public class TrainingInfo {
+    public static final TrainingInfo UNKNOWN = new TrainingInfo(0, 0, "UNKNOWN", 0L, "");
+
+    private final long rowCount;
+    private final int passes;
+    private final String optimizer;
+    private final long trainedAtMillis;
+    private final String datasetFingerprint;
+
+    public TrainingInfo(long rowCount, int passes, String optimizer, long trainedAtMillis, String datasetFingerprint) {
+        this.rowCount = rowCount;
+        this.passes = passes;
+        this.optimizer = optimizer;
+        this.trainedAtMillis = trainedAtMillis;
+        this.datasetFingerprint = datasetFingerprint;
+    }
+
+    /**
+     * Copy of this info tagged with the fingerprint of the dataset file it was trained on
+     */
+    public TrainingInfo withDatasetFingerprint(String fingerprint) {
+        return new TrainingInfo(rowCount, passes, optimizer, trainedAtMillis, fingerprint);
+    }
+
+    public long getRowCount() { return rowCount; }
+    public int getPasses() { return passes; }
+    public String getOptimizer() { return optimizer; }
+    public long getTrainedAtMillis() { return trainedAtMillis; }
+    public String getDatasetFingerprint() { return datasetFingerprint; }
+
+    @Override
+    public String toString() {
+        return String.format("TrainingInfo{rows=%d, passes=%d, optimizer=%s, trainedAt=%d, dataset=%s}",
+                rowCount, passes, optimizer, trainedAtMillis, datasetFingerprint);
+    }
+}
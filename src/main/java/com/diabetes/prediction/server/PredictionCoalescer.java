@@ -0,0 +1,249 @@
+package com.diabetes.prediction.server;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.ModelRegistry;
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent single-patient predictions into batches scored with one columnar call.
+ *
+ * A dispatcher thread takes the first waiting request, drains whatever else has queued up, and,
+ * only if the previous batch held more than one request (i.e. callers really are concurrent),
+ * waits up to maxWaitMicros for the batch to fill to maxBatchSize. At low load every request is
+ * scored as soon as it arrives, so batching adds no latency; at peak load requests that queue up
+ * while a batch is being scored are naturally picked up together.
+ *
+ * Each batch is scored with the registry's current model, read once per batch, so a model swap
+ * takes effect at the next batch without draining the queue.
+ *
+ * Futures are completed on the dispatcher thread; keep dependent stages short or make them async.
+ */
+public class PredictionCoalescer implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+    public static final long DEFAULT_MAX_WAIT_MICROS = 100;
+    private static final int QUEUE_CAPACITY_PER_BATCH = 64;
+
+    private final ModelRegistry registry;
+    private final BlockingQueue<Request> queue;
+    private final Thread dispatcher;
+    private volatile int maxBatchSize;
+    private volatile long maxWaitMicros;
+    private volatile boolean closed;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int largestBatch;
+    private final LatencyRecorder latency = new LatencyRecorder();
+
+    public PredictionCoalescer(DiabetesPredictor predictor) {
+        this(new ModelRegistry(predictor));
+    }
+
+    public PredictionCoalescer(DiabetesPredictor predictor, int maxBatchSize, long maxWaitMicros) {
+        this(new ModelRegistry(predictor), maxBatchSize, maxWaitMicros);
+    }
+
+    /**
+     * Score with whatever model the registry is serving when each batch is taken
+     */
+    public PredictionCoalescer(ModelRegistry registry) {
+        this(registry, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_WAIT_MICROS);
+    }
+
+    public PredictionCoalescer(ModelRegistry registry, int maxBatchSize, long maxWaitMicros) {
+        this.registry = registry;
+        setMaxBatchSize(maxBatchSize);
+        setMaxWaitMicros(maxWaitMicros);
+        this.queue = new ArrayBlockingQueue<>(maxBatchSize * QUEUE_CAPACITY_PER_BATCH);
+        this.dispatcher = new Thread(this::dispatchLoop, "prediction-coalescer");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Queue a patient for scoring; the future completes with the diabetes probability
+     */
+    public CompletableFuture<Double> submit(Patient patient) {
+        return submit(new double[]{
+                patient.getPregnancies(), patient.getGlucose(), patient.getBloodPressure(),
+                patient.getSkinThickness(), patient.getInsulin(), patient.getBmi(),
+                patient.getDiabetesPedigreeFunction(), patient.getAge()
+        });
+    }
+
+    /**
+     * Queue a raw feature vector (dataset column order) for scoring; the array is copied
+     */
+    public CompletableFuture<Double> submit(double[] features) {
+        if (features.length != PatientDataset.NUM_FEATURES) {
+            throw new IllegalArgumentException("Expected " + PatientDataset.NUM_FEATURES + " features, got "
+                    + features.length);
+        }
+        Request request = new Request(features.clone());
+        if (closed || !queue.offer(request)) {
+            rejected.increment();
+            request.result.completeExceptionally(new RejectedExecutionException(
+                    closed ? "Coalescer is closed" : "Coalescer queue is full"));
+        } else if (closed && queue.remove(request)) {
+            // Closed while offering: the dispatcher may already have exited, so do not leave it queued
+            rejected.increment();
+            request.result.completeExceptionally(new RejectedExecutionException("Coalescer is closed"));
+        }
+        return request.result;
+    }
+
+    private void dispatchLoop() {
+        int capacity = 0;
+        double[][] columns = null;
+        double[] probabilities = null;
+        List<Request> batch = new ArrayList<>();
+        int previousBatchSize = 1;
+
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Request first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                int limit = maxBatchSize;
+                batch.add(first);
+                queue.drainTo(batch, limit - 1);
+
+                // Only wait for stragglers when recent traffic shows concurrent callers
+                long waitMicros = maxWaitMicros;
+                if (batch.size() < limit && previousBatchSize > 1 && waitMicros > 0) {
+                    long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(waitMicros);
+                    while (batch.size() < limit) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, limit - batch.size());
+                    }
+                }
+
+                int n = batch.size();
+                if (n > capacity) {
+                    capacity = Math.max(n, limit);
+                    columns = new double[PatientDataset.NUM_FEATURES][capacity];
+                    probabilities = new double[capacity];
+                }
+                score(batch, columns, probabilities);
+                previousBatchSize = n;
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Closing
+        }
+
+        // Anything still queued after an interrupt is failed rather than left hanging
+        for (Request request; (request = queue.poll()) != null; ) {
+            request.result.completeExceptionally(new RejectedExecutionException("Coalescer is closed"));
+        }
+    }
+
+    private void score(List<Request> batch, double[][] columns, double[] probabilities) {
+        int n = batch.size();
+        for (int r = 0; r < n; r++) {
+            double[] features = batch.get(r).features;
+            for (int f = 0; f < columns.length; f++) {
+                columns[f][r] = features[f];
+            }
+        }
+
+        try {
+            registry.getPredictor().predictProbabilities(columns, 0, n, probabilities);
+        } catch (RuntimeException e) {
+            for (Request request : batch) {
+                request.result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        requests.add(n);
+        batches.increment();
+        if (n > largestBatch) {
+            largestBatch = n;
+        }
+        long now = System.nanoTime();
+        for (int r = 0; r < n; r++) {
+            Request request = batch.get(r);
+            latency.record(now - request.submittedAtNanos);
+            request.result.complete(probabilities[r]);
+        }
+    }
+
+    /**
+     * Stop accepting requests, score everything already queued, and stop the dispatcher
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            dispatcher.interrupt();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getMaxWaitMicros() { return maxWaitMicros; }
+
+    public void setMaxWaitMicros(long maxWaitMicros) {
+        if (maxWaitMicros < 0) {
+            throw new IllegalArgumentException("Wait time must not be negative: " + maxWaitMicros);
+        }
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    // Metrics
+    public long getRequestCount() { return requests.sum(); }
+    public long getBatchCount() { return batches.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+    public int getLargestBatch() { return largestBatch; }
+    public int getQueueDepth() { return queue.size(); }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) requests.sum() / count;
+    }
+
+    /**
+     * Time from submit to completion, including the wait in the queue
+     */
+    public LatencyRecorder getLatency() { return latency; }
+
+    private static class Request {
+        final double[] features;
+        final long submittedAtNanos = System.nanoTime();
+        final CompletableFuture<Double> result = new CompletableFuture<>();
+
+        Request(double[] features) {
+            this.features = features;
+        }
+    }
+}
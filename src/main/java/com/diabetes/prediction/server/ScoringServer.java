@@ -0,0 +1,495 @@
+package com.diabetes.prediction.server;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.ModelRegistry;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PredictionCache;
+import com.diabetes.prediction.utils.CsvParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP scoring service on the JDK's built-in server.
+ *
+ * Endpoints (request and response bodies are plain CSV, one patient per line, features in dataset
+ * column order; a ninth Outcome field is accepted and ignored, and a header line is skipped):
+ *   POST /predict        one patient                  -> "probability,prediction"
+ *   POST /predict/batch  any number of patients       -> one "probability,prediction" line per patient
+ *   GET  /metrics        request, row and error counters, throughput and p50/p99/p999 latency
+ *   GET  /health         "OK"
+ *   GET  /model          the model version being served
+ *   POST /model/rollback go back to the previously served model version
+ *
+ * Models come from a ModelRegistry. Each request reads the current model once and scores with it
+ * to the end, so a new version (or a rollback) takes effect at the next request without pausing any.
+ *
+ * Latency is measured server-side, from the start of handling to the end of the response body.
+ */
+public class ScoringServer {
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int MAX_BODY_BYTES = 16 << 20;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final long PROBABILITY_SCALE = 1_000_000;
+    private static final String CSV_CONTENT_TYPE = "text/csv; charset=utf-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final ModelRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final long startedAtNanos = System.nanoTime();
+
+    private final LatencyRecorder singleLatency = new LatencyRecorder();
+    private final LatencyRecorder batchLatency = new LatencyRecorder();
+    private final LongAdder rowsScored = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private volatile PredictionCoalescer coalescer;
+    private volatile PredictionCache cache;
+
+    /**
+     * Bind to the given port (0 picks a free one) and serve on the default executor
+     */
+    public ScoringServer(DiabetesPredictor predictor, int port) throws IOException {
+        this(new ModelRegistry(predictor), port);
+    }
+
+    /**
+     * Serve whatever model the registry publishes, on the given port and the default executor
+     */
+    public ScoringServer(ModelRegistry registry, int port) throws IOException {
+        this(registry, new InetSocketAddress(port), defaultExecutor(), true);
+    }
+
+    /**
+     * Bind to the given address and serve on the given executor, which the caller keeps ownership of
+     */
+    public ScoringServer(DiabetesPredictor predictor, InetSocketAddress address, ExecutorService executor)
+            throws IOException {
+        this(new ModelRegistry(predictor), address, executor, false);
+    }
+
+    private ScoringServer(ModelRegistry registry, InetSocketAddress address, ExecutorService executor,
+                          boolean ownsExecutor) throws IOException {
+        this.registry = registry;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        route("/predict", "POST", timed(this::handleSingle, singleLatency));
+        route("/predict/batch", "POST", timed(this::handleBatch, batchLatency));
+        route("/metrics", "GET", exchange -> respond(exchange, 200, TEXT_CONTENT_TYPE, metricsText()));
+        route("/health", "GET", exchange -> respond(exchange, 200, TEXT_CONTENT_TYPE, "OK\n"));
+        route("/model", "GET", this::handleModel);
+        route("/model/rollback", "POST", this::handleRollback);
+    }
+
+    /**
+     * Serve exactly this path with this method. HttpServer contexts match by prefix, so anything
+     * else under the path (/predict/foo, /modelXYZ) is answered 404, and other methods 405.
+     */
+    private void route(String path, String method, HttpHandler handler) {
+        server.createContext(path, exchange -> {
+            if (!path.equals(exchange.getRequestURI().getPath())) {
+                clientErrors.increment();
+                respond(exchange, 404, TEXT_CONTENT_TYPE, "Not found\n");
+            } else if (!method.equals(exchange.getRequestMethod())) {
+                clientErrors.increment();
+                exchange.getResponseHeaders().set("Allow", method);
+                respond(exchange, 405, TEXT_CONTENT_TYPE, "Use " + method + "\n");
+            } else {
+                handler.handle(exchange);
+            }
+        });
+    }
+
+    /**
+     * A virtual-thread-per-request executor when the running JDK has one (looked up reflectively,
+     * since the project targets Java 11), otherwise a fixed pool sized for blocking socket I/O
+     */
+    public static ExecutorService defaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Scoring server listening on port " + getPort());
+    }
+
+    /**
+     * Stop accepting requests, wait up to delaySeconds for exchanges in progress, then release the executor
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        if (ownsExecutor) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Route single-patient requests through a coalescer so concurrent requests are scored in batches
+     * (null scores each request directly). The caller keeps ownership of the coalescer.
+     */
+    public void setCoalescer(PredictionCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Answer repeated single-patient requests from a cache (null disables caching)
+     */
+    public void setCache(PredictionCache cache) {
+        this.cache = cache;
+    }
+
+    public int getPort() { return server.getAddress().getPort(); }
+    public ModelRegistry getRegistry() { return registry; }
+
+    public LatencyRecorder getSingleLatency() { return singleLatency; }
+    public LatencyRecorder getBatchLatency() { return batchLatency; }
+    public long getRowsScored() { return rowsScored.sum(); }
+
+    private HttpHandler timed(HttpHandler handler, LatencyRecorder latency) {
+        return exchange -> {
+            long start = System.nanoTime();
+            try {
+                handler.handle(exchange);
+            } catch (BadRequestException e) {
+                clientErrors.increment();
+                respond(exchange, e.status, TEXT_CONTENT_TYPE, e.getMessage() + "\n");
+            } catch (RuntimeException e) {
+                serverErrors.increment();
+                respond(exchange, 500, TEXT_CONTENT_TYPE, "Scoring failed\n");
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        ByteBuffer body = ByteBuffer.wrap(readBody(exchange));
+        double[] features = new double[PatientDataset.NUM_FEATURES];
+        int rows = 0;
+        int lineStart = 0;
+        while (lineStart < body.limit()) {
+            int lineEnd = lineEnd(body, lineStart);
+            if (parseLine(body, lineStart, lineEnd, features, rows == 0 && lineStart == 0)) {
+                rows++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (rows != 1) {
+            throw new BadRequestException(400, "Expected exactly one patient, got " + rows);
+        }
+
+        DiabetesPredictor predictor = currentPredictor();
+        PredictionCache results = cache;
+        double probability = results != null ? results.lookup(predictor, features) : Double.NaN;
+        if (Double.isNaN(probability)) {
+            probability = scoreOne(predictor, features);
+            // The coalescer scores with the model current at batch time; only cache what this model computed
+            if (results != null && registry.getPredictor() == predictor) {
+                results.put(predictor, features, probability);
+            }
+        }
+        rowsScored.increment();
+        StringBuilder response = new StringBuilder(16);
+        appendScore(response, probability);
+        respond(exchange, 200, CSV_CONTENT_TYPE, response.toString());
+    }
+
+    /**
+     * Score one patient, through the coalescer when one is configured
+     */
+    private double scoreOne(DiabetesPredictor predictor, double[] features) {
+        PredictionCoalescer batcher = coalescer;
+        if (batcher == null) {
+            return predictor.predictProbability(features);
+        }
+        try {
+            return batcher.submit(features).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new BadRequestException(503, "Server busy, retry later");
+            }
+            throw e;
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        ByteBuffer body = ByteBuffer.wrap(readBody(exchange));
+        double[][] columns = new double[PatientDataset.NUM_FEATURES][64];
+        double[] features = new double[PatientDataset.NUM_FEATURES];
+        int rows = 0;
+        int lineStart = 0;
+        while (lineStart < body.limit()) {
+            int lineEnd = lineEnd(body, lineStart);
+            if (parseLine(body, lineStart, lineEnd, features, lineStart == 0)) {
+                if (rows == columns[0].length) {
+                    for (int f = 0; f < columns.length; f++) {
+                        columns[f] = Arrays.copyOf(columns[f], rows * 2);
+                    }
+                }
+                for (int f = 0; f < columns.length; f++) {
+                    columns[f][rows] = features[f];
+                }
+                rows++;
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        double[] probabilities = new double[rows];
+        currentPredictor().predictProbabilities(columns, 0, rows, probabilities);
+        rowsScored.add(rows);
+
+        StringBuilder response = new StringBuilder(rows * 11);
+        for (double probability : probabilities) {
+            appendScore(response, probability);
+        }
+        respond(exchange, 200, CSV_CONTENT_TYPE, response.toString());
+    }
+
+    private DiabetesPredictor currentPredictor() {
+        DiabetesPredictor predictor = registry.getPredictor();
+        if (predictor == null) {
+            throw new BadRequestException(503, "No model loaded yet");
+        }
+        return predictor;
+    }
+
+    private void handleModel(HttpExchange exchange) throws IOException {
+        ModelRegistry.ModelVersion version = registry.getCurrent();
+        respond(exchange, 200, TEXT_CONTENT_TYPE, version != null ? modelText(version) : "none\n");
+    }
+
+    private void handleRollback(HttpExchange exchange) throws IOException {
+        try {
+            ModelRegistry.ModelVersion version = registry.rollback();
+            System.out.println("Rolled back to model version " + version);
+            respond(exchange, 200, TEXT_CONTENT_TYPE, modelText(version));
+        } catch (IllegalStateException e) {
+            respond(exchange, 409, TEXT_CONTENT_TYPE, e.getMessage() + "\n");
+        }
+    }
+
+    private static String modelText(ModelRegistry.ModelVersion version) {
+        return "version " + version.getNumber() + "\n"
+                + "source " + (version.getSource() != null ? version.getSource() : "-") + "\n"
+                + "published_at_millis " + version.getPublishedAtMillis() + "\n"
+                + "trained_on_rows " + version.getPredictor().getTrainingInfo().getRowCount() + "\n";
+    }
+
+    /**
+     * Parse one CSV line into features. Blank lines and (when allowed) a header line are skipped and
+     * return false; anything else that is not 8 or 9 numeric fields is a bad request.
+     */
+    private static boolean parseLine(ByteBuffer body, int start, int end, double[] features, boolean mayBeHeader) {
+        while (start < end && (body.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (body.get(end - 1) & 0xFF) <= ' ') end--;
+        if (start == end) {
+            return false;
+        }
+        if (mayBeHeader && Character.isLetter(body.get(start))) {
+            return false;
+        }
+
+        int field = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || body.get(i) == ',') {
+                if (field < features.length) {
+                    features[field] = parseNumber(body, fieldStart, i);
+                } else if (field == features.length) {
+                    parseNumber(body, fieldStart, i); // Outcome: validated, not used
+                } else {
+                    throw new BadRequestException(400, "Too many fields in line: " + text(body, start, end));
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        if (field < features.length) {
+            throw new BadRequestException(400, "Expected " + features.length + " features, got " + field
+                    + " in line: " + text(body, start, end));
+        }
+        return true;
+    }
+
+    /**
+     * Plain decimals are decoded straight from the bytes; only fields CsvParser.parseDecimal
+     * declines (exponent overflow, NaN, garbage, ...) are turned into a String for the JDK parser.
+     */
+    private static double parseNumber(ByteBuffer body, int start, int end) {
+        double value = CsvParser.parseDecimal(body, start, end);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        String field = text(body, start, end).trim();
+        try {
+            value = Double.parseDouble(field);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException(400, "Not a number: " + field);
+        }
+        if (!Double.isFinite(value)) {
+            throw new BadRequestException(400, "Not a finite number: " + field);
+        }
+        return value;
+    }
+
+    private static int lineEnd(ByteBuffer body, int start) {
+        int i = start;
+        while (i < body.limit() && body.get(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static String text(ByteBuffer body, int start, int end) {
+        return new String(body.array(), start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append "probability,prediction" with six decimals, without String.format
+     */
+    private static void appendScore(StringBuilder out, double probability) {
+        long scaled = Math.round(probability * PROBABILITY_SCALE);
+        out.append(scaled / PROBABILITY_SCALE).append('.');
+        String fraction = Long.toString(scaled % PROBABILITY_SCALE);
+        for (int i = fraction.length(); i < 6; i++) {
+            out.append('0');
+        }
+        out.append(fraction).append(',').append(probability >= 0.5 ? '1' : '0').append('\n');
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        int expected = 256;
+        if (length != null) {
+            long declared;
+            try {
+                declared = Long.parseLong(length.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException(400, "Invalid Content-Length: " + length);
+            }
+            if (declared > MAX_BODY_BYTES) {
+                throw new BadRequestException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+            expected = (int) Math.max(0, declared);
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(expected);
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new BadRequestException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return body.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String metricsText() {
+        double uptimeSeconds = (System.nanoTime() - startedAtNanos) / 1e9;
+        long requests = singleLatency.getCount() + batchLatency.getCount();
+        StringBuilder out = new StringBuilder(512);
+        out.append("uptime_seconds ").append(String.format("%.3f", uptimeSeconds)).append('\n');
+        out.append("requests_total ").append(requests).append('\n');
+        out.append("rows_scored_total ").append(rowsScored.sum()).append('\n');
+        out.append("client_errors_total ").append(clientErrors.sum()).append('\n');
+        out.append("server_errors_total ").append(serverErrors.sum()).append('\n');
+        out.append("requests_per_second ").append(String.format("%.1f", requests / uptimeSeconds)).append('\n');
+        out.append("rows_per_second ").append(String.format("%.1f", rowsScored.sum() / uptimeSeconds)).append('\n');
+        appendLatency(out, "single", singleLatency);
+        appendLatency(out, "batch", batchLatency);
+
+        ModelRegistry.ModelVersion version = registry.getCurrent();
+        out.append("model_version ").append(version != null ? version.getNumber() : 0).append('\n');
+
+        PredictionCache results = cache;
+        if (results != null) {
+            out.append("cache_entries ").append(results.size()).append('\n');
+            out.append("cache_max_entries ").append(results.getMaxEntries()).append('\n');
+            out.append("cache_hits_total ").append(results.getHitCount()).append('\n');
+            out.append("cache_misses_total ").append(results.getMissCount()).append('\n');
+            out.append("cache_evictions_total ").append(results.getEvictionCount()).append('\n');
+            out.append("cache_invalidations_total ").append(results.getInvalidationCount()).append('\n');
+        }
+
+        PredictionCoalescer batcher = coalescer;
+        if (batcher != null) {
+            out.append("coalescer_max_batch_size ").append(batcher.getMaxBatchSize()).append('\n');
+            out.append("coalescer_max_wait_micros ").append(batcher.getMaxWaitMicros()).append('\n');
+            out.append("coalescer_batches_total ").append(batcher.getBatchCount()).append('\n');
+            out.append("coalescer_rejected_total ").append(batcher.getRejectedCount()).append('\n');
+            out.append("coalescer_queue_depth ").append(batcher.getQueueDepth()).append('\n');
+            out.append("coalescer_largest_batch ").append(batcher.getLargestBatch()).append('\n');
+            out.append("coalescer_batch_size_mean ")
+                    .append(String.format("%.2f", batcher.getAverageBatchSize())).append('\n');
+            appendLatency(out, "coalescer", batcher.getLatency());
+        }
+        return out.toString();
+    }
+
+    private static void appendLatency(StringBuilder out, String name, LatencyRecorder latency) {
+        out.append(name).append("_requests_total ").append(latency.getCount()).append('\n');
+        out.append(name).append("_latency_mean_micros ")
+                .append(String.format("%.1f", latency.getMeanNanos() / 1e3)).append('\n');
+        out.append(name).append("_latency_p50_micros ")
+                .append(String.format("%.1f", latency.getPercentileNanos(50) / 1e3)).append('\n');
+        out.append(name).append("_latency_p99_micros ")
+                .append(String.format("%.1f", latency.getPercentileNanos(99) / 1e3)).append('\n');
+        out.append(name).append("_latency_p999_micros ")
+                .append(String.format("%.1f", latency.getPercentileNanos(99.9) / 1e3)).append('\n');
+    }
+
+    /**
+     * A request that cannot be scored; carries the HTTP status to answer with
+     */
+    private static class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        BadRequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.diabetes.prediction.ui;
+
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.DatasetStatistics;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Dataset viewer window over a columnar PatientDataset.
+ *
+ * The table's items are row numbers (a RowIndex), and each cell reads its value straight from the
+ * dataset's columns, so opening the window copies nothing and costs the same at any dataset size;
+ * the TableView only materializes the rows on screen. Sorting and filtering build a new RowIndex on a
+ * background thread and swap it in when done; a newer request supersedes one still running.
+ * The table keeps one items list throughout, because replacing the items of a TableView clears its
+ * sort order (unless they are a SortedList), which would undo every sort as it was shown.
+ * Summary figures come from precomputed DatasetStatistics rather than a pass over the rows.
+ */
+class DatasetViewer {
+    private static final String[] COLUMN_TITLES = {"Pregnancies", "Glucose", "Blood Pressure", "Skin Thickness",
+            "Insulin", "BMI", "DPF", "Age", "Outcome"};
+    // Columns shown as whole numbers, like the Patient fields they come from
+    private static final boolean[] INTEGER_COLUMNS = {true, false, false, false, false, false, false, true, true};
+
+    private final PatientDataset dataset;
+    private final DatasetStatistics statistics;
+    private final ExecutorService worker;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final TableView<Integer> tableView = new TableView<>();
+    private final RowList rowList = new RowList();
+    private final Label countLabel = new Label();
+    private final Label viewerStatus = new Label();
+    private final ComboBox<String> outcomeFilter = new ComboBox<>();
+    private final ComboBox<String> featureFilter = new ComboBox<>();
+    private final TextField minField = new TextField();
+    private final TextField maxField = new TextField();
+
+    DatasetViewer(PatientDataset dataset, DatasetStatistics statistics) {
+        this.dataset = dataset;
+        this.statistics = statistics;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dataset-viewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void show() {
+        Stage dataStage = new Stage();
+        dataStage.setTitle("Dataset Viewer");
+
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(10));
+
+        addTableColumns();
+        tableView.setItems(rowList);
+        // Sorting replaces the row index in the background instead of sorting the items in place
+        tableView.setSortPolicy(table -> {
+            refresh();
+            return true;
+        });
+        showRows(RowIndex.all(dataset));
+        VBox.setVgrow(tableView, Priority.ALWAYS);
+
+        root.getChildren().addAll(
+                countLabel,
+                createFilterBar(),
+                tableView,
+                new Separator(),
+                createDatasetStatistics()
+        );
+
+        Scene scene = new Scene(root, 900, 600);
+        dataStage.setScene(scene);
+        dataStage.setOnHidden(e -> worker.shutdownNow());
+        dataStage.show();
+    }
+
+    private void addTableColumns() {
+        for (int c = 0; c < COLUMN_TITLES.length; c++) {
+            int key = c;
+            boolean integer = INTEGER_COLUMNS[c];
+            TableColumn<Integer, Number> tableColumn = new TableColumn<>(COLUMN_TITLES[c]);
+            tableColumn.setUserData(key);
+            tableColumn.setCellValueFactory(cell -> {
+                double value = RowIndex.keyOf(dataset, key, cell.getValue());
+                return new ReadOnlyObjectWrapper<>(integer ? (Number) (int) value : (Number) value);
+            });
+            tableView.getColumns().add(tableColumn);
+        }
+    }
+
+    private HBox createFilterBar() {
+        outcomeFilter.getItems().addAll("All", "Diabetes", "No Diabetes");
+        outcomeFilter.getSelectionModel().selectFirst();
+        featureFilter.getItems().addAll(PatientDataset.FEATURE_NAMES);
+        featureFilter.getSelectionModel().select(1);
+        minField.setPromptText("min");
+        maxField.setPromptText("max");
+        minField.setPrefWidth(80);
+        maxField.setPrefWidth(80);
+
+        Button applyButton = new Button("Apply Filter");
+        applyButton.setOnAction(e -> refresh());
+        minField.setOnAction(e -> refresh());
+        maxField.setOnAction(e -> refresh());
+        outcomeFilter.setOnAction(e -> refresh());
+
+        HBox filterBar = new HBox(10, new Label("Outcome:"), outcomeFilter, new Label("Range:"), featureFilter,
+                minField, maxField, applyButton, viewerStatus);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        return filterBar;
+    }
+
+    /**
+     * Rebuild the row index for the current filter and sort order off the FX thread
+     */
+    private void refresh() {
+        IntPredicate filter;
+        try {
+            filter = currentFilter();
+        } catch (NumberFormatException e) {
+            viewerStatus.setText("Range bounds must be numbers");
+            return;
+        }
+
+        List<TableColumn<Integer, ?>> sortOrder = new ArrayList<>(tableView.getSortOrder());
+        int[] sortKeys = new int[sortOrder.size()];
+        boolean[] descending = new boolean[sortOrder.size()];
+        for (int i = 0; i < sortKeys.length; i++) {
+            sortKeys[i] = (Integer) sortOrder.get(i).getUserData();
+            descending[i] = sortOrder.get(i).getSortType() == TableColumn.SortType.DESCENDING;
+        }
+
+        long request = generation.incrementAndGet();
+        viewerStatus.setText("Updating...");
+        worker.submit(() -> {
+            RowIndex rows = RowIndex.build(dataset, filter, sortKeys, descending,
+                    () -> generation.get() != request);
+            if (rows != null) {
+                Platform.runLater(() -> {
+                    if (generation.get() == request) {
+                        showRows(rows);
+                        viewerStatus.setText("");
+                    }
+                });
+            }
+        });
+    }
+
+    private IntPredicate currentFilter() {
+        int outcome = outcomeFilter.getSelectionModel().getSelectedIndex();
+        int feature = featureFilter.getSelectionModel().getSelectedIndex();
+        double min = minField.getText().isBlank() ? Double.NEGATIVE_INFINITY : Double.parseDouble(minField.getText().trim());
+        double max = maxField.getText().isBlank() ? Double.POSITIVE_INFINITY : Double.parseDouble(maxField.getText().trim());
+        double[] column = dataset.getColumn(feature);
+        byte[] outcomes = dataset.getOutcomes();
+        return row -> (outcome == 0 || outcomes[row] == (outcome == 1 ? 1 : 0))
+                && column[row] >= min && column[row] <= max;
+    }
+
+    private void showRows(RowIndex rows) {
+        // The table reads row numbers from the index on demand, so swapping it in copies nothing
+        rowList.setRows(rows);
+        countLabel.setText(rows.size() == dataset.size()
+                ? "Dataset Records (" + dataset.size() + " patients):"
+                : "Dataset Records (" + rows.size() + " of " + dataset.size() + " patients):");
+    }
+
+    private VBox createDatasetStatistics() {
+        VBox statsBox = new VBox(10);
+        statsBox.setPadding(new Insets(10));
+
+        Text statsTitle = new Text("Dataset Statistics");
+        statsTitle.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        statsBox.getChildren().add(statsTitle);
+
+        long total = statistics.getCount();
+        long diabetesCount = statistics.getPositiveCount();
+        double diabetesPercentage = (double) diabetesCount / total * 100;
+
+        statsBox.getChildren().addAll(
+                new Label("Total Patients: " + total),
+                new Label(String.format("Patients with Diabetes: %d (%.1f%%)", diabetesCount, diabetesPercentage)),
+                new Label(String.format("Patients without Diabetes: %d (%.1f%%)", total - diabetesCount, 100 - diabetesPercentage))
+        );
+
+        CategoryAxis xAxis = new CategoryAxis();
+        NumberAxis yAxis = new NumberAxis();
+        BarChart<String, Number> barChart = new BarChart<>(xAxis, yAxis);
+        barChart.setTitle("Diabetes Distribution");
+        xAxis.setLabel("Outcome");
+        yAxis.setLabel("Count");
+
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName("Patient Count");
+        series.getData().add(new XYChart.Data<>("No Diabetes", total - diabetesCount));
+        series.getData().add(new XYChart.Data<>("Diabetes", diabetesCount));
+        barChart.getData().add(series);
+
+        statsBox.getChildren().add(barChart);
+        return statsBox;
+    }
+
+    /**
+     * The table's items: whichever RowIndex is current, replaced wholesale by one change event
+     */
+    private static class RowList extends ObservableListBase<Integer> {
+        private RowIndex rows = RowIndex.empty();
+
+        void setRows(RowIndex newRows) {
+            RowIndex oldRows = rows;
+            rows = newRows;
+            // A hand-built change reports the old index as the removed list instead of copying it
+            fireChange(new ListChangeListener.Change<Integer>(this) {
+                private boolean onChange;
+
+                @Override
+                public boolean next() {
+                    onChange = !onChange;
+                    return onChange;
+                }
+
+                @Override
+                public void reset() {
+                    onChange = false;
+                }
+
+                @Override
+                public int getFrom() {
+                    return 0;
+                }
+
+                @Override
+                public int getTo() {
+                    return newRows.size();
+                }
+
+                @Override
+                public List<Integer> getRemoved() {
+                    return oldRows;
+                }
+
+                @Override
+                protected int[] getPermutation() {
+                    return new int[0];
+                }
+            });
+        }
+
+        @Override
+        public Integer get(int index) {
+            return rows.get(index);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+    }
+}
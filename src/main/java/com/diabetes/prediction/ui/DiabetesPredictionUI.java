@@ -1,41 +1,58 @@
 package com.diabetes.prediction.ui;
 
 import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.ModelRegistry;
 import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PredictionCache;
+import com.diabetes.prediction.utils.CancellationToken;
 import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.DatasetStatistics;
+import com.diabetes.prediction.utils.ModelLoader;
 import com.diabetes.prediction.utils.ModelTrainer;
+import com.diabetes.prediction.utils.TrainingListener;
+import com.diabetes.prediction.utils.TrainingProgress;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
-import javafx.scene.chart.BarChart;
-import javafx.scene.chart.CategoryAxis;
-import javafx.scene.chart.NumberAxis;
-import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoublePredicate;
 
 public class DiabetesPredictionUI extends Application {
 
     private static final String DATASET_PATH = "data/diabetes.csv";
-
-    private DiabetesPredictor predictor;
-    private List<Patient> patients;
+    private static final int PREDICTION_CACHE_SIZE = 1024;
+    // Quiet period after the last keystroke before a live prediction is made
+    private static final Duration PREDICTION_DEBOUNCE = Duration.millis(200);
+
+    // Model used for predictions; also picks up models saved into the model directory by other processes
+    private final ModelRegistry modelRegistry = new ModelRegistry();
+    // Columnar rows and their summary for the dataset viewer, published together once loaded
+    private volatile PatientDataset dataset;
+    private volatile DatasetStatistics datasetStatistics;
+    // Re-submitted forms are answered from here; entries are dropped automatically after a retrain
+    private final PredictionCache predictionCache = new PredictionCache(PREDICTION_CACHE_SIZE);
 
     // UI Components
     private TextField pregnanciesField;
@@ -49,9 +66,31 @@ public class DiabetesPredictionUI extends Application {
     private Button predictButton;
     private Button resetButton;
     private Button viewDataButton;
+    private Button retrainButton;
+    private Button rollbackButton;
     private Text resultText;
     private ProgressBar confidenceBar;
     private Label confidenceLabel;
+    private CheckBox livePredictionBox;
+    private List<FormField> formFields;
+    private ProgressBar trainingProgressBar;
+    private Button cancelTrainingButton;
+
+    // Token of the training run in progress, if any
+    private volatile CancellationToken trainingToken;
+    // Latest progress not yet shown; lets the training thread post at most one pending FX update
+    private final AtomicReference<TrainingProgress> pendingProgress = new AtomicReference<>();
+
+    // Restarted on every edit; scores the form once typing pauses
+    private PauseTransition predictionDebounce;
+    // Sequence number of the latest prediction request; results of older requests are dropped
+    private final AtomicLong predictionRequest = new AtomicLong();
+    // Scoring runs here so a slow predictor never blocks the form, and never waits behind training
+    private final ExecutorService scoringService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "prediction-scoring");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private StringProperty statusProperty = new SimpleStringProperty("");
     private ExecutorService executorService;
@@ -81,9 +120,18 @@ public class DiabetesPredictionUI extends Application {
         // Status bar
         HBox statusBar = new HBox();
         statusBar.getStyleClass().add("status-bar");
+        statusBar.setAlignment(Pos.CENTER_LEFT);
+        statusBar.setSpacing(10);
         Label statusLabel = new Label();
         statusLabel.textProperty().bind(statusProperty);
-        statusBar.getChildren().add(statusLabel);
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        trainingProgressBar = new ProgressBar();
+        trainingProgressBar.setPrefWidth(200);
+        cancelTrainingButton = new Button("Cancel");
+        cancelTrainingButton.setOnAction(e -> cancelTraining());
+        showTrainingProgress(false);
+        statusBar.getChildren().addAll(statusLabel, spacer, trainingProgressBar, cancelTrainingButton);
 
         // Set layout
         root.setTop(headerBox);
@@ -168,6 +216,28 @@ public class DiabetesPredictionUI extends Application {
         dpfField = new TextField();
         ageField = new TextField();
 
+        formFields = List.of(
+                new FormField(pregnanciesField, true, v -> true, null),
+                new FormField(glucoseField, false, v -> v > 50 && v < 250,
+                        "Kadar Glukosa harus antara 50–250 mg/dL"),
+                new FormField(bloodPressureField, false, v -> v >= 40 && v <= 140,
+                        "Tekanan Darah harus antara 40–140 mm Hg"),
+                new FormField(skinThicknessField, false, v -> v >= 10 && v <= 99,
+                        "Ketebalan Kulit harus antara 10–99 mm"),
+                new FormField(insulinField, false, v -> true, null),
+                new FormField(bmiField, false, v -> v >= 18.5 && v <= 67.0,
+                        "BMI harus antara 18.5–67.0 kg/m²"),
+                new FormField(dpfField, false, v -> true, null),
+                new FormField(ageField, true, v -> v >= 18 && v <= 120,
+                        "Usia harus antara 18-120 tahun")
+        );
+
+        predictionDebounce = new PauseTransition(PREDICTION_DEBOUNCE);
+        predictionDebounce.setOnFinished(e -> requestPrediction(false));
+        for (FormField formField : formFields) {
+            formField.field.textProperty().addListener((observable, oldText, newText) -> onFieldEdited(formField));
+        }
+
         int row = 0;
         formGrid.add(new Label("Pregnancies:"), 0, row);
         formGrid.add(pregnanciesField, 1, row++);
@@ -199,10 +269,23 @@ public class DiabetesPredictionUI extends Application {
 
         resetButton = new Button("Reset");
         viewDataButton = new Button("View Dataset");
+        retrainButton = new Button("Retrain Model");
+        retrainButton.setDisable(true);
+        rollbackButton = new Button("Previous Model");
+        rollbackButton.setDisable(true);
+
+        livePredictionBox = new CheckBox("Live prediction");
+        livePredictionBox.setSelected(true);
+        livePredictionBox.selectedProperty().addListener((observable, wasLive, live) -> {
+            if (live) {
+                predictionDebounce.playFromStart();
+            }
+        });
 
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
-        buttonBox.getChildren().addAll(predictButton, resetButton, viewDataButton);
+        buttonBox.getChildren().addAll(predictButton, resetButton, viewDataButton, retrainButton, rollbackButton,
+                livePredictionBox);
 
         // Results section
         VBox resultsBox = new VBox(10);
@@ -236,9 +319,11 @@ public class DiabetesPredictionUI extends Application {
         );
 
         // Event handlers
-        predictButton.setOnAction(e -> makePrediction());
+        predictButton.setOnAction(e -> requestPrediction(true));
         resetButton.setOnAction(e -> resetForm());
         viewDataButton.setOnAction(e -> showDatasetDialog());
+        retrainButton.setOnAction(e -> retrainModel());
+        rollbackButton.setOnAction(e -> rollbackModel());
 
         ScrollPane scrollPane = new ScrollPane(formBox);
         scrollPane.setFitToWidth(true);
@@ -246,88 +331,220 @@ public class DiabetesPredictionUI extends Application {
     }
 
     private void loadDataAndTrainModel() {
-        statusProperty.set("Loading dataset and training model...");
+        boolean forceRetrain = getParameters().getRaw().contains("--retrain");
+        statusProperty.set(forceRetrain ? "Training model..." : "Loading model...");
         executorService = Executors.newSingleThreadExecutor();
+        modelRegistry.addListener(version -> Platform.runLater(() -> onModelPublished(version)));
+        Path modelDirectory = Paths.get(ModelLoader.DEFAULT_MODEL_PATH).toAbsolutePath().getParent();
+        try {
+            modelRegistry.watch(modelDirectory);
+        } catch (IOException e) {
+            System.err.println("Not watching " + modelDirectory + " for new models: " + e.getMessage());
+        }
+        submitModelLoad(forceRetrain);
+    }
+
+    /**
+     * Load the saved model (or train one when forced or when the dataset changed), enable predictions,
+     * then load the dataset rows for the viewer
+     */
+    private void submitModelLoad(boolean forceRetrain) {
+        CancellationToken token = new CancellationToken();
+        trainingToken = token;
+        ModelTrainer trainer = new ModelTrainer();
+        trainer.setCancellationToken(token);
+        trainer.setListener(this::onTrainingProgress);
+        trainingProgressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        showTrainingProgress(true);
+
         executorService.submit(() -> {
             try {
-                patients = DataLoader.loadDataset(DATASET_PATH);
-                ModelTrainer trainer = new ModelTrainer();
-                predictor = trainer.trainModel(patients);
+                DiabetesPredictor loaded = forceRetrain
+                        ? ModelLoader.trainAndSave(DATASET_PATH, ModelLoader.DEFAULT_MODEL_PATH, trainer)
+                        : ModelLoader.loadOrTrain(DATASET_PATH, ModelLoader.DEFAULT_MODEL_PATH, false, trainer);
+                // The watcher may already have picked up the saved file; publish it only once
+                modelRegistry.publishIfChanged(loaded, Paths.get(ModelLoader.DEFAULT_MODEL_PATH));
 
                 Platform.runLater(() -> {
-                    statusProperty.set("Model trained successfully. Ready for predictions.");
-                    predictButton.setDisable(false);
+                    showTrainingProgress(false);
+                    retrainButton.setDisable(false);
+                });
+
+                PatientDataset loadedDataset = DataLoader.loadCached(DATASET_PATH);
+                datasetStatistics = DatasetStatistics.compute(loadedDataset);
+                dataset = loadedDataset;
+            } catch (CancellationException e) {
+                Platform.runLater(() -> {
+                    showTrainingProgress(false);
+                    statusProperty.set(modelRegistry.getPredictor() != null
+                            ? "Training cancelled; still using the previous model."
+                            : "Training cancelled; no model loaded.");
+                    predictButton.setDisable(modelRegistry.getPredictor() == null);
+                    retrainButton.setDisable(false);
                 });
             } catch (IOException e) {
                 Platform.runLater(() -> {
+                    showTrainingProgress(false);
                     statusProperty.set("Error: " + e.getMessage());
+                    predictButton.setDisable(modelRegistry.getPredictor() == null);
+                    retrainButton.setDisable(false);
                     showErrorDialog("Error Loading Data", "Could not load dataset: " + e.getMessage());
                 });
             } catch (Exception e) {
                 Platform.runLater(() -> {
+                    showTrainingProgress(false);
                     statusProperty.set("Error: " + e.getMessage());
+                    predictButton.setDisable(modelRegistry.getPredictor() == null);
+                    retrainButton.setDisable(false);
                     showErrorDialog("Error Training Model", "Could not train model: " + e.getMessage());
                 });
             }
         });
     }
 
-    private void makePrediction() {
+    /**
+     * Called on the training thread after every iteration; the FX thread only ever sees the latest progress
+     */
+    private void onTrainingProgress(TrainingProgress progress) {
+        if (pendingProgress.getAndSet(progress) == null) {
+            Platform.runLater(() -> {
+                TrainingProgress latest = pendingProgress.getAndSet(null);
+                trainingProgressBar.setProgress(latest.getFraction());
+                statusProperty.set(String.format("Training model: iteration %d, cost %.4f",
+                        latest.getIteration(), latest.getCost()));
+            });
+        }
+    }
+
+    private void cancelTraining() {
+        CancellationToken token = trainingToken;
+        if (token != null) {
+            token.cancel();
+            cancelTrainingButton.setDisable(true);
+            statusProperty.set("Cancelling training...");
+        }
+    }
+
+    private void showTrainingProgress(boolean visible) {
+        trainingProgressBar.setVisible(visible);
+        trainingProgressBar.setManaged(visible);
+        cancelTrainingButton.setVisible(visible);
+        cancelTrainingButton.setManaged(visible);
+        cancelTrainingButton.setDisable(false);
+    }
+
+    /**
+     * A model version was published or rolled back to: show it and rescore the form with it
+     */
+    private void onModelPublished(ModelRegistry.ModelVersion version) {
+        statusProperty.set("Model version " + version.getNumber() + " ready (trained on "
+                + version.getPredictor().getTrainingInfo().getRowCount() + " patients). Ready for predictions.");
+        predictButton.setDisable(false);
+        rollbackButton.setDisable(modelRegistry.getHistory().isEmpty());
+        if (livePredictionBox.isSelected()) {
+            requestPrediction(false);
+        }
+    }
+
+    private void rollbackModel() {
         try {
-            int pregnancies = Integer.parseInt(pregnanciesField.getText());
-            double glucose = Double.parseDouble(glucoseField.getText());
-            double bloodPressure = Double.parseDouble(bloodPressureField.getText());
-            double skinThickness = Double.parseDouble(skinThicknessField.getText());
-            double insulin = Double.parseDouble(insulinField.getText());
-            double bmi = Double.parseDouble(bmiField.getText());
-            double dpf = Double.parseDouble(dpfField.getText());
-            int age = Integer.parseInt(ageField.getText());
-
-            // Validasi Input Medis Realistis
-            if (glucose <= 50 || glucose >= 250) {
-                showErrorDialog("Input Tidak Realistis", "Kadar Glukosa harus antara 50–250 mg/dL");
-                return;
-            }
+            modelRegistry.rollback();
+        } catch (IllegalStateException e) {
+            statusProperty.set(e.getMessage());
+            rollbackButton.setDisable(true);
+        }
+    }
 
-            if (bloodPressure < 40 || bloodPressure > 140) {
-                showErrorDialog("Input Tidak Realistis", "Tekanan Darah harus antara 40–140 mm Hg");
-                return;
-            }
+    private void retrainModel() {
+        predictButton.setDisable(true);
+        retrainButton.setDisable(true);
+        statusProperty.set("Retraining model...");
+        submitModelLoad(true);
+    }
 
-            if (skinThickness < 10 || skinThickness > 99) {
-                showErrorDialog("Input Tidak Realistis", "Ketebalan Kulit harus antara 10–99 mm");
-                return;
-            }
+    /**
+     * Recheck the edited field right away; in live mode, score the whole form once typing pauses
+     */
+    private void onFieldEdited(FormField formField) {
+        formField.showProblem();
+        // Whatever is in flight was computed for the previous text
+        predictionRequest.incrementAndGet();
+        if (livePredictionBox.isSelected()) {
+            predictionDebounce.playFromStart();
+        }
+    }
 
-            if (bmi < 18.5 || bmi > 67.0) {
-                showErrorDialog("Input Tidak Realistis", "BMI harus antara 18.5–67.0 kg/m²");
-                return;
-            }
+    /**
+     * Validate the form and, if it is complete, score it on the scoring thread.
+     * Live requests stay quiet about blank fields; explicit ones (the Predict button) report them.
+     */
+    private void requestPrediction(boolean explicit) {
+        predictionDebounce.stop();
+        long request = predictionRequest.incrementAndGet();
+        DiabetesPredictor current = modelRegistry.getPredictor();
+        if (current == null) {
+            return;
+        }
 
-            if (age < 18 || age > 120) {
-                showErrorDialog("Input Tidak Realistis", "Usia harus antara 18-120 tahun");
-                return;
+        double[] values = new double[formFields.size()];
+        String problem = null;
+        boolean complete = true;
+        for (int i = 0; i < values.length; i++) {
+            FormField formField = formFields.get(i);
+            String fieldProblem = formField.showProblem();
+            if (fieldProblem != null && problem == null) {
+                problem = fieldProblem;
+            }
+            complete &= !formField.isBlank();
+            values[i] = formField.value();
+        }
+        if (problem != null || !complete) {
+            clearResult();
+            if (problem != null) {
+                statusProperty.set(problem);
+            } else if (explicit) {
+                statusProperty.set("Please enter valid numeric values for all fields.");
             }
+            return;
+        }
 
-            Patient patient = new Patient(pregnancies, glucose, bloodPressure, skinThickness,
-                    insulin, bmi, dpf, age, 0);
+        Patient patient = new Patient((int) values[0], values[1], values[2], values[3],
+                values[4], values[5], values[6], (int) values[7], 0);
+        scoringService.submit(() -> {
+            try {
+                double probability = predictionCache.predictProbability(current, patient);
+                Platform.runLater(() -> {
+                    if (predictionRequest.get() == request) {
+                        showResult(probability);
+                        statusProperty.set("Prediction completed.");
+                    }
+                });
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    if (predictionRequest.get() == request) {
+                        clearResult();
+                        statusProperty.set("Prediction error: " + e.getMessage());
+                    }
+                });
+            }
+        });
+    }
 
-            boolean hasDiabetes = predictor.predict(patient);
-            double probability = predictor.predictProbability(patient);
-            double confidence = hasDiabetes ? probability : (1 - probability);
+    private void showResult(double probability) {
+        boolean hasDiabetes = probability >= 0.5;
+        double confidence = hasDiabetes ? probability : (1 - probability);
 
-            resultText.setText(hasDiabetes ? "DIABETES DETECTED" : "NO DIABETES");
-            resultText.setFill(hasDiabetes ? Color.RED : Color.GREEN);
+        resultText.setText(hasDiabetes ? "DIABETES DETECTED" : "NO DIABETES");
+        resultText.setFill(hasDiabetes ? Color.RED : Color.GREEN);
 
-            confidenceBar.setProgress(confidence);
-            confidenceLabel.setText(String.format("Confidence: %.1f%%", confidence * 100));
-            statusProperty.set("Prediction completed.");
+        confidenceBar.setProgress(confidence);
+        confidenceLabel.setText(String.format("Confidence: %.1f%%", confidence * 100));
+    }
 
-        } catch (NumberFormatException e) {
-            showErrorDialog("Invalid Input", "Please enter valid numeric values for all fields.");
-        } catch (Exception e) {
-            showErrorDialog("Prediction Error", "Error making prediction: " + e.getMessage());
-        }
+    private void clearResult() {
+        resultText.setText("");
+        confidenceBar.setProgress(0);
+        confidenceLabel.setText("Confidence: 0%");
     }
 
     private void resetForm() {
@@ -339,99 +556,21 @@ public class DiabetesPredictionUI extends Application {
         bmiField.clear();
         dpfField.clear();
         ageField.clear();
-        resultText.setText("");
-        confidenceBar.setProgress(0);
-        confidenceLabel.setText("Confidence: 0%");
+        // Clearing counts as an edit; nothing is left to score
+        predictionDebounce.stop();
+        predictionRequest.incrementAndGet();
+        clearResult();
         statusProperty.set("Form reset.");
     }
 
     private void showDatasetDialog() {
-        if (patients == null || patients.isEmpty()) {
+        PatientDataset data = dataset;
+        DatasetStatistics statistics = datasetStatistics;
+        if (data == null || statistics == null || data.isEmpty()) {
             showErrorDialog("Dataset Not Available", "Dataset is not loaded yet.");
             return;
         }
-
-        Stage dataStage = new Stage();
-        dataStage.setTitle("Dataset Viewer");
-
-        VBox root = new VBox(10);
-        root.setPadding(new Insets(10));
-
-        TableView<Patient> tableView = new TableView<>();
-        ObservableList<Patient> data = FXCollections.observableArrayList(patients);
-
-        addTableColumns(tableView);
-        tableView.setItems(data);
-
-        VBox statsBox = createDatasetStatistics();
-
-        root.getChildren().addAll(
-                new Label("Dataset Records (" + patients.size() + " patients):"),
-                tableView,
-                new Separator(),
-                statsBox
-        );
-
-        Scene scene = new Scene(root, 900, 600);
-        dataStage.setScene(scene);
-        dataStage.show();
-    }
-
-    private void addTableColumns(TableView<Patient> tableView) {
-        tableView.getColumns().clear();
-
-        String[][] columns = {
-                {"Pregnancies", "pregnancies"},
-                {"Glucose", "glucose"},
-                {"Blood Pressure", "bloodPressure"},
-                {"Skin Thickness", "skinThickness"},
-                {"Insulin", "insulin"},
-                {"BMI", "bmi"},
-                {"DPF", "diabetesPedigreeFunction"},
-                {"Age", "age"},
-                {"Outcome", "outcome"}
-        };
-
-        for (String[] col : columns) {
-            TableColumn<Patient, ?> tableColumn = new TableColumn<>(col[0]);
-            tableColumn.setCellValueFactory(new PropertyValueFactory<>(col[1]));
-            tableView.getColumns().add(tableColumn);
-        }
-    }
-
-    private VBox createDatasetStatistics() {
-        VBox statsBox = new VBox(10);
-        statsBox.setPadding(new Insets(10));
-
-        Text statsTitle = new Text("Dataset Statistics");
-        statsTitle.setFont(Font.font("Arial", FontWeight.BOLD, 14));
-        statsBox.getChildren().add(statsTitle);
-
-        int total = patients.size();
-        long diabetesCount = patients.stream().filter(p -> p.getOutcome() == 1).count();
-        double diabetesPercentage = (double) diabetesCount / total * 100;
-
-        statsBox.getChildren().addAll(
-                new Label("Total Patients: " + total),
-                new Label(String.format("Patients with Diabetes: %d (%.1f%%)", diabetesCount, diabetesPercentage)),
-                new Label(String.format("Patients without Diabetes: %d (%.1f%%)", total - diabetesCount, 100 - diabetesPercentage))
-        );
-
-        CategoryAxis xAxis = new CategoryAxis();
-        NumberAxis yAxis = new NumberAxis();
-        BarChart<String, Number> barChart = new BarChart<>(xAxis, yAxis);
-        barChart.setTitle("Diabetes Distribution");
-        xAxis.setLabel("Outcome");
-        yAxis.setLabel("Count");
-
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Patient Count");
-        series.getData().add(new XYChart.Data<>("No Diabetes", total - diabetesCount));
-        series.getData().add(new XYChart.Data<>("Diabetes", diabetesCount));
-        barChart.getData().add(series);
-
-        statsBox.getChildren().add(barChart);
-        return statsBox;
+        new DatasetViewer(data, statistics).show();
     }
 
     private void showErrorDialog(String title, String message) {
@@ -444,8 +583,70 @@ public class DiabetesPredictionUI extends Application {
 
     @Override
     public void stop() {
+        CancellationToken token = trainingToken;
+        if (token != null) {
+            token.cancel();
+        }
         if (executorService != null) {
             executorService.shutdown();
         }
+        scoringService.shutdownNow();
+        modelRegistry.close();
+    }
+
+    /**
+     * A form input with its number format and plausible range, marked inline when its text is unusable
+     */
+    private static final class FormField {
+        private static final String INVALID_STYLE = "field-invalid";
+
+        private final TextField field;
+        private final boolean integer;
+        private final DoublePredicate plausible;
+        private final String rangeMessage;
+
+        FormField(TextField field, boolean integer, DoublePredicate plausible, String rangeMessage) {
+            this.field = field;
+            this.integer = integer;
+            this.plausible = plausible;
+            this.rangeMessage = rangeMessage;
+        }
+
+        boolean isBlank() {
+            return field.getText().isBlank();
+        }
+
+        /**
+         * Parsed value, or NaN when the text is blank or not a number
+         */
+        double value() {
+            String text = field.getText().trim();
+            try {
+                return integer ? Integer.parseInt(text) : Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        /**
+         * Mark or unmark the field; returns what is wrong with it, or null if it is blank or acceptable
+         */
+        String showProblem() {
+            String problem = null;
+            if (!isBlank()) {
+                double value = value();
+                if (Double.isNaN(value)) {
+                    problem = integer ? "Please enter a whole number." : "Please enter a number.";
+                } else if (!plausible.test(value)) {
+                    problem = rangeMessage;
+                }
+            }
+            field.getStyleClass().remove(INVALID_STYLE);
+            if (problem != null) {
+                field.getStyleClass().add(INVALID_STYLE);
+            }
+            field.setTooltip(problem != null ? new Tooltip(problem) : null);
+            return problem;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.diabetes.prediction.ui;
+
+import com.diabetes.prediction.model.PatientDataset;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+/**
+ * An ordered selection of dataset row numbers, built off the FX thread and shown by the dataset viewer.
+ * As a List it yields row numbers lazily, so a TableView over millions of rows only ever touches
+ * the handful of entries it is displaying.
+ */
+class RowIndex extends AbstractList<Integer> implements RandomAccess {
+    // Sort key index for the outcome column, after the eight feature columns
+    static final int OUTCOME_KEY = PatientDataset.NUM_FEATURES;
+
+    private final int[] rows;
+    private final int size;
+
+    private RowIndex(int[] rows, int size) {
+        this.rows = rows;
+        this.size = size;
+    }
+
+    /**
+     * No rows
+     */
+    static RowIndex empty() {
+        return new RowIndex(null, 0);
+    }
+
+    /**
+     * Every row in dataset order, without allocating an index array
+     */
+    static RowIndex all(PatientDataset dataset) {
+        return new RowIndex(null, dataset.size());
+    }
+
+    /**
+     * Rows matching the filter, sorted stably by the given keys (first key most significant).
+     * Returns null if cancelled is set while building, so stale requests can be abandoned early.
+     */
+    static RowIndex build(PatientDataset dataset, IntPredicate filter, int[] sortKeys, boolean[] descending,
+                          BooleanSupplier cancelled) {
+        int n = dataset.size();
+        int[] rows = new int[n];
+        int size = 0;
+        for (int row = 0; row < n; row++) {
+            if (filter.test(row)) {
+                rows[size++] = row;
+            }
+        }
+        if (sortKeys.length == 0 && size == n) {
+            return all(dataset);
+        }
+
+        // Least significant key first: each stable pass keeps the order of the previous ones within ties
+        double[] keys = new double[size];
+        double[] keyScratch = new double[size];
+        int[] rowScratch = new int[size];
+        for (int k = sortKeys.length - 1; k >= 0; k--) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            for (int i = 0; i < size; i++) {
+                double key = keyOf(dataset, sortKeys[k], rows[i]);
+                keys[i] = descending[k] ? -key : key;
+            }
+            mergeSort(keys, rows, keyScratch, rowScratch, 0, size);
+        }
+        return new RowIndex(rows, size);
+    }
+
+    static double keyOf(PatientDataset dataset, int key, int row) {
+        return key == OUTCOME_KEY ? dataset.getOutcome(row) : dataset.get(row, key);
+    }
+
+    /**
+     * Stable merge sort of keys[from, to), moving rows along with their keys
+     */
+    private static void mergeSort(double[] keys, int[] rows, double[] keyScratch, int[] rowScratch, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(keys, rows, keyScratch, rowScratch, from, mid);
+        mergeSort(keys, rows, keyScratch, rowScratch, mid, to);
+        if (keys[mid - 1] <= keys[mid]) {
+            return;
+        }
+        System.arraycopy(keys, from, keyScratch, from, to - from);
+        System.arraycopy(rows, from, rowScratch, from, to - from);
+        int left = from, right = mid, out = from;
+        while (left < mid && right < to) {
+            if (keyScratch[right] < keyScratch[left]) {
+                keys[out] = keyScratch[right];
+                rows[out++] = rowScratch[right++];
+            } else {
+                keys[out] = keyScratch[left];
+                rows[out++] = rowScratch[left++];
+            }
+        }
+        while (left < mid) {
+            keys[out] = keyScratch[left];
+            rows[out++] = rowScratch[left++];
+        }
+        while (right < to) {
+            keys[out] = keyScratch[right];
+            rows[out++] = rowScratch[right++];
+        }
+    }
+
+    /**
+     * Dataset row number shown at position i
+     */
+    int rowAt(int i) {
+        return rows == null ? i : rows[i];
+    }
+
+    @Override
+    public Integer get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of " + size);
+        }
+        return rowAt(i);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,317 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless scoring of a Pima-format CSV file of any size.
+ *
+ * Three stages connected by bounded queues: a parser thread streams the input into fixed-size
+ * columnar batches, a pool of workers scores and formats each batch, and the calling thread writes
+ * finished batches in input order. Batches are recycled through a fixed pool, so memory use and the
+ * number of batches in flight are bounded no matter how large the file is.
+ *
+ * Each output row holds the eight input features followed by the probability and the 0/1 prediction.
+ */
+public class BatchScorer {
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final int BATCHES_PER_WORKER = 4;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+    private static final byte[] HEADER = ("Pregnancies,Glucose,BloodPressure,SkinThickness,Insulin,BMI,"
+            + "DiabetesPedigreeFunction,Age,Probability,Prediction\n").getBytes(StandardCharsets.US_ASCII);
+    // Largest magnitude written as a plain integer; beyond this Double.toString is used
+    private static final double MAX_PLAIN_INTEGER = 1e15;
+    private static final long PROBABILITY_SCALE = 1_000_000;
+    // Features with up to three decimals (BMI, pedigree) are written without Double.toString
+    private static final double DECIMAL_SCALE = 1000;
+
+    private final DiabetesPredictor predictor;
+    private final int workers;
+    private final int batchSize;
+
+    public BatchScorer(DiabetesPredictor predictor) {
+        this(predictor, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchScorer(DiabetesPredictor predictor, int workers, int batchSize) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workers);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.predictor = predictor;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Score every row of the input CSV into the output CSV, in input order.
+     * Returns the number of rows scored.
+     */
+    public long score(Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), OUTPUT_BUFFER_SIZE)) {
+            out.write(HEADER);
+            rows = score(new CsvStreamReader(input), out);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("Scored " + rows + " rows in " + String.format("%.2f", seconds) + " s ("
+                + String.format("%.0f", rows / Math.max(seconds, 1e-9)) + " rows/s)");
+        return rows;
+    }
+
+    /**
+     * Score every row of the source, writing formatted rows (without a header) to out in source order
+     */
+    public long score(RowSource source, OutputStream out) throws IOException {
+        int capacity = workers * BATCHES_PER_WORKER;
+        BlockingQueue<Batch> free = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Batch> work = new ArrayBlockingQueue<>(capacity + workers);
+        BlockingQueue<Batch> ordered = new ArrayBlockingQueue<>(capacity + 1);
+        for (int i = 0; i < capacity; i++) {
+            free.add(new Batch(batchSize));
+        }
+
+        Thread[] scorers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            scorers[i] = new Thread(() -> runWorker(work), "batch-scorer-" + i);
+            scorers[i].setDaemon(true);
+            scorers[i].start();
+        }
+        Parser parser = new Parser(source, free, work, ordered);
+        Thread parserThread = new Thread(parser, "batch-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+
+        long rows = 0;
+        try {
+            while (true) {
+                Batch batch = ordered.take();
+                if (batch == Batch.END) {
+                    break;
+                }
+                batch.done.await();
+                if (batch.failure != null) {
+                    throw new IOException("Scoring failed", batch.failure);
+                }
+                out.write(batch.output, 0, batch.outputLength);
+                rows += batch.count;
+                free.put(batch);
+            }
+            parserThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scoring");
+        } finally {
+            parserThread.interrupt();
+            for (Thread scorer : scorers) {
+                scorer.interrupt();
+            }
+        }
+
+        if (parser.failure instanceof IOException) {
+            throw (IOException) parser.failure;
+        }
+        if (parser.failure != null) {
+            throw new IOException("Reading input failed", parser.failure);
+        }
+        return rows;
+    }
+
+    private void runWorker(BlockingQueue<Batch> work) {
+        double[] probabilities = new double[batchSize];
+        try {
+            while (true) {
+                Batch batch = work.take();
+                if (batch == Batch.END) {
+                    return;
+                }
+                try {
+                    predictor.predictProbabilities(batch.columns, 0, batch.count, probabilities);
+                    batch.format(probabilities);
+                } catch (RuntimeException e) {
+                    batch.failure = e;
+                }
+                batch.done.countDown();
+            }
+        } catch (InterruptedException e) {
+            // Pipeline shutting down
+        }
+    }
+
+    /**
+     * Parser stage: fills batches from the source and hands each to the workers and, in order, to the writer
+     */
+    private class Parser implements Runnable, CsvParser.RowSink {
+        private final RowSource source;
+        private final BlockingQueue<Batch> free;
+        private final BlockingQueue<Batch> work;
+        private final BlockingQueue<Batch> ordered;
+        private Batch current;
+        private volatile Throwable failure;
+
+        Parser(RowSource source, BlockingQueue<Batch> free, BlockingQueue<Batch> work, BlockingQueue<Batch> ordered) {
+            this.source = source;
+            this.free = free;
+            this.work = work;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void run() {
+            try {
+                source.forEachRow(this);
+                if (current != null && current.count > 0) {
+                    dispatch();
+                }
+            } catch (Throwable e) {
+                failure = e instanceof UncheckedInterrupt ? e.getCause() : e;
+            } finally {
+                // Always unblock the writer and the workers, even after a failure
+                ordered.offer(Batch.END);
+                for (int i = 0; i < workers; i++) {
+                    work.offer(Batch.END);
+                }
+            }
+        }
+
+        @Override
+        public void accept(double[] features, int outcome) {
+            try {
+                if (current == null) {
+                    current = free.take();
+                    current.count = 0;
+                }
+                int row = current.count++;
+                for (int f = 0; f < features.length; f++) {
+                    current.columns[f][row] = features[f];
+                }
+                if (current.count == batchSize) {
+                    dispatch();
+                }
+            } catch (InterruptedException e) {
+                throw new UncheckedInterrupt(e);
+            }
+        }
+
+        private void dispatch() throws InterruptedException {
+            current.done = new CountDownLatch(1);
+            current.failure = null;
+            ordered.put(current);
+            work.put(current);
+            current = null;
+        }
+    }
+
+    private static class UncheckedInterrupt extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UncheckedInterrupt(InterruptedException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * A reusable block of parsed rows and their formatted output
+     */
+    private static class Batch {
+        static final Batch END = new Batch(0);
+
+        final double[][] columns;
+        int count;
+        byte[] output;
+        int outputLength;
+        volatile CountDownLatch done;
+        volatile RuntimeException failure;
+
+        Batch(int capacity) {
+            columns = new double[PatientDataset.NUM_FEATURES][capacity];
+            output = new byte[capacity * 64];
+        }
+
+        void format(double[] probabilities) {
+            outputLength = 0;
+            for (int row = 0; row < count; row++) {
+                for (int f = 0; f < columns.length; f++) {
+                    appendNumber(columns[f][row]);
+                    append((byte) ',');
+                }
+                appendProbability(probabilities[row]);
+                append((byte) ',');
+                append(probabilities[row] >= 0.5 ? (byte) '1' : (byte) '0');
+                append((byte) '\n');
+            }
+        }
+
+        private void appendNumber(double value) {
+            if (value == Math.rint(value) && Math.abs(value) < MAX_PLAIN_INTEGER) {
+                appendLong((long) value);
+            } else if (Math.abs(value) < MAX_PLAIN_INTEGER / DECIMAL_SCALE
+                    && Math.rint(value * DECIMAL_SCALE) / DECIMAL_SCALE == value) {
+                // The quotient is the double nearest the decimal, so the text parses back to exactly value
+                long scaled = (long) Math.rint(value * DECIMAL_SCALE);
+                if (scaled < 0) {
+                    append((byte) '-');
+                    scaled = -scaled;
+                }
+                appendLong(scaled / (long) DECIMAL_SCALE);
+                append((byte) '.');
+                long fraction = scaled % (long) DECIMAL_SCALE;
+                for (long divisor = (long) DECIMAL_SCALE / 10; fraction > 0; divisor /= 10) {
+                    append((byte) ('0' + fraction / divisor));
+                    fraction %= divisor;
+                }
+            } else {
+                byte[] text = Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+                for (byte b : text) {
+                    append(b);
+                }
+            }
+        }
+
+        /**
+         * Probability in [0, 1] with six decimals, e.g. 0.042137
+         */
+        private void appendProbability(double probability) {
+            long scaled = Math.round(probability * PROBABILITY_SCALE);
+            append((byte) ('0' + scaled / PROBABILITY_SCALE));
+            append((byte) '.');
+            long fraction = scaled % PROBABILITY_SCALE;
+            for (long divisor = PROBABILITY_SCALE / 10; divisor > 0; divisor /= 10) {
+                append((byte) ('0' + fraction / divisor % 10));
+            }
+        }
+
+        private void appendLong(long value) {
+            if (value < 0) {
+                append((byte) '-');
+                value = -value;
+            }
+            if (value >= 10) {
+                appendLong(value / 10);
+            }
+            append((byte) ('0' + value % 10));
+        }
+
+        private void append(byte b) {
+            if (outputLength == output.length) {
+                output = Arrays.copyOf(output, output.length * 2);
+            }
+            output[outputLength++] = b;
+        }
+    }
+}
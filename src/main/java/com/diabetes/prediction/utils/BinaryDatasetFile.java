@@ -0,0 +1,242 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.PatientDataset;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Preprocessed columnar binary copy of a dataset.
+ *
+ * Layout (little-endian): a fixed 512-byte header holding the schema, row count, the size and
+ * modification time of the source CSV, the positive-outcome count and per-feature min/max/mean/std,
+ * protected by a CRC32; then one double column per feature, then one byte per row for the outcome.
+ * Columns are read through memory mappings, either copied in bulk into a PatientDataset or
+ * streamed row by row without materializing the dataset.
+ */
+public class BinaryDatasetFile implements RowSource {
+    private static final int MAGIC = 0x53445044; // "DPDS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 512;
+    private static final int STATS_OFFSET = 48;
+    private static final int HEADER_CRC_OFFSET = STATS_OFFSET + PatientDataset.NUM_FEATURES * 4 * 8;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    // Rows per mapping window: keeps each column slice well under the 2 GB mapping limit
+    private static final int ROWS_PER_WINDOW = 1 << 24;
+
+    private final Path path;
+    private final int rowCount;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long positiveCount;
+    private final double[] min = new double[PatientDataset.NUM_FEATURES];
+    private final double[] max = new double[PatientDataset.NUM_FEATURES];
+    private final double[] mean = new double[PatientDataset.NUM_FEATURES];
+    private final double[] std = new double[PatientDataset.NUM_FEATURES];
+
+    private BinaryDatasetFile(Path path, ByteBuffer header) {
+        this.path = path;
+        this.rowCount = (int) header.getLong(16);
+        this.sourceSize = header.getLong(24);
+        this.sourceModified = header.getLong(32);
+        this.positiveCount = header.getLong(40);
+        for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+            int offset = STATS_OFFSET + f * 32;
+            min[f] = header.getDouble(offset);
+            max[f] = header.getDouble(offset + 8);
+            mean[f] = header.getDouble(offset + 16);
+            std[f] = header.getDouble(offset + 24);
+        }
+    }
+
+    /**
+     * Write a dataset in columnar binary form, tagged with the size and modification time of its source
+     */
+    public static void write(PatientDataset dataset, Path path, long sourceSize, long sourceModified)
+            throws IOException {
+        int n = dataset.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putInt(4, FORMAT_VERSION);
+        header.putInt(8, PatientDataset.NUM_FEATURES);
+        header.putLong(16, n);
+        header.putLong(24, sourceSize);
+        header.putLong(32, sourceModified);
+
+        DatasetStatistics statistics = DatasetStatistics.compute(dataset);
+        header.putLong(40, statistics.getPositiveCount());
+        for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+            int offset = STATS_OFFSET + f * 32;
+            header.putDouble(offset, statistics.getMin(f));
+            header.putDouble(offset + 8, statistics.getMax(f));
+            header.putDouble(offset + 16, statistics.getMean(f));
+            header.putDouble(offset + 24, statistics.getStd(f));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, HEADER_CRC_OFFSET);
+        header.putLong(HEADER_CRC_OFFSET, crc.getValue());
+
+        Path parent = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeFully(channel, header);
+
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                DoubleBuffer doubles = buffer.asDoubleBuffer();
+                for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+                    double[] column = dataset.getColumn(f);
+                    for (int from = 0; from < n; from += doubles.capacity()) {
+                        int length = Math.min(doubles.capacity(), n - from);
+                        doubles.clear();
+                        doubles.put(column, from, length);
+                        buffer.clear().limit(length * Double.BYTES);
+                        writeFully(channel, buffer);
+                    }
+                }
+                byte[] outcomes = dataset.getOutcomes();
+                for (int from = 0; from < n; from += buffer.capacity()) {
+                    int length = Math.min(buffer.capacity(), n - from);
+                    buffer.clear();
+                    buffer.put(outcomes, from, length);
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                }
+            }
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read and validate the header; columns are not touched until load or forEachRow
+     */
+    public static BinaryDatasetFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Dataset file is truncated: " + path);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // keep reading until the header is complete
+            }
+
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary dataset file: " + path);
+            }
+            if (header.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported dataset file version " + header.getInt(4) + ": " + path);
+            }
+            if (header.getInt(8) != PatientDataset.NUM_FEATURES) {
+                throw new IOException("Unexpected feature count " + header.getInt(8) + ": " + path);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, HEADER_CRC_OFFSET);
+            if (header.getLong(HEADER_CRC_OFFSET) != crc.getValue()) {
+                throw new IOException("Dataset file header checksum mismatch: " + path);
+            }
+
+            long rows = header.getLong(16);
+            long expectedSize = HEADER_SIZE + rows * (PatientDataset.NUM_FEATURES * (long) Double.BYTES + 1);
+            if (rows < 0 || rows > Integer.MAX_VALUE - 8 || fileSize != expectedSize) {
+                throw new IOException("Dataset file size does not match its header: " + path);
+            }
+            return new BinaryDatasetFile(path, header);
+        }
+    }
+
+    /**
+     * Whether this file was built from a source with the given size and modification time
+     */
+    public boolean matchesSource(long size, long modified) {
+        return sourceSize == size && sourceModified == modified;
+    }
+
+    /**
+     * Memory-map the columns and copy them in bulk into a dataset (no parsing)
+     */
+    public PatientDataset load() throws IOException {
+        double[][] columns = new double[PatientDataset.NUM_FEATURES][rowCount];
+        byte[] outcomes = new byte[rowCount];
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int from = 0; from < rowCount; from += ROWS_PER_WINDOW) {
+                int length = Math.min(ROWS_PER_WINDOW, rowCount - from);
+                for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+                    mapColumn(channel, f, from, length).get(columns[f], from, length);
+                }
+                mapOutcomes(channel, from, length).get(outcomes, from, length);
+            }
+        }
+        return new PatientDataset(columns, outcomes, rowCount);
+    }
+
+    /**
+     * Stream rows straight from the mapped columns, window by window, without building a dataset
+     */
+    @Override
+    public long forEachRow(CsvParser.RowSink sink) throws IOException {
+        double[] features = new double[PatientDataset.NUM_FEATURES];
+        DoubleBuffer[] columns = new DoubleBuffer[PatientDataset.NUM_FEATURES];
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int from = 0; from < rowCount; from += ROWS_PER_WINDOW) {
+                int length = Math.min(ROWS_PER_WINDOW, rowCount - from);
+                for (int f = 0; f < columns.length; f++) {
+                    columns[f] = mapColumn(channel, f, from, length);
+                }
+                MappedByteBuffer outcomes = mapOutcomes(channel, from, length);
+
+                for (int r = 0; r < length; r++) {
+                    for (int f = 0; f < features.length; f++) {
+                        features[f] = columns[f].get(r);
+                    }
+                    sink.accept(features, outcomes.get(r));
+                }
+            }
+        }
+        return rowCount;
+    }
+
+    private DoubleBuffer mapColumn(FileChannel channel, int feature, int from, int length) throws IOException {
+        long offset = HEADER_SIZE + ((long) feature * rowCount + from) * Double.BYTES;
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) length * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+    }
+
+    private MappedByteBuffer mapOutcomes(FileChannel channel, int from, int length) throws IOException {
+        long offset = HEADER_SIZE + (long) PatientDataset.NUM_FEATURES * rowCount * Double.BYTES + from;
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    public Path getPath() { return path; }
+    public int getRowCount() { return rowCount; }
+    public long getPositiveCount() { return positiveCount; }
+    public double getMin(int feature) { return min[feature]; }
+    public double getMax(int feature) { return max[feature]; }
+    public double getMean(int feature) { return mean[feature]; }
+    public double getStd(int feature) { return std[feature]; }
+}
@@ -0,0 +1,17 @@
+package com.diabetes.prediction.utils;
+
+/**
+ * Cooperative cancellation flag shared between the code that starts a long operation and the
+ * operation itself, which checks it between iterations. Once cancelled it stays cancelled.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
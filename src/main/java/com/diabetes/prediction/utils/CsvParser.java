@@ -0,0 +1,316 @@
+package com.diabetes.prediction.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Allocation-free parser for Pima-format CSV rows held in a byte buffer.
+ * Numbers are decoded straight from bytes; a String is only built for the rare field that
+ * needs the JDK parser (exponent overflow, long mantissas, NaN, ...) and for invalid-line messages.
+ * Row acceptance mirrors DataLoader.loadDataset: rows with fewer than 9 fields (as counted by
+ * String.split) are ignored, and rows whose fields fail to parse are reported and skipped.
+ * Instances reuse internal buffers and are not thread-safe.
+ */
+public class CsvParser {
+    public static final int NUM_FIELDS = 9;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Fields 0 (Pregnancies), 7 (Age) and 8 (Outcome) are integers in the CSV format
+    private static final boolean[] INTEGER_FIELD = {true, false, false, false, false, false, false, true, true};
+
+    /**
+     * Receives one parsed row; the features array is reused for the next row
+     */
+    public interface RowSink {
+        void accept(double[] features, int outcome);
+    }
+
+    private final double[] features = new double[NUM_FIELDS - 1];
+    private final int[] fieldStarts = new int[NUM_FIELDS];
+    private final int[] fieldEnds = new int[NUM_FIELDS];
+    private final Charset charset;
+    private boolean reportInvalidLines = true;
+
+    private int invalidLines;
+    private boolean fieldValid;
+
+    public CsvParser() {
+        this(Charset.defaultCharset());
+    }
+
+    public CsvParser(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Whether invalid lines are echoed to System.err (default true, matching DataLoader)
+     */
+    public void setReportInvalidLines(boolean reportInvalidLines) {
+        this.reportInvalidLines = reportInvalidLines;
+    }
+
+    /**
+     * Number of invalid lines skipped since this parser was created
+     */
+    public int getInvalidLines() { return invalidLines; }
+
+    /**
+     * Return the offset just past the first line terminator at or after start, or end if there is none
+     */
+    public static int skipLine(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                return i + 1;
+            }
+            if (b == '\r') {
+                return (i + 1 < end && buffer.get(i + 1) == '\n') ? i + 2 : i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Return the index of the last line terminator before end, or -1 if there is none
+     */
+    public static int lastLineBreak(ByteBuffer buffer, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse every line in [start, end) and hand valid rows to the sink.
+     * Returns the number of rows accepted.
+     */
+    public int parse(ByteBuffer buffer, int start, int end, RowSink sink) {
+        int rows = 0;
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end) {
+                byte b = buffer.get(lineEnd);
+                if (b == '\n' || b == '\r') {
+                    break;
+                }
+                lineEnd++;
+            }
+            if (parseLine(buffer, lineStart, lineEnd, sink)) {
+                rows++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    /**
+     * Parse one line without its terminator. Returns true if a row was emitted.
+     */
+    public boolean parseLine(ByteBuffer buffer, int lineStart, int lineEnd, RowSink sink) {
+        // Locate the first nine fields and the last non-empty field, like String.split(",")
+        int fieldCount = 0;
+        int lastNonEmpty = -1;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buffer.get(i) == ',') {
+                if (fieldCount < NUM_FIELDS) {
+                    fieldStarts[fieldCount] = fieldStart;
+                    fieldEnds[fieldCount] = i;
+                }
+                if (i > fieldStart) {
+                    lastNonEmpty = fieldCount;
+                }
+                fieldCount++;
+                fieldStart = i + 1;
+            }
+        }
+        if (lastNonEmpty + 1 < NUM_FIELDS) {
+            return false;
+        }
+
+        int outcome = 0;
+        for (int f = 0; f < NUM_FIELDS; f++) {
+            double value = INTEGER_FIELD[f]
+                    ? parseInt(buffer, fieldStarts[f], fieldEnds[f])
+                    : parseDouble(buffer, fieldStarts[f], fieldEnds[f]);
+            if (!fieldValid) {
+                invalidLines++;
+                if (reportInvalidLines) {
+                    System.err.println("Skipping invalid line: " + decode(buffer, lineStart, lineEnd));
+                }
+                return false;
+            }
+            if (f < NUM_FIELDS - 1) {
+                features[f] = value;
+            } else {
+                outcome = (int) value;
+            }
+        }
+        sink.accept(features, outcome);
+        return true;
+    }
+
+    /**
+     * Integer.parseInt(field.trim()) semantics; sets fieldValid
+     */
+    private int parseInt(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') end--;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        // Up to 9 digits always fit in an int; anything longer or non-ASCII goes to the JDK parser
+        if (i == end || end - i > 9) {
+            return parseIntSlow(buffer, start, end);
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return parseIntSlow(buffer, start, end);
+            }
+            value = value * 10 + digit;
+        }
+        fieldValid = true;
+        return negative ? -value : value;
+    }
+
+    private int parseIntSlow(ByteBuffer buffer, int start, int end) {
+        try {
+            int value = Integer.parseInt(decode(buffer, start, end));
+            fieldValid = true;
+            return value;
+        } catch (NumberFormatException e) {
+            fieldValid = false;
+            return 0;
+        }
+    }
+
+    /**
+     * Double.parseDouble(field.trim()) semantics; sets fieldValid
+     */
+    private double parseDouble(ByteBuffer buffer, int start, int end) {
+        double value = parseDecimal(buffer, start, end);
+        if (Double.isNaN(value)) {
+            return parseDoubleSlow(buffer, start, end);
+        }
+        fieldValid = true;
+        return value;
+    }
+
+    /**
+     * Decode a plain decimal field (surrounding whitespace ignored) without allocating.
+     * Decimals with at most 15-16 significant digits and a small exponent are converted exactly
+     * (one correctly rounded multiply or divide by an exact power of ten). Returns NaN for anything
+     * else - invalid text, NaN/Infinity, hex floats, long mantissas - which the caller must hand to
+     * Double.parseDouble to get the JDK's answer or error.
+     */
+    public static double parseDecimal(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') start++;
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') end--;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (mantissa != 0 || b != '0') {
+                    if (++significantDigits > 18) {
+                        return Double.NaN;
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                }
+                if (seenPoint) {
+                    exponent--;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            int explicitExponent = 0;
+            for (; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9' || explicitExponent > 100_000) {
+                    break;
+                }
+                explicitExponent = explicitExponent * 10 + (b - '0');
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != end) {
+            // Type suffixes, hex floats, NaN/Infinity or garbage: let the JDK decide
+            return Double.NaN;
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        } else {
+            return Double.NaN;
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(ByteBuffer buffer, int start, int end) {
+        try {
+            double value = Double.parseDouble(decode(buffer, start, end));
+            fieldValid = true;
+            return value;
+        } catch (NumberFormatException e) {
+            fieldValid = false;
+            return 0;
+        }
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, charset);
+    }
+}
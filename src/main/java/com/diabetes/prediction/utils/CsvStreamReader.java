@@ -0,0 +1,92 @@
+package com.diabetes.prediction.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams rows of a Pima-format CSV file through a fixed-size read buffer,
+ * so files of any size can be processed in bounded memory.
+ * Row semantics are the same as DataLoader: header skipped, short rows ignored, invalid rows reported.
+ */
+public class CsvStreamReader implements RowSource {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final Path path;
+    private final int bufferSize;
+
+    public CsvStreamReader(Path path) {
+        this(path, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvStreamReader(Path path, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.path = path;
+        this.bufferSize = bufferSize;
+    }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public long forEachRow(CsvParser.RowSink sink) throws IOException {
+        return stream(0, true, sink);
+    }
+
+    /**
+     * Stream the rows that start at or after a byte offset, which must be the start of a line.
+     * No header is skipped unless the offset is 0; used to read only rows appended since the offset.
+     */
+    public long forEachRowFrom(long offset, CsvParser.RowSink sink) throws IOException {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + offset);
+        }
+        return stream(offset, offset == 0, sink);
+    }
+
+    private long stream(long offset, boolean skipHeader, CsvParser.RowSink sink) throws IOException {
+        CsvParser parser = new CsvParser();
+        ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+        long rows = 0;
+        boolean isFirstLine = skipHeader;
+        boolean endOfFile = false;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.position(offset);
+            while (!endOfFile) {
+                if (!buffer.hasRemaining()) {
+                    // A single line filled the whole buffer: grow it and keep reading
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+                endOfFile = channel.read(buffer) < 0;
+
+                // Only parse complete lines until the input is exhausted
+                int filled = buffer.position();
+                int end = endOfFile ? filled : CsvParser.lastLineBreak(buffer, filled) + 1;
+                if (end <= 0) {
+                    continue;
+                }
+
+                int start = 0;
+                if (isFirstLine) {
+                    // Skip header line
+                    start = CsvParser.skipLine(buffer, 0, end);
+                    isFirstLine = false;
+                }
+                rows += parser.parse(buffer, start, end, sink);
+
+                // Move the trailing partial line to the front of the buffer
+                buffer.limit(filled);
+                buffer.position(end);
+                buffer.compact();
+            }
+        }
+        return rows;
+    }
+}
@@ -1,16 +1,39 @@
 package com.diabetes.prediction.utils;
 
 import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32C;
 
 /**
  * Utility class for loading and processing the diabetes dataset
  */
 public class DataLoader {
+    // Mappings are limited to 2 GB; larger files are parsed window by window on line boundaries.
+    // The row estimate errs low so huge files do not over-allocate up front.
+    private static final long MAX_MAP_WINDOW = 1L << 30;
+    private static final int APPROX_BYTES_PER_ROW = 48;
+
+    // Parallel loading: a few chunks per worker for load balancing, but never tiny chunks
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final long MIN_PARALLEL_CHUNK = 1L << 20;
+    private static final int BOUNDARY_SCAN_BUFFER = 64 * 1024;
+    private static final int FINGERPRINT_BUFFER = 1 << 20;
+    private static final String CACHE_SUFFIX = ".bin";
 
     /**
      * Load patient data from CSV file
@@ -54,31 +77,262 @@ public class DataLoader {
         return patients;
     }
 
+    /**
+     * Load patient data from CSV file straight into columnar form, without creating Patient objects
+     */
+    public static PatientDataset loadColumnar(String filePath) throws IOException {
+        PatientDataset.Builder builder = new PatientDataset.Builder();
+
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            boolean isFirstLine = true;
+
+            while ((line = br.readLine()) != null) {
+                // Skip header line
+                if (isFirstLine) {
+                    isFirstLine = false;
+                    continue;
+                }
+
+                String[] values = line.split(",");
+                if (values.length >= 9) {
+                    try {
+                        int pregnancies = Integer.parseInt(values[0].trim());
+                        double glucose = Double.parseDouble(values[1].trim());
+                        double bloodPressure = Double.parseDouble(values[2].trim());
+                        double skinThickness = Double.parseDouble(values[3].trim());
+                        double insulin = Double.parseDouble(values[4].trim());
+                        double bmi = Double.parseDouble(values[5].trim());
+                        double dpf = Double.parseDouble(values[6].trim());
+                        int age = Integer.parseInt(values[7].trim());
+                        int outcome = Integer.parseInt(values[8].trim());
+                        builder.add(pregnancies, glucose, bloodPressure, skinThickness,
+                                insulin, bmi, dpf, age, outcome);
+                    } catch (NumberFormatException e) {
+                        System.err.println("Skipping invalid line: " + line);
+                    }
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Load patient data by memory-mapping the CSV file and parsing numbers directly from bytes.
+     * Produces the same rows as loadDataset (header skipped, short rows ignored, invalid rows reported)
+     * without creating intermediate Strings for valid fields.
+     */
+    public static PatientDataset loadMapped(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return parseMappedRange(channel, 0, channel.size(), true);
+        }
+    }
+
+    /**
+     * Load patient data on all cores of the common fork-join pool
+     */
+    public static PatientDataset loadParallel(String filePath) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return loadParallel(filePath, pool, 0);
+    }
+
+    /**
+     * Load patient data by splitting the file into newline-aligned byte ranges that are
+     * memory-mapped and parsed concurrently on the given pool. Chunks are merged in file order,
+     * so the resulting row order is identical to loadMapped regardless of parallelism.
+     *
+     * @param targetChunkBytes approximate chunk size, or 0 to derive it from the pool parallelism
+     */
+    public static PatientDataset loadParallel(String filePath, ForkJoinPool pool, long targetChunkBytes)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long chunkBytes = targetChunkBytes > 0 ? targetChunkBytes
+                    : Math.max(MIN_PARALLEL_CHUNK, fileSize / (pool.getParallelism() * CHUNKS_PER_WORKER));
+            chunkBytes = Math.min(chunkBytes, MAX_MAP_WINDOW);
+
+            // Chunk boundaries always sit just after a line terminator
+            List<Long> boundaries = new ArrayList<>();
+            boundaries.add(0L);
+            long next = chunkBytes;
+            while (next < fileSize) {
+                long aligned = nextLineStart(channel, next);
+                if (aligned >= fileSize) {
+                    break;
+                }
+                boundaries.add(aligned);
+                next = aligned + chunkBytes;
+            }
+            boundaries.add(fileSize);
+
+            List<ForkJoinTask<PatientDataset>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.size(); i++) {
+                long start = boundaries.get(i);
+                long end = boundaries.get(i + 1);
+                boolean skipHeader = i == 0;
+                tasks.add(pool.submit(() -> parseMappedRange(channel, start, end, skipHeader)));
+            }
+
+            List<PatientDataset> parts = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<PatientDataset> task : tasks) {
+                parts.add(awaitChunk(task));
+            }
+            return PatientDataset.concat(parts);
+        }
+    }
+
+    private static PatientDataset awaitChunk(ForkJoinTask<PatientDataset> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading dataset", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to load dataset chunk", cause);
+        }
+    }
+
+    /**
+     * Find the offset just past the first line terminator at or after position, or the file size
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_BUFFER);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Memory-map and parse the byte range [start, end), which must begin at a line start.
+     * Ranges larger than one mapping window are parsed window by window on line boundaries.
+     */
+    private static PatientDataset parseMappedRange(FileChannel channel, long start, long end, boolean skipHeader)
+            throws IOException {
+        int estimatedRows = (int) Math.min((end - start) / APPROX_BYTES_PER_ROW, Integer.MAX_VALUE - 8);
+        PatientDataset.Builder builder = new PatientDataset.Builder(estimatedRows);
+        CsvParser parser = new CsvParser();
+
+        long position = start;
+        boolean isFirstWindow = true;
+        while (position < end) {
+            long windowSize = Math.min(MAX_MAP_WINDOW, end - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+            int limit = (int) windowSize;
+
+            // Stop the window after its last complete line; the remainder starts the next window
+            int windowEnd = limit;
+            if (position + windowSize < end) {
+                windowEnd = CsvParser.lastLineBreak(buffer, limit) + 1;
+                if (windowEnd == 0) {
+                    throw new IOException("Line longer than " + MAX_MAP_WINDOW + " bytes at offset " + position);
+                }
+            }
+
+            int windowStart = 0;
+            if (isFirstWindow && skipHeader) {
+                // Skip header line
+                windowStart = CsvParser.skipLine(buffer, 0, windowEnd);
+            }
+            isFirstWindow = false;
+
+            parser.parse(buffer, windowStart, windowEnd, builder::add);
+            position += windowEnd;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Load the dataset from its preprocessed binary cache (CSV path + ".bin"), memory-mapping the
+     * columns instead of parsing text. The cache is (re)built from the CSV on first use and whenever
+     * the CSV's size or modification time no longer match the ones recorded in the cache header.
+     */
+    public static PatientDataset loadCached(String filePath) throws IOException {
+        Path source = Paths.get(filePath);
+        Path cache = Paths.get(filePath + CACHE_SUFFIX);
+        long sourceSize = Files.size(source);
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+
+        if (Files.exists(cache)) {
+            try {
+                BinaryDatasetFile cached = BinaryDatasetFile.open(cache);
+                if (cached.matchesSource(sourceSize, sourceModified)) {
+                    return cached.load();
+                }
+            } catch (IOException e) {
+                System.err.println("Rebuilding unreadable dataset cache " + cache + ": " + e.getMessage());
+            }
+        }
+
+        PatientDataset dataset = loadParallel(filePath);
+        BinaryDatasetFile.write(dataset, cache, sourceSize, sourceModified);
+        return dataset;
+    }
+
+    /**
+     * Content fingerprint of a dataset file (size and CRC32C of every byte), used to detect
+     * when a saved model or cache no longer matches its source data
+     */
+    public static String fingerprint(String filePath) throws IOException {
+        CRC32C crc = new CRC32C();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(FINGERPRINT_BUFFER);
+            int read;
+            while ((read = channel.read(buffer)) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+                size += read;
+            }
+        }
+        return Long.toHexString(size) + "-" + Long.toHexString(crc.getValue());
+    }
+
     /**
      * Calculate basic statistics for the dataset
      */
     public static void printDatasetStatistics(List<Patient> patients) {
-        if (patients.isEmpty()) {
-            System.out.println("No data available");
-            return;
-        }
+        printDatasetStatistics(PatientDataset.fromPatients(patients));
+    }
 
-        int diabetesCount = 0;
-        double avgAge = 0;
-        double avgGlucose = 0;
-        double avgBMI = 0;
+    /**
+     * Calculate basic statistics for a columnar dataset
+     */
+    public static void printDatasetStatistics(PatientDataset dataset) {
+        printDatasetStatistics(DatasetStatistics.compute(dataset));
+    }
 
-        for (Patient patient : patients) {
-            if (patient.getOutcome() == 1) diabetesCount++;
-            avgAge += patient.getAge();
-            avgGlucose += patient.getGlucose();
-            avgBMI += patient.getBmi();
+    /**
+     * Print basic statistics from an already computed summary (e.g. a StatisticsSnapshot)
+     */
+    public static void printDatasetStatistics(DatasetStatistics statistics) {
+        if (statistics.isEmpty()) {
+            System.out.println("No data available");
+            return;
         }
 
-        int totalPatients = patients.size();
-        avgAge /= totalPatients;
-        avgGlucose /= totalPatients;
-        avgBMI /= totalPatients;
+        long totalPatients = statistics.getCount();
+        long diabetesCount = statistics.getPositiveCount();
 
         System.out.println("\n=== Dataset Statistics ===");
         System.out.println("Total patients: " + totalPatients);
@@ -86,9 +340,9 @@ public class DataLoader {
                 String.format("%.1f%%", (diabetesCount * 100.0 / totalPatients)) + ")");
         System.out.println("Patients without diabetes: " + (totalPatients - diabetesCount) + " (" +
                 String.format("%.1f%%", ((totalPatients - diabetesCount) * 100.0 / totalPatients)) + ")");
-        System.out.println("Average age: " + String.format("%.1f", avgAge));
-        System.out.println("Average glucose: " + String.format("%.1f", avgGlucose));
-        System.out.println("Average BMI: " + String.format("%.1f", avgBMI));
+        System.out.println("Average age: " + String.format("%.1f", statistics.getMean(7)));
+        System.out.println("Average glucose: " + String.format("%.1f", statistics.getMean(1)));
+        System.out.println("Average BMI: " + String.format("%.1f", statistics.getMean(5)));
         System.out.println("===========================\n");
     }
 }
@@ -0,0 +1,317 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PatientDatasetView;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Single-pass, mergeable summary of a dataset: per outcome class, the row count and each feature's
+ * Welford mean and sum of squared deviations, minimum and maximum.
+ *
+ * Everything DataAnalyzer reports follows from those per-class moments: overall mean and variance
+ * by Chan's pairwise combination, and the correlation of each feature with the 0/1 outcome from the
+ * difference of the class means. Partial results from separate row ranges merge exactly the same way,
+ * so large datasets are summarized by fork-join workers over fixed row blocks; the split depends only
+ * on the row count, which keeps results identical for any number of threads.
+ */
+public class DatasetStatistics implements CsvParser.RowSink {
+    private static final int NUM_FEATURES = PatientDataset.NUM_FEATURES;
+    private static final int PARALLEL_BLOCK_SIZE = 1 << 16;
+
+    // Indexed [class][feature]; class 1 is "diabetes" (outcome == 1), class 0 everything else
+    private final long[] count = new long[2];
+    private final double[][] mean = new double[2][NUM_FEATURES];
+    private final double[][] m2 = new double[2][NUM_FEATURES];
+    private final double[][] min = new double[2][NUM_FEATURES];
+    private final double[][] max = new double[2][NUM_FEATURES];
+
+    public DatasetStatistics() {
+        for (int c = 0; c < 2; c++) {
+            Arrays.fill(min[c], Double.POSITIVE_INFINITY);
+            Arrays.fill(max[c], Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Summarize a whole dataset on the common fork-join pool
+     */
+    public static DatasetStatistics compute(PatientDataset dataset) {
+        return compute(dataset, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Summarize a whole dataset on the given pool
+     */
+    public static DatasetStatistics compute(PatientDataset dataset, ForkJoinPool pool) {
+        if (dataset.size() <= PARALLEL_BLOCK_SIZE) {
+            DatasetStatistics statistics = new DatasetStatistics();
+            statistics.addRange(dataset, 0, dataset.size());
+            return statistics;
+        }
+        return pool.invoke(new RangeTask(dataset, 0, dataset.size()));
+    }
+
+    /**
+     * Add one row
+     */
+    @Override
+    public void accept(double[] features, int outcome) {
+        int c = outcome == 1 ? 1 : 0;
+        long n = ++count[c];
+        double[] classMean = mean[c];
+        double[] classM2 = m2[c];
+        for (int f = 0; f < NUM_FEATURES; f++) {
+            double x = features[f];
+            double delta = x - classMean[f];
+            classMean[f] += delta / n;
+            classM2[f] += delta * (x - classMean[f]);
+            if (x < min[c][f]) min[c][f] = x;
+            if (x > max[c][f]) max[c][f] = x;
+        }
+    }
+
+    /**
+     * Add rows [from, to) of a columnar dataset, one column at a time
+     */
+    public void addRange(PatientDataset dataset, int from, int to) {
+        byte[] outcomes = dataset.getOutcomes();
+        long startNegative = count[0], startPositive = count[1];
+        for (int f = 0; f < NUM_FEATURES; f++) {
+            double[] column = dataset.getColumn(f);
+            long n0 = startNegative, n1 = startPositive;
+            double mean0 = mean[0][f], mean1 = mean[1][f];
+            double m20 = m2[0][f], m21 = m2[1][f];
+            double min0 = min[0][f], min1 = min[1][f];
+            double max0 = max[0][f], max1 = max[1][f];
+
+            for (int row = from; row < to; row++) {
+                double x = column[row];
+                if (outcomes[row] == 1) {
+                    double delta = x - mean1;
+                    mean1 += delta / ++n1;
+                    m21 += delta * (x - mean1);
+                    if (x < min1) min1 = x;
+                    if (x > max1) max1 = x;
+                } else {
+                    double delta = x - mean0;
+                    mean0 += delta / ++n0;
+                    m20 += delta * (x - mean0);
+                    if (x < min0) min0 = x;
+                    if (x > max0) max0 = x;
+                }
+            }
+
+            mean[0][f] = mean0;
+            mean[1][f] = mean1;
+            m2[0][f] = m20;
+            m2[1][f] = m21;
+            min[0][f] = min0;
+            min[1][f] = min1;
+            max[0][f] = max0;
+            max[1][f] = max1;
+            count[0] = n0;
+            count[1] = n1;
+        }
+    }
+
+    /**
+     * Add every row of a view, in view order
+     */
+    public void addRows(PatientDatasetView view) {
+        double[] features = new double[NUM_FEATURES];
+        for (int i = 0; i < view.size(); i++) {
+            int row = view.rowAt(i);
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                features[f] = view.getDataset().get(row, f);
+            }
+            accept(features, view.getDataset().getOutcome(row));
+        }
+    }
+
+    /**
+     * Fold another summary into this one, as if its rows had been added here
+     */
+    public void merge(DatasetStatistics other) {
+        for (int c = 0; c < 2; c++) {
+            long na = count[c], nb = other.count[c];
+            if (nb == 0) {
+                continue;
+            }
+            long n = na + nb;
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                double delta = other.mean[c][f] - mean[c][f];
+                mean[c][f] += delta * nb / n;
+                m2[c][f] += other.m2[c][f] + delta * delta * ((double) na * nb / n);
+                min[c][f] = Math.min(min[c][f], other.min[c][f]);
+                max[c][f] = Math.max(max[c][f], other.max[c][f]);
+            }
+            count[c] = n;
+        }
+    }
+
+    public DatasetStatistics copy() {
+        DatasetStatistics copy = new DatasetStatistics();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Serialize the raw accumulator state (see StatisticsSnapshot)
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(NUM_FEATURES);
+        for (int c = 0; c < 2; c++) {
+            out.writeLong(count[c]);
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                out.writeDouble(mean[c][f]);
+                out.writeDouble(m2[c][f]);
+                out.writeDouble(min[c][f]);
+                out.writeDouble(max[c][f]);
+            }
+        }
+    }
+
+    static DatasetStatistics readFrom(DataInput in) throws IOException {
+        int features = in.readInt();
+        if (features != NUM_FEATURES) {
+            throw new IOException("Unexpected feature count " + features);
+        }
+        DatasetStatistics statistics = new DatasetStatistics();
+        for (int c = 0; c < 2; c++) {
+            statistics.count[c] = in.readLong();
+            if (statistics.count[c] < 0) {
+                throw new IOException("Negative row count " + statistics.count[c]);
+            }
+            for (int f = 0; f < NUM_FEATURES; f++) {
+                statistics.mean[c][f] = in.readDouble();
+                statistics.m2[c][f] = in.readDouble();
+                statistics.min[c][f] = in.readDouble();
+                statistics.max[c][f] = in.readDouble();
+            }
+        }
+        return statistics;
+    }
+
+    public long getCount() { return count[0] + count[1]; }
+    public long getPositiveCount() { return count[1]; }
+    public long getNegativeCount() { return count[0]; }
+    public boolean isEmpty() { return getCount() == 0; }
+
+    /**
+     * Mean of a feature over all rows (0 when empty)
+     */
+    public double getMean(int feature) {
+        long n = getCount();
+        if (n == 0) {
+            return 0.0;
+        }
+        return mean[0][feature] + (mean[1][feature] - mean[0][feature]) * count[1] / n;
+    }
+
+    /**
+     * Population variance of a feature over all rows (divides by n, like the training normalization)
+     */
+    public double getVariance(int feature) {
+        long n = getCount();
+        if (n == 0) {
+            return 0.0;
+        }
+        double delta = mean[1][feature] - mean[0][feature];
+        double total = m2[0][feature] + m2[1][feature] + delta * delta * ((double) count[0] * count[1] / n);
+        return Math.max(0.0, total / n);
+    }
+
+    public double getStd(int feature) {
+        return Math.sqrt(getVariance(feature));
+    }
+
+    public double getMin(int feature) {
+        return Math.min(min[0][feature], min[1][feature]);
+    }
+
+    public double getMax(int feature) {
+        return Math.max(max[0][feature], max[1][feature]);
+    }
+
+    /**
+     * Mean of a feature among rows with the given outcome (NaN when that class is empty)
+     */
+    public double getClassMean(int feature, int outcome) {
+        int c = outcome == 1 ? 1 : 0;
+        return count[c] == 0 ? Double.NaN : mean[c][feature];
+    }
+
+    public long getClassCount(int outcome) {
+        return count[outcome == 1 ? 1 : 0];
+    }
+
+    /**
+     * Pearson correlation between a feature and the 0/1 outcome (0 when either is constant).
+     * For a binary outcome, cov(x, y) = n0 * n1 / n^2 * (mean1 - mean0) and var(y) = n0 * n1 / n^2.
+     */
+    public double getCorrelationWithOutcome(int feature) {
+        long n = getCount();
+        if (count[0] == 0 || count[1] == 0) {
+            return 0.0;
+        }
+        double classFraction = (double) count[0] * count[1] / ((double) n * n);
+        double covariance = classFraction * (mean[1][feature] - mean[0][feature]);
+        double variance = getVariance(feature);
+        double denominator = Math.sqrt(variance * classFraction);
+        return denominator != 0 ? covariance / denominator : 0;
+    }
+
+    public double[] getMeans() {
+        double[] means = new double[NUM_FEATURES];
+        for (int f = 0; f < NUM_FEATURES; f++) {
+            means[f] = getMean(f);
+        }
+        return means;
+    }
+
+    public double[] getStds() {
+        double[] stds = new double[NUM_FEATURES];
+        for (int f = 0; f < NUM_FEATURES; f++) {
+            stds[f] = getStd(f);
+        }
+        return stds;
+    }
+
+    /**
+     * Splits a row range in halves down to PARALLEL_BLOCK_SIZE and merges left to right
+     */
+    private static class RangeTask extends RecursiveTask<DatasetStatistics> {
+        private static final long serialVersionUID = 1L;
+
+        private final PatientDataset dataset;
+        private final int from;
+        private final int to;
+
+        RangeTask(PatientDataset dataset, int from, int to) {
+            this.dataset = dataset;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected DatasetStatistics compute() {
+            if (to - from <= PARALLEL_BLOCK_SIZE) {
+                DatasetStatistics statistics = new DatasetStatistics();
+                statistics.addRange(dataset, from, to);
+                return statistics;
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(dataset, from, middle);
+            RangeTask right = new RangeTask(dataset, middle, to);
+            right.fork();
+            DatasetStatistics result = left.compute();
+            result.merge(right.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.diabetes.prediction.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Candidate values for each hyperparameter, expanded into a full grid or a random sample of it.
+ * Settings left unset keep their Hyperparameters.defaults() value. The gradient descent settings
+ * are only varied for gradient descent; IRLS and L-BFGS get one candidate per L2 penalty.
+ */
+public class HyperparameterSpace {
+    private List<ModelTrainer.Optimizer> optimizers =
+            Collections.singletonList(ModelTrainer.Optimizer.GRADIENT_DESCENT);
+    private double[] learningRates = {Hyperparameters.DEFAULT_LEARNING_RATE};
+    private int[] maxIterations = {Hyperparameters.DEFAULT_MAX_ITERATIONS};
+    private double[] convergenceThresholds = {Hyperparameters.DEFAULT_CONVERGENCE_THRESHOLD};
+    private double[] l2Penalties = {0.0};
+
+    public HyperparameterSpace optimizers(ModelTrainer.Optimizer... values) {
+        requireValues(values.length);
+        this.optimizers = Arrays.asList(values.clone());
+        return this;
+    }
+
+    public HyperparameterSpace learningRates(double... values) {
+        requireValues(values.length);
+        this.learningRates = values.clone();
+        return this;
+    }
+
+    public HyperparameterSpace maxIterations(int... values) {
+        requireValues(values.length);
+        this.maxIterations = values.clone();
+        return this;
+    }
+
+    public HyperparameterSpace convergenceThresholds(double... values) {
+        requireValues(values.length);
+        this.convergenceThresholds = values.clone();
+        return this;
+    }
+
+    public HyperparameterSpace l2Penalties(double... values) {
+        requireValues(values.length);
+        this.l2Penalties = values.clone();
+        return this;
+    }
+
+    private static void requireValues(int count) {
+        if (count == 0) {
+            throw new IllegalArgumentException("At least one candidate value is required");
+        }
+    }
+
+    /**
+     * Every combination, in a fixed order
+     */
+    public List<Hyperparameters> grid() {
+        List<Hyperparameters> grid = new ArrayList<>();
+        for (ModelTrainer.Optimizer optimizer : optimizers) {
+            for (double l2Penalty : l2Penalties) {
+                Hyperparameters base = Hyperparameters.defaults().withOptimizer(optimizer).withL2Penalty(l2Penalty);
+                if (optimizer != ModelTrainer.Optimizer.GRADIENT_DESCENT) {
+                    grid.add(base);
+                    continue;
+                }
+                for (double learningRate : learningRates) {
+                    for (int iterations : maxIterations) {
+                        for (double threshold : convergenceThresholds) {
+                            grid.add(new Hyperparameters(optimizer, learningRate, iterations, threshold, l2Penalty));
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Up to count distinct grid points chosen uniformly at random (the whole grid if it is smaller)
+     */
+    public List<Hyperparameters> sample(int count, long seed) {
+        List<Hyperparameters> grid = grid();
+        if (count >= grid.size()) {
+            return grid;
+        }
+        // Partial Fisher-Yates: the first count slots end up a uniform sample without repeats
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            Collections.swap(grid, i, i + random.nextInt(grid.size() - i));
+        }
+        return new ArrayList<>(grid.subList(0, count));
+    }
+}
@@ -0,0 +1,104 @@
+package com.diabetes.prediction.utils;
+
+import java.util.Objects;
+
+/**
+ * Immutable set of training settings for ModelTrainer.
+ * The learning rate, iteration budget and convergence threshold drive gradient descent;
+ * the L2 penalty (on the normalized weights, not the bias) applies to every optimizer.
+ */
+public class Hyperparameters {
+    public static final double DEFAULT_LEARNING_RATE = 0.01;
+    public static final int DEFAULT_MAX_ITERATIONS = 1000;
+    public static final double DEFAULT_CONVERGENCE_THRESHOLD = 1e-6;
+
+    private static final Hyperparameters DEFAULTS = new Hyperparameters(ModelTrainer.Optimizer.GRADIENT_DESCENT,
+            DEFAULT_LEARNING_RATE, DEFAULT_MAX_ITERATIONS, DEFAULT_CONVERGENCE_THRESHOLD, 0.0);
+
+    private final ModelTrainer.Optimizer optimizer;
+    private final double learningRate;
+    private final int maxIterations;
+    private final double convergenceThreshold;
+    private final double l2Penalty;
+
+    public Hyperparameters(ModelTrainer.Optimizer optimizer, double learningRate, int maxIterations,
+                           double convergenceThreshold, double l2Penalty) {
+        if (optimizer == null) {
+            throw new IllegalArgumentException("Optimizer must not be null");
+        }
+        if (!(learningRate > 0)) {
+            throw new IllegalArgumentException("Learning rate must be positive: " + learningRate);
+        }
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("Iteration budget must be positive: " + maxIterations);
+        }
+        if (!(convergenceThreshold >= 0)) {
+            throw new IllegalArgumentException("Convergence threshold must not be negative: " + convergenceThreshold);
+        }
+        if (!(l2Penalty >= 0)) {
+            throw new IllegalArgumentException("L2 penalty must not be negative: " + l2Penalty);
+        }
+        this.optimizer = optimizer;
+        this.learningRate = learningRate;
+        this.maxIterations = maxIterations;
+        this.convergenceThreshold = convergenceThreshold;
+        this.l2Penalty = l2Penalty;
+    }
+
+    /**
+     * The settings ModelTrainer has always used: plain gradient descent, no regularization
+     */
+    public static Hyperparameters defaults() {
+        return DEFAULTS;
+    }
+
+    public Hyperparameters withOptimizer(ModelTrainer.Optimizer optimizer) {
+        return new Hyperparameters(optimizer, learningRate, maxIterations, convergenceThreshold, l2Penalty);
+    }
+
+    public Hyperparameters withLearningRate(double learningRate) {
+        return new Hyperparameters(optimizer, learningRate, maxIterations, convergenceThreshold, l2Penalty);
+    }
+
+    public Hyperparameters withMaxIterations(int maxIterations) {
+        return new Hyperparameters(optimizer, learningRate, maxIterations, convergenceThreshold, l2Penalty);
+    }
+
+    public Hyperparameters withConvergenceThreshold(double convergenceThreshold) {
+        return new Hyperparameters(optimizer, learningRate, maxIterations, convergenceThreshold, l2Penalty);
+    }
+
+    public Hyperparameters withL2Penalty(double l2Penalty) {
+        return new Hyperparameters(optimizer, learningRate, maxIterations, convergenceThreshold, l2Penalty);
+    }
+
+    public ModelTrainer.Optimizer getOptimizer() { return optimizer; }
+    public double getLearningRate() { return learningRate; }
+    public int getMaxIterations() { return maxIterations; }
+    public double getConvergenceThreshold() { return convergenceThreshold; }
+    public double getL2Penalty() { return l2Penalty; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Hyperparameters)) return false;
+        Hyperparameters h = (Hyperparameters) o;
+        return optimizer == h.optimizer && Double.compare(learningRate, h.learningRate) == 0
+                && maxIterations == h.maxIterations && Double.compare(convergenceThreshold, h.convergenceThreshold) == 0
+                && Double.compare(l2Penalty, h.l2Penalty) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(optimizer, learningRate, maxIterations, convergenceThreshold, l2Penalty);
+    }
+
+    @Override
+    public String toString() {
+        if (optimizer == ModelTrainer.Optimizer.GRADIENT_DESCENT) {
+            return optimizer + "(rate=" + learningRate + ", iterations=" + maxIterations
+                    + ", threshold=" + convergenceThreshold + ", l2=" + l2Penalty + ")";
+        }
+        return optimizer + "(l2=" + l2Penalty + ")";
+    }
+}
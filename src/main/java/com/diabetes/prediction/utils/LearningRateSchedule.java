@@ -0,0 +1,37 @@
+package com.diabetes.prediction.utils;
+
+/**
+ * Learning rate as a function of training progress, used by mini-batch SGD
+ */
+public interface LearningRateSchedule {
+
+    /**
+     * @param epoch zero-based epoch number
+     * @param step  zero-based count of mini-batch updates since training started
+     */
+    double rate(int epoch, long step);
+
+    /**
+     * Same rate for every update
+     */
+    static LearningRateSchedule constant(double rate) {
+        return (epoch, step) -> rate;
+    }
+
+    /**
+     * rate / (1 + decay * epoch)
+     */
+    static LearningRateSchedule inverseTime(double rate, double decay) {
+        return (epoch, step) -> rate / (1.0 + decay * epoch);
+    }
+
+    /**
+     * rate * factor^(epoch / epochsPerStep)
+     */
+    static LearningRateSchedule stepDecay(double rate, double factor, int epochsPerStep) {
+        if (epochsPerStep <= 0) {
+            throw new IllegalArgumentException("epochsPerStep must be positive: " + epochsPerStep);
+        }
+        return (epoch, step) -> rate * Math.pow(factor, epoch / epochsPerStep);
+    }
+}
@@ -0,0 +1,245 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.ColumnKernels;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PatientDatasetView;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Mean log-loss of a logistic regression model over a z-score normalized columnar dataset (or a view
+ * of some of its rows), plus an optional L2 penalty on the weights, with its gradient and (optionally)
+ * Hessian. Parameters are laid out as the feature weights followed by the bias. Each evaluation is one
+ * pass over the data.
+ *
+ * Without a pool the pass runs sequentially on the calling thread. With a pool the rows are split
+ * into fixed-size blocks whose partial sums are combined in block order with Kahan compensation,
+ * so results are bit-identical for any pool parallelism.
+ *
+ * Rows are processed in chunks: a chunk's feature columns are gathered and normalized, and all its
+ * dot products taken, with ColumnKernels (SIMD across rows where available); the per-row sigmoid,
+ * gradient and Hessian sums then run in row order, so the kernels never change the result.
+ */
+class LogisticObjective {
+    private static final int CHUNK_SIZE = 256;
+
+    private final byte[] outcomes;
+    private final PatientDatasetView view;
+    private final int size;
+    private final double[] means;
+    private final double[] stds;
+    private final double l2Penalty;
+    private final ForkJoinPool pool;
+    private final int blockSize;
+
+    private final int numFeatures;
+
+    // Scratch reused across sequential evaluations
+    private final Chunk chunk;
+    private double[] sums;
+    private double[][] blockSums;
+
+    LogisticObjective(PatientDataset dataset, double[] means, double[] stds, ForkJoinPool pool, int blockSize) {
+        this(PatientDatasetView.of(dataset), means, stds, 0.0, pool, blockSize);
+    }
+
+    LogisticObjective(PatientDatasetView view, double[] means, double[] stds, double l2Penalty,
+                      ForkJoinPool pool, int blockSize) {
+        this.numFeatures = PatientDataset.NUM_FEATURES;
+        this.outcomes = view.getDataset().getOutcomes();
+        this.view = view;
+        this.size = view.size();
+        this.means = means;
+        this.stds = stds;
+        this.l2Penalty = l2Penalty;
+        this.pool = pool;
+        this.blockSize = blockSize;
+        this.chunk = new Chunk(numFeatures);
+    }
+
+    int size() { return size; }
+
+    /**
+     * Number of parameters: one weight per feature plus the bias
+     */
+    int dimension() { return numFeatures + 1; }
+
+    /**
+     * Length of a packed upper-triangular Hessian for this dimension
+     */
+    int hessianLength() {
+        int n = dimension();
+        return n * (n + 1) / 2;
+    }
+
+    /**
+     * Compute the mean gradient into gradient and return the mean log-loss
+     */
+    double evaluate(double[] params, double[] gradient) {
+        return evaluate(params, gradient, null);
+    }
+
+    /**
+     * Compute the mean gradient, and the mean Hessian (packed upper triangle, row by row) when
+     * hessian is non-null, and return the mean log-loss
+     */
+    double evaluate(double[] params, double[] gradient, double[] hessian) {
+        int length = numFeatures + 2 + (hessian != null ? hessian.length : 0);
+        if (sums == null || sums.length != length) {
+            sums = new double[length];
+            blockSums = null;
+        }
+
+        if (pool != null) {
+            int numBlocks = (size + blockSize - 1) / blockSize;
+            if (blockSums == null) {
+                blockSums = new double[numBlocks][length];
+            }
+            pool.invoke(new BlockTask(params, hessian != null, 0, numBlocks));
+            reduceBlocks(blockSums, sums);
+        } else {
+            Arrays.fill(sums, 0.0);
+            accumulate(0, size, params, chunk, sums, hessian != null);
+        }
+
+        for (int i = 0; i <= numFeatures; i++) {
+            gradient[i] = sums[i] / size;
+        }
+        if (hessian != null) {
+            for (int k = 0; k < hessian.length; k++) {
+                hessian[k] = sums[numFeatures + 2 + k] / size;
+            }
+        }
+        double cost = sums[numFeatures + 1] / size;
+        if (l2Penalty == 0) {
+            return cost;
+        }
+
+        // (l2 / 2) * |w|^2 over the weights; the bias is not penalized
+        int n = dimension();
+        int diagonal = 0;
+        for (int i = 0; i < numFeatures; i++) {
+            cost += 0.5 * l2Penalty * params[i] * params[i];
+            gradient[i] += l2Penalty * params[i];
+            if (hessian != null) {
+                hessian[diagonal] += l2Penalty;
+                diagonal += n - i;
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Add the log-loss gradient, cost and optionally Hessian of rows [from, to) into sums
+     * (weight gradients, bias gradient, cost, packed Hessian), using chunk as scratch
+     */
+    private void accumulate(int from, int to, double[] params, Chunk chunk, double[] sums, boolean withHessian) {
+        double bias = params[numFeatures];
+        double[][] features = chunk.features;
+        double[] dots = chunk.dots;
+        for (int start = from; start < to; start += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, to - start);
+            for (int i = 0; i < numFeatures; i++) {
+                view.copyColumn(i, start, length, features[i]);
+                ColumnKernels.standardize(features[i], length, means[i], stds[i]);
+            }
+            ColumnKernels.linear(features, 0, length, params, 0.0, dots);
+
+            for (int j = 0; j < length; j++) {
+                double prediction = 1.0 / (1.0 + Math.exp(-(dots[j] + bias)));
+                double y = outcomes[view.rowAt(start + j)];
+                double error = prediction - y;
+
+                // Update gradients
+                for (int i = 0; i < numFeatures; i++) {
+                    sums[i] += error * features[i][j];
+                }
+                sums[numFeatures] += error;
+
+                // Calculate cost (log loss)
+                sums[numFeatures + 1] += -(y * Math.log(Math.max(prediction, 1e-15)) +
+                        (1 - y) * Math.log(Math.max(1 - prediction, 1e-15)));
+
+                if (withHessian) {
+                    // X^T W X with W = p(1 - p), over the features augmented with a constant 1 for the bias
+                    double weight = prediction * (1 - prediction);
+                    int k = numFeatures + 2;
+                    for (int a = 0; a <= numFeatures; a++) {
+                        double weightedA = weight * (a < numFeatures ? features[a][j] : 1.0);
+                        for (int b = a; b < numFeatures; b++) {
+                            sums[k++] += weightedA * features[b][j];
+                        }
+                        sums[k++] += weightedA;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Normalized feature columns and dot products for one chunk of rows
+     */
+    private static final class Chunk {
+        final double[][] features;
+        final double[] dots = new double[CHUNK_SIZE];
+
+        Chunk(int numFeatures) {
+            features = new double[numFeatures][CHUNK_SIZE];
+        }
+    }
+
+    /**
+     * Sum per-block partial results in block order with Kahan compensation
+     */
+    private static void reduceBlocks(double[][] blockSums, double[] sums) {
+        for (int k = 0; k < sums.length; k++) {
+            double sum = 0.0;
+            double compensation = 0.0;
+            for (double[] block : blockSums) {
+                double y = block[k] - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+            }
+            sums[k] = sum;
+        }
+    }
+
+    /**
+     * Computes the partial sums of a range of fixed-size row blocks, each block into its own slot
+     */
+    private class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] params;
+        private final boolean withHessian;
+        private final int firstBlock;
+        private final int endBlock;
+
+        BlockTask(double[] params, boolean withHessian, int firstBlock, int endBlock) {
+            this.params = params;
+            this.withHessian = withHessian;
+            this.firstBlock = firstBlock;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBlock - firstBlock > 1) {
+                int mid = (firstBlock + endBlock) >>> 1;
+                invokeAll(new BlockTask(params, withHessian, firstBlock, mid),
+                        new BlockTask(params, withHessian, mid, endBlock));
+                return;
+            }
+            if (endBlock == firstBlock) {
+                return;
+            }
+            double[] blockSum = blockSums[firstBlock];
+            Arrays.fill(blockSum, 0.0);
+            int from = firstBlock * blockSize;
+            int to = Math.min(from + blockSize, size);
+            accumulate(from, to, params, new Chunk(numFeatures), blockSum, withHessian);
+        }
+    }
+}
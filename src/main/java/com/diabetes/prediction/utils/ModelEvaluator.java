@@ -0,0 +1,510 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Threshold-independent evaluation of a model on a holdout set: ROC and precision-recall curves,
+ * their areas, and the confusion matrix at any threshold.
+ *
+ * Rows are scored once, in fixed-size blocks through the batch API on a fork-join pool. In exact mode
+ * each class's probabilities are then sorted once, and a single merge from the top score down gives
+ * the true and false positive counts at every distinct score, from which every curve and every
+ * threshold's metrics follow (O(n log n) overall, O(log n) per threshold query). For holdouts too
+ * large to keep in memory, histogram mode counts each class's scores into fixed-width bins instead,
+ * in memory independent of the row count, giving the same curves at bin resolution.
+ */
+public class ModelEvaluator {
+    public static final int DEFAULT_HISTOGRAM_BINS = 10_000;
+    private static final int BLOCK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+
+    public ModelEvaluator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ModelEvaluator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Exact evaluation: every distinct score is a threshold on the curves
+     */
+    public Evaluation evaluate(DiabetesPredictor predictor, PatientDataset dataset) {
+        int n = dataset.size();
+        double[] probabilities = new double[n];
+        Partial scored = pool.invoke(new BlockTask(predictor, dataset, probabilities, 0, 1, 0, blockCount(n)));
+
+        int positiveCount = 0;
+        for (int row = 0; row < n; row++) {
+            if (dataset.getOutcome(row) == 1) {
+                positiveCount++;
+            }
+        }
+        double[] positives = new double[positiveCount];
+        double[] negatives = new double[n - positiveCount];
+        for (int row = 0, p = 0, q = 0; row < n; row++) {
+            if (dataset.getOutcome(row) == 1) {
+                positives[p++] = probabilities[row];
+            } else {
+                negatives[q++] = probabilities[row];
+            }
+        }
+        Arrays.parallelSort(positives);
+        Arrays.parallelSort(negatives);
+
+        // Walk both sorted classes from the highest score down, one curve point per distinct score
+        double[] thresholds = new double[n];
+        long[] truePositives = new long[n];
+        long[] falsePositives = new long[n];
+        int points = 0;
+        int i = positives.length - 1, j = negatives.length - 1;
+        long tp = 0, fp = 0;
+        while (i >= 0 || j >= 0) {
+            double threshold = Math.max(i >= 0 ? positives[i] : Double.NEGATIVE_INFINITY,
+                    j >= 0 ? negatives[j] : Double.NEGATIVE_INFINITY);
+            while (i >= 0 && positives[i] == threshold) {
+                tp++;
+                i--;
+            }
+            while (j >= 0 && negatives[j] == threshold) {
+                fp++;
+                j--;
+            }
+            thresholds[points] = threshold;
+            truePositives[points] = tp;
+            falsePositives[points] = fp;
+            points++;
+        }
+        return new Evaluation(Arrays.copyOf(thresholds, points), Arrays.copyOf(truePositives, points),
+                Arrays.copyOf(falsePositives, points), positiveCount, n - positiveCount, scored.logLoss, true);
+    }
+
+    /**
+     * Bounded-memory evaluation of an in-memory dataset: scores are counted into bins of width 1 / bins
+     */
+    public Evaluation evaluateHistogram(DiabetesPredictor predictor, PatientDataset dataset, int bins) {
+        requirePositiveBins(bins);
+        // A few leaves per worker, so bin arrays are allocated and merged a bounded number of times
+        int blocks = blockCount(dataset.size());
+        int leafBlocks = Math.max(1, blocks / (pool.getParallelism() * 4));
+        Partial counted = pool.invoke(new BlockTask(predictor, dataset, null, bins, leafBlocks, 0, blocks));
+        return fromHistogram(counted, bins);
+    }
+
+    /**
+     * Bounded-memory evaluation of rows streamed from disk; memory depends only on the bin count
+     */
+    public Evaluation evaluateHistogram(DiabetesPredictor predictor, RowSource source, int bins) throws IOException {
+        requirePositiveBins(bins);
+        HistogramSink sink = new HistogramSink(predictor, bins);
+        source.forEachRow(sink);
+        sink.flush();
+        return fromHistogram(sink.counts, bins);
+    }
+
+    private static void requirePositiveBins(int bins) {
+        if (bins <= 0) {
+            throw new IllegalArgumentException("Bin count must be positive: " + bins);
+        }
+    }
+
+    private static int blockCount(int rows) {
+        return (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static int bin(double probability, int bins) {
+        return Math.min((int) (probability * bins), bins - 1);
+    }
+
+    private static double logLoss(double probability, int outcome) {
+        return outcome == 1 ? -Math.log(Math.max(probability, 1e-15)) : -Math.log(Math.max(1 - probability, 1e-15));
+    }
+
+    /**
+     * Each non-empty bin, from the top down, is one curve point at the bin's lower edge
+     */
+    private static Evaluation fromHistogram(Partial counts, int bins) {
+        double[] thresholds = new double[bins];
+        long[] truePositives = new long[bins];
+        long[] falsePositives = new long[bins];
+        long positives = 0, negatives = 0;
+        int points = 0;
+        for (int b = bins - 1; b >= 0; b--) {
+            if (counts.positives[b] == 0 && counts.negatives[b] == 0) {
+                continue;
+            }
+            positives += counts.positives[b];
+            negatives += counts.negatives[b];
+            thresholds[points] = (double) b / bins;
+            truePositives[points] = positives;
+            falsePositives[points] = negatives;
+            points++;
+        }
+        return new Evaluation(Arrays.copyOf(thresholds, points), Arrays.copyOf(truePositives, points),
+                Arrays.copyOf(falsePositives, points), positives, negatives, counts.logLoss, false);
+    }
+
+    /**
+     * Log-loss sum and, in histogram mode, per-class bin counts of a range of rows
+     */
+    private static final class Partial {
+        double logLoss;
+        final long[] positives;
+        final long[] negatives;
+
+        Partial(int bins) {
+            this.positives = bins > 0 ? new long[bins] : null;
+            this.negatives = bins > 0 ? new long[bins] : null;
+        }
+
+        void add(Partial other) {
+            logLoss += other.logLoss;
+            if (positives != null) {
+                for (int b = 0; b < positives.length; b++) {
+                    positives[b] += other.positives[b];
+                    negatives[b] += other.negatives[b];
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores a range of fixed-size row blocks, writing probabilities (exact mode) or counting bins;
+     * ranges are split until at most leafBlocks blocks remain
+     */
+    private static class BlockTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final DiabetesPredictor predictor;
+        private final PatientDataset dataset;
+        private final double[] probabilities;
+        private final int bins;
+        private final int leafBlocks;
+        private final int firstBlock;
+        private final int endBlock;
+
+        BlockTask(DiabetesPredictor predictor, PatientDataset dataset, double[] probabilities, int bins,
+                  int leafBlocks, int firstBlock, int endBlock) {
+            this.predictor = predictor;
+            this.dataset = dataset;
+            this.probabilities = probabilities;
+            this.bins = bins;
+            this.leafBlocks = leafBlocks;
+            this.firstBlock = firstBlock;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (endBlock - firstBlock > leafBlocks) {
+                int mid = (firstBlock + endBlock) >>> 1;
+                BlockTask right = new BlockTask(predictor, dataset, probabilities, bins, leafBlocks, mid, endBlock);
+                right.fork();
+                Partial result = new BlockTask(predictor, dataset, probabilities, bins, leafBlocks, firstBlock, mid)
+                        .compute();
+                result.add(right.join());
+                return result;
+            }
+            Partial result = new Partial(bins);
+            double[] scores = new double[BLOCK_SIZE];
+            for (int block = firstBlock; block < endBlock; block++) {
+                int from = block * BLOCK_SIZE;
+                int to = Math.min(from + BLOCK_SIZE, dataset.size());
+                predictor.predictProbabilities(dataset, from, to, scores);
+                for (int r = 0; r < to - from; r++) {
+                    int outcome = dataset.getOutcome(from + r);
+                    result.logLoss += logLoss(scores[r], outcome);
+                    if (bins > 0) {
+                        if (outcome == 1) {
+                            result.positives[bin(scores[r], bins)]++;
+                        } else {
+                            result.negatives[bin(scores[r], bins)]++;
+                        }
+                    }
+                }
+                if (probabilities != null) {
+                    System.arraycopy(scores, 0, probabilities, from, to - from);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Buffers streamed rows into a columnar block, then scores and counts the block
+     */
+    private static class HistogramSink implements CsvParser.RowSink {
+        private final DiabetesPredictor predictor;
+        private final int bins;
+        private final Partial counts;
+        private final double[][] columns = new double[PatientDataset.NUM_FEATURES][BLOCK_SIZE];
+        private final byte[] outcomes = new byte[BLOCK_SIZE];
+        private final double[] scores = new double[BLOCK_SIZE];
+        private int buffered;
+
+        HistogramSink(DiabetesPredictor predictor, int bins) {
+            this.predictor = predictor;
+            this.bins = bins;
+            this.counts = new Partial(bins);
+        }
+
+        @Override
+        public void accept(double[] features, int outcome) {
+            for (int f = 0; f < columns.length; f++) {
+                columns[f][buffered] = features[f];
+            }
+            outcomes[buffered] = (byte) outcome;
+            if (++buffered == BLOCK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            predictor.predictProbabilities(columns, 0, buffered, scores);
+            for (int r = 0; r < buffered; r++) {
+                counts.logLoss += logLoss(scores[r], outcomes[r]);
+                if (outcomes[r] == 1) {
+                    counts.positives[bin(scores[r], bins)]++;
+                } else {
+                    counts.negatives[bin(scores[r], bins)]++;
+                }
+            }
+            buffered = 0;
+        }
+    }
+
+    /**
+     * Confusion matrix and derived rates when predicting diabetes for probability >= threshold
+     */
+    public static class ThresholdMetrics {
+        private final double threshold;
+        private final long truePositives;
+        private final long falsePositives;
+        private final long trueNegatives;
+        private final long falseNegatives;
+
+        ThresholdMetrics(double threshold, long truePositives, long falsePositives, long positives, long negatives) {
+            this.threshold = threshold;
+            this.truePositives = truePositives;
+            this.falsePositives = falsePositives;
+            this.trueNegatives = negatives - falsePositives;
+            this.falseNegatives = positives - truePositives;
+        }
+
+        public double getThreshold() { return threshold; }
+        public long getTruePositives() { return truePositives; }
+        public long getFalsePositives() { return falsePositives; }
+        public long getTrueNegatives() { return trueNegatives; }
+        public long getFalseNegatives() { return falseNegatives; }
+
+        public double getAccuracy() {
+            long total = truePositives + falsePositives + trueNegatives + falseNegatives;
+            return total > 0 ? (double) (truePositives + trueNegatives) / total : 0;
+        }
+
+        public double getPrecision() {
+            return truePositives > 0 ? (double) truePositives / (truePositives + falsePositives) : 0;
+        }
+
+        public double getRecall() {
+            return truePositives > 0 ? (double) truePositives / (truePositives + falseNegatives) : 0;
+        }
+
+        public double getSpecificity() {
+            return trueNegatives > 0 ? (double) trueNegatives / (trueNegatives + falsePositives) : 0;
+        }
+
+        public double getF1Score() {
+            double precision = getPrecision();
+            double recall = getRecall();
+            return (precision + recall) > 0 ? 2 * (precision * recall) / (precision + recall) : 0;
+        }
+    }
+
+    /**
+     * Cumulative true and false positive counts at each curve threshold, highest threshold first
+     */
+    public static class Evaluation {
+        private final double[] thresholds;
+        private final long[] truePositives;
+        private final long[] falsePositives;
+        private final long positives;
+        private final long negatives;
+        private final double logLossSum;
+        private final boolean exact;
+
+        Evaluation(double[] thresholds, long[] truePositives, long[] falsePositives, long positives, long negatives,
+                   double logLossSum, boolean exact) {
+            this.thresholds = thresholds;
+            this.truePositives = truePositives;
+            this.falsePositives = falsePositives;
+            this.positives = positives;
+            this.negatives = negatives;
+            this.logLossSum = logLossSum;
+            this.exact = exact;
+        }
+
+        public long getCount() { return positives + negatives; }
+        public long getPositiveCount() { return positives; }
+        public long getNegativeCount() { return negatives; }
+
+        /**
+         * False when the curves come from histogram bins rather than every distinct score
+         */
+        public boolean isExact() { return exact; }
+
+        public double getLogLoss() {
+            return getCount() > 0 ? logLossSum / getCount() : Double.NaN;
+        }
+
+        /**
+         * Area under the ROC curve, with tied scores counted as half-correct (NaN without both classes)
+         */
+        public double getAuc() {
+            if (positives == 0 || negatives == 0) {
+                return Double.NaN;
+            }
+            double area = 0;
+            long previousTp = 0, previousFp = 0;
+            for (int k = 0; k < thresholds.length; k++) {
+                area += (double) (falsePositives[k] - previousFp) * (truePositives[k] + previousTp) / 2;
+                previousTp = truePositives[k];
+                previousFp = falsePositives[k];
+            }
+            return area / ((double) positives * negatives);
+        }
+
+        /**
+         * Area under the precision-recall curve as average precision: the precision at each threshold
+         * weighted by the recall gained there (NaN without positives)
+         */
+        public double getAveragePrecision() {
+            if (positives == 0) {
+                return Double.NaN;
+            }
+            double sum = 0;
+            long previousTp = 0;
+            for (int k = 0; k < thresholds.length; k++) {
+                long predicted = truePositives[k] + falsePositives[k];
+                sum += (double) (truePositives[k] - previousTp) * truePositives[k] / predicted;
+                previousTp = truePositives[k];
+            }
+            return sum / positives;
+        }
+
+        /**
+         * Metrics when predicting diabetes for probability >= threshold. In histogram mode, scores are
+         * only known to bin resolution, so the threshold is effectively rounded up to a bin edge.
+         */
+        public ThresholdMetrics metricsAt(double threshold) {
+            // Thresholds are descending: find how many curve points lie at or above the threshold
+            int low = 0, high = thresholds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (thresholds[mid] >= threshold) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            long tp = low > 0 ? truePositives[low - 1] : 0;
+            long fp = low > 0 ? falsePositives[low - 1] : 0;
+            return new ThresholdMetrics(threshold, tp, fp, positives, negatives);
+        }
+
+        /**
+         * The curve threshold with the highest F1 score
+         */
+        public ThresholdMetrics bestF1() {
+            ThresholdMetrics best = metricsAt(Double.POSITIVE_INFINITY);
+            for (int k = 0; k < thresholds.length; k++) {
+                ThresholdMetrics metrics = new ThresholdMetrics(thresholds[k], truePositives[k], falsePositives[k],
+                        positives, negatives);
+                if (metrics.getF1Score() > best.getF1Score()) {
+                    best = metrics;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * The highest threshold that still reaches the given recall (e.g. for a screening operating point)
+         */
+        public ThresholdMetrics thresholdForRecall(double minRecall) {
+            for (int k = 0; k < thresholds.length; k++) {
+                if (positives > 0 && (double) truePositives[k] / positives >= minRecall) {
+                    return new ThresholdMetrics(thresholds[k], truePositives[k], falsePositives[k], positives, negatives);
+                }
+            }
+            return metricsAt(Double.NEGATIVE_INFINITY);
+        }
+
+        public double[] getThresholds() { return thresholds.clone(); }
+
+        public double[] getTruePositiveRates() {
+            double[] rates = new double[thresholds.length];
+            for (int k = 0; k < rates.length; k++) {
+                rates[k] = positives > 0 ? (double) truePositives[k] / positives : 0;
+            }
+            return rates;
+        }
+
+        public double[] getFalsePositiveRates() {
+            double[] rates = new double[thresholds.length];
+            for (int k = 0; k < rates.length; k++) {
+                rates[k] = negatives > 0 ? (double) falsePositives[k] / negatives : 0;
+            }
+            return rates;
+        }
+
+        /**
+         * Recall at each threshold: the x axis of the precision-recall curve (same as the true positive rate)
+         */
+        public double[] getRecalls() {
+            return getTruePositiveRates();
+        }
+
+        public double[] getPrecisions() {
+            double[] precisions = new double[thresholds.length];
+            for (int k = 0; k < precisions.length; k++) {
+                precisions[k] = (double) truePositives[k] / (truePositives[k] + falsePositives[k]);
+            }
+            return precisions;
+        }
+
+        public void print() {
+            System.out.println("\n=== MODEL EVALUATION" + (exact ? "" : " (histogram)") + " ===");
+            System.out.println("Rows: " + getCount() + " (" + positives + " diabetes, " + negatives + " no diabetes)");
+            System.out.println("Log-loss: " + String.format("%.4f", getLogLoss()));
+            System.out.println("ROC AUC: " + String.format("%.4f", getAuc()));
+            System.out.println("Average precision: " + String.format("%.4f", getAveragePrecision()));
+
+            System.out.println("\nTHRESHOLD SWEEP:");
+            System.out.printf("%-10s %-10s %-10s %-10s %-12s %-10s%n",
+                    "Threshold", "Accuracy", "Precision", "Recall", "Specificity", "F1");
+            System.out.println("-".repeat(66));
+            for (int step = 1; step <= 9; step++) {
+                printRow(metricsAt(step / 10.0));
+            }
+            System.out.println("Best F1:");
+            printRow(bestF1());
+            System.out.println("===========================\n");
+        }
+
+        private static void printRow(ThresholdMetrics metrics) {
+            System.out.printf("%-10.4f %-10s %-10s %-10s %-12s %-10s%n", metrics.getThreshold(),
+                    percent(metrics.getAccuracy()), percent(metrics.getPrecision()), percent(metrics.getRecall()),
+                    percent(metrics.getSpecificity()), percent(metrics.getF1Score()));
+        }
+
+        private static String percent(double value) {
+            return String.format("%.2f%%", value * 100);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Loads the saved model when it still matches the dataset, and trains and saves a new one otherwise
+ */
+public class ModelLoader {
+    public static final String DEFAULT_MODEL_PATH = "data/diabetes.model";
+
+    /**
+     * Return the saved model if it was trained on the current contents of the dataset file;
+     * otherwise (or when forceRetrain is set) train a new model and save it. When the dataset has
+     * merely changed, the saved model is the starting point, so the refresh needs only a few passes.
+     */
+    public static DiabetesPredictor loadOrTrain(String datasetPath, String modelPath, boolean forceRetrain)
+            throws IOException {
+        return loadOrTrain(datasetPath, modelPath, forceRetrain, new ModelTrainer());
+    }
+
+    /**
+     * Same as loadOrTrain, training (if needed) with the given trainer and its listener, cancellation
+     * token and time budget (a warm refresh uses IRLS for that run only). A cancelled run throws
+     * CancellationException and leaves the model file alone.
+     */
+    public static DiabetesPredictor loadOrTrain(String datasetPath, String modelPath, boolean forceRetrain,
+                                                ModelTrainer trainer) throws IOException {
+        String fingerprint = DataLoader.fingerprint(datasetPath);
+        Path model = Paths.get(modelPath);
+        DiabetesPredictor previous = null;
+
+        if (!forceRetrain && Files.exists(model)) {
+            try {
+                DiabetesPredictor saved = DiabetesPredictor.load(model);
+                if (fingerprint.equals(saved.getTrainingInfo().getDatasetFingerprint())) {
+                    System.out.println("Loaded saved model from " + modelPath);
+                    return saved;
+                }
+                System.out.println("Dataset changed since " + modelPath + " was saved; retraining from it");
+                previous = saved;
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable model file " + modelPath + ": " + e.getMessage());
+            }
+        }
+        return trainAndSave(datasetPath, modelPath, fingerprint, previous, trainer);
+    }
+
+    /**
+     * Train a new model on the dataset and save it, replacing any existing model file
+     */
+    public static DiabetesPredictor trainAndSave(String datasetPath, String modelPath) throws IOException {
+        return trainAndSave(datasetPath, modelPath, new ModelTrainer());
+    }
+
+    /**
+     * Train with the given trainer and save; a cancelled run throws CancellationException without saving
+     */
+    public static DiabetesPredictor trainAndSave(String datasetPath, String modelPath, ModelTrainer trainer)
+            throws IOException {
+        return trainAndSave(datasetPath, modelPath, DataLoader.fingerprint(datasetPath), null, trainer);
+    }
+
+    private static DiabetesPredictor trainAndSave(String datasetPath, String modelPath, String fingerprint,
+                                                  DiabetesPredictor previous, ModelTrainer trainer)
+            throws IOException {
+        PatientDataset dataset = DataLoader.loadCached(datasetPath);
+        DatasetStatistics statistics = StatisticsSnapshot.forDataset(datasetPath).getStatistics();
+        ModelTrainer.Optimizer optimizer = trainer.getOptimizer();
+        if (previous != null) {
+            // Newton steps from the previous optimum converge in a handful of passes,
+            // where fixed-step gradient descent would still use its whole iteration budget
+            trainer.setOptimizer(ModelTrainer.Optimizer.IRLS);
+        }
+        DiabetesPredictor predictor;
+        try {
+            predictor = statistics.getCount() == dataset.size()
+                    ? trainer.trainModel(dataset, statistics, previous)
+                    : trainer.trainModel(dataset, previous);
+        } finally {
+            // Only this refresh uses IRLS; a reused trainer keeps its own optimizer for later cold trains
+            trainer.setOptimizer(optimizer);
+        }
+        if (trainer.getLastStopReason() == TrainingListener.StopReason.CANCELLED) {
+            throw new CancellationException("Training cancelled; " + modelPath + " was not replaced");
+        }
+        predictor = predictor.withTrainingInfo(predictor.getTrainingInfo().withDatasetFingerprint(fingerprint));
+        predictor.save(Paths.get(modelPath));
+        System.out.println("Saved model to " + modelPath);
+        return predictor;
+    }
+}
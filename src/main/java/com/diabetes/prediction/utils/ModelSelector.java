@@ -0,0 +1,295 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PatientDatasetView;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Chooses hyperparameters by stratified k-fold cross-validation.
+ *
+ * Rows are dealt into k folds with the same class balance, and the fold order is written once into
+ * an index array holding the permutation twice. Fold f's validation rows are one range of that array
+ * and its training rows the n - |f| entries right after it, so every (candidate, fold) pair trains on
+ * a PatientDatasetView of the same dataset and index array: memory stays O(n) however many folds and
+ * candidates are evaluated. Fold statistics are computed once and merged for each training set.
+ *
+ * Each (candidate, fold) model is trained sequentially as one task on the pool, so up to
+ * candidates * k models train concurrently; results do not depend on scheduling. Candidates are
+ * ranked by mean validation log-loss, and the best is refit on all rows.
+ */
+public class ModelSelector {
+    public static final int DEFAULT_FOLDS = 5;
+    private static final long DEFAULT_SEED = 42;
+
+    private final int folds;
+    private final ForkJoinPool pool;
+    private final long seed;
+
+    public ModelSelector() {
+        this(DEFAULT_FOLDS, ForkJoinPool.commonPool());
+    }
+
+    public ModelSelector(int folds, ForkJoinPool pool) {
+        this(folds, pool, DEFAULT_SEED);
+    }
+
+    public ModelSelector(int folds, ForkJoinPool pool, long seed) {
+        if (folds < 2) {
+            throw new IllegalArgumentException("Cross-validation needs at least 2 folds: " + folds);
+        }
+        this.folds = folds;
+        this.pool = pool;
+        this.seed = seed;
+    }
+
+    /**
+     * Cross-validate every candidate and refit the best one on the whole dataset.
+     * The dataset is only read, never shuffled or copied.
+     */
+    public Report select(PatientDataset dataset, List<Hyperparameters> candidates) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No hyperparameter candidates to evaluate");
+        }
+        int n = dataset.size();
+        if (n < folds) {
+            throw new IllegalArgumentException("Cannot split " + n + " rows into " + folds + " folds");
+        }
+
+        int[] foldStart = new int[folds + 1];
+        int[] index = stratifiedIndex(dataset, foldStart);
+
+        DatasetStatistics[] foldStatistics = new DatasetStatistics[folds];
+        for (int f = 0; f < folds; f++) {
+            foldStatistics[f] = new DatasetStatistics();
+            foldStatistics[f].addRows(validationView(dataset, index, foldStart, f));
+        }
+
+        System.out.println("Cross-validating " + candidates.size() + " candidates on " + folds + " folds of "
+                + n + " rows");
+        long start = System.nanoTime();
+
+        List<ForkJoinTask<FoldScore>> tasks = new ArrayList<>(candidates.size() * folds);
+        for (Hyperparameters candidate : candidates) {
+            for (int f = 0; f < folds; f++) {
+                int fold = f;
+                tasks.add(pool.submit(() -> trainFold(dataset, index, foldStart, foldStatistics, fold, candidate)));
+            }
+        }
+
+        List<CandidateResult> results = new ArrayList<>(candidates.size());
+        for (int c = 0; c < candidates.size(); c++) {
+            FoldScore[] scores = new FoldScore[folds];
+            for (int f = 0; f < folds; f++) {
+                scores[f] = tasks.get(c * folds + f).join();
+            }
+            results.add(new CandidateResult(candidates.get(c), scores));
+        }
+        // Stable sort: equally good candidates keep their input order
+        results.sort(Comparator.comparingDouble(CandidateResult::getMeanLogLoss));
+        System.out.println(String.format("Cross-validation finished in %.2f s", (System.nanoTime() - start) / 1e9));
+
+        // Refit the winner on every row, reusing the fold statistics and the shared index
+        DatasetStatistics all = new DatasetStatistics();
+        for (DatasetStatistics statistics : foldStatistics) {
+            all.merge(statistics);
+        }
+        ModelTrainer trainer = new ModelTrainer(pool);
+        trainer.setHyperparameters(results.get(0).getHyperparameters());
+        trainer.setVerbose(false);
+        DiabetesPredictor best = trainer.trainModel(new PatientDatasetView(dataset, index, 0, n), all);
+
+        return new Report(Collections.unmodifiableList(results), best, folds);
+    }
+
+    /**
+     * Deal each class's shuffled rows round-robin into the folds, then lay the folds out
+     * contiguously; the permutation is stored twice so training sets never wrap around
+     */
+    private int[] stratifiedIndex(PatientDataset dataset, int[] foldStart) {
+        int n = dataset.size();
+        int[] byClass = new int[n];
+        int positives = 0;
+        for (int row = 0; row < n; row++) {
+            if (dataset.getOutcome(row) == 1) {
+                byClass[positives++] = row;
+            }
+        }
+        int negatives = positives;
+        for (int row = 0; row < n; row++) {
+            if (dataset.getOutcome(row) != 1) {
+                byClass[negatives++] = row;
+            }
+        }
+        Random random = new Random(seed);
+        shuffle(byClass, 0, positives, random);
+        shuffle(byClass, positives, n, random);
+
+        // Position p of the class-ordered sequence goes to fold p % folds
+        for (int p = 0; p < n; p++) {
+            foldStart[p % folds + 1]++;
+        }
+        for (int f = 0; f < folds; f++) {
+            foldStart[f + 1] += foldStart[f];
+        }
+        int[] index = new int[2 * n];
+        int[] next = foldStart.clone();
+        for (int p = 0; p < n; p++) {
+            index[next[p % folds]++] = byClass[p];
+        }
+        System.arraycopy(index, 0, index, n, n);
+        return index;
+    }
+
+    private static void shuffle(int[] values, int from, int to, Random random) {
+        for (int i = to - from; i > 1; i--) {
+            int j = from + random.nextInt(i);
+            int tmp = values[from + i - 1];
+            values[from + i - 1] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static PatientDatasetView validationView(PatientDataset dataset, int[] index, int[] foldStart, int fold) {
+        return new PatientDatasetView(dataset, index, foldStart[fold], foldStart[fold + 1] - foldStart[fold]);
+    }
+
+    private static PatientDatasetView trainingView(PatientDataset dataset, int[] index, int[] foldStart, int fold) {
+        int n = dataset.size();
+        int validationSize = foldStart[fold + 1] - foldStart[fold];
+        return new PatientDatasetView(dataset, index, foldStart[fold + 1], n - validationSize);
+    }
+
+    private FoldScore trainFold(PatientDataset dataset, int[] index, int[] foldStart,
+                                DatasetStatistics[] foldStatistics, int fold, Hyperparameters candidate) {
+        DatasetStatistics training = new DatasetStatistics();
+        for (int f = 0; f < folds; f++) {
+            if (f != fold) {
+                training.merge(foldStatistics[f]);
+            }
+        }
+        ModelTrainer trainer = new ModelTrainer();
+        trainer.setHyperparameters(candidate);
+        trainer.setVerbose(false);
+        long start = System.nanoTime();
+        DiabetesPredictor predictor = trainer.trainModel(trainingView(dataset, index, foldStart, fold), training);
+        long trainingNanos = System.nanoTime() - start;
+
+        PatientDatasetView validation = validationView(dataset, index, foldStart, fold);
+        double logLoss = 0.0;
+        int correct = 0;
+        for (int i = 0; i < validation.size(); i++) {
+            int row = validation.rowAt(i);
+            double p = predictor.predictProbability(dataset, row);
+            int y = dataset.getOutcome(row);
+            logLoss -= y == 1 ? Math.log(Math.max(p, 1e-15)) : Math.log(Math.max(1 - p, 1e-15));
+            if ((p >= 0.5) == (y == 1)) {
+                correct++;
+            }
+        }
+        return new FoldScore(logLoss / validation.size(), (double) correct / validation.size(),
+                trainer.getLastPassCount(), trainingNanos);
+    }
+
+    private static final class FoldScore {
+        final double logLoss;
+        final double accuracy;
+        final int passes;
+        final long trainingNanos;
+
+        FoldScore(double logLoss, double accuracy, int passes, long trainingNanos) {
+            this.logLoss = logLoss;
+            this.accuracy = accuracy;
+            this.passes = passes;
+            this.trainingNanos = trainingNanos;
+        }
+    }
+
+    /**
+     * Cross-validated scores of one hyperparameter candidate
+     */
+    public static class CandidateResult {
+        private final Hyperparameters hyperparameters;
+        private final double[] foldLogLoss;
+        private final double meanLogLoss;
+        private final double logLossStd;
+        private final double meanAccuracy;
+        private final double meanPasses;
+        private final long trainingNanos;
+
+        CandidateResult(Hyperparameters hyperparameters, FoldScore[] scores) {
+            this.hyperparameters = hyperparameters;
+            this.foldLogLoss = new double[scores.length];
+            double lossSum = 0, accuracySum = 0, passSum = 0;
+            long nanos = 0;
+            for (int f = 0; f < scores.length; f++) {
+                foldLogLoss[f] = scores[f].logLoss;
+                lossSum += scores[f].logLoss;
+                accuracySum += scores[f].accuracy;
+                passSum += scores[f].passes;
+                nanos += scores[f].trainingNanos;
+            }
+            this.meanLogLoss = lossSum / scores.length;
+            double squares = 0;
+            for (double loss : foldLogLoss) {
+                squares += (loss - meanLogLoss) * (loss - meanLogLoss);
+            }
+            this.logLossStd = Math.sqrt(squares / scores.length);
+            this.meanAccuracy = accuracySum / scores.length;
+            this.meanPasses = passSum / scores.length;
+            this.trainingNanos = nanos;
+        }
+
+        public Hyperparameters getHyperparameters() { return hyperparameters; }
+        public double getMeanLogLoss() { return meanLogLoss; }
+        public double getLogLossStd() { return logLossStd; }
+        public double getMeanAccuracy() { return meanAccuracy; }
+        public double getMeanPasses() { return meanPasses; }
+        public double[] getFoldLogLoss() { return foldLogLoss.clone(); }
+
+        /**
+         * Training time summed over the folds (CPU time spent, not wall-clock time)
+         */
+        public long getTrainingNanos() { return trainingNanos; }
+    }
+
+    /**
+     * Candidates ranked best first, and the best candidate refit on the whole dataset
+     */
+    public static class Report {
+        private final List<CandidateResult> results;
+        private final DiabetesPredictor bestPredictor;
+        private final int folds;
+
+        Report(List<CandidateResult> results, DiabetesPredictor bestPredictor, int folds) {
+            this.results = results;
+            this.bestPredictor = bestPredictor;
+            this.folds = folds;
+        }
+
+        public List<CandidateResult> getResults() { return results; }
+        public CandidateResult getBest() { return results.get(0); }
+        public DiabetesPredictor getBestPredictor() { return bestPredictor; }
+        public int getFolds() { return folds; }
+
+        public void print() {
+            System.out.println("\n=== " + folds + "-FOLD CROSS-VALIDATION ===");
+            System.out.printf("%-5s %-12s %-10s %-10s %-8s %s%n", "Rank", "Log-loss", "Std", "Accuracy", "Passes",
+                    "Hyperparameters");
+            System.out.println("-".repeat(90));
+            for (int i = 0; i < results.size(); i++) {
+                CandidateResult result = results.get(i);
+                System.out.printf("%-5d %-12.6f %-10.6f %-10s %-8.0f %s%n", i + 1, result.getMeanLogLoss(),
+                        result.getLogLossStd(), String.format("%.2f%%", result.getMeanAccuracy() * 100),
+                        result.getMeanPasses(), result.getHyperparameters());
+            }
+            System.out.println("====================================\n");
+        }
+    }
+}
@@ -2,181 +2,605 @@ package com.diabetes.prediction.utils;
 
 import com.diabetes.prediction.model.DiabetesPredictor;
 import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.PatientDatasetView;
+import com.diabetes.prediction.model.TrainingInfo;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.CholeskyDecomposition;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
 
 /**
- * Model training utility using Logistic Regression with Gradient Descent
+ * Model training utility using Logistic Regression.
+ * Fits with fixed-step gradient descent by default; IRLS (Newton) and L-BFGS are available
+ * through setOptimizer and typically converge in tens of passes instead of hundreds.
+ * The learning rate, iteration budget, convergence threshold and L2 penalty come from
+ * setHyperparameters (see ModelSelector for choosing them by cross-validation).
+ * Progress is reported to a TrainingListener after every iteration, and a run can be cancelled or
+ * given a wall-clock budget, in which case it returns the best model found so far.
  */
 public class ModelTrainer {
-    private static final double LEARNING_RATE = 0.01;
-    private static final int MAX_ITERATIONS = 1000;
-    private static final double CONVERGENCE_THRESHOLD = 1e-6;
+    private static final int DEFAULT_BLOCK_SIZE = 8192;
+
+    // Second-order optimizers
+    private static final int MAX_NEWTON_ITERATIONS = 100;
+    private static final double NEWTON_TOLERANCE = 1e-10;
+    private static final double NEWTON_RIDGE = 1e-10;
+    private static final double GRADIENT_TOLERANCE = 1e-8;
+    private static final int LBFGS_HISTORY = 10;
+    private static final int MAX_LINE_SEARCH_STEPS = 30;
+    private static final double ARMIJO_C1 = 1e-4;
+
+    /**
+     * Optimization algorithm used to fit the weights
+     */
+    public enum Optimizer {
+        GRADIENT_DESCENT,
+        IRLS,
+        LBFGS,
+        // Mini-batch SGD over rows streamed from disk: StreamingTrainer only, rejected here
+        STREAMING_SGD
+    }
+
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private static final TrainingListener CONSOLE = TrainingListener.console();
+
+    private Hyperparameters hyperparameters = Hyperparameters.defaults();
+    private boolean verbose = true;
+    private TrainingListener listener;
+    private CancellationToken cancellationToken;
+    private long timeBudgetNanos;
+    private int lastPassCount;
+    private TrainingListener.StopReason lastStopReason;
+
+    /**
+     * Create a trainer that computes each iteration sequentially on the calling thread
+     */
+    public ModelTrainer() {
+        this(null, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create a trainer that splits each iteration's gradient and cost into row blocks on the given pool
+     */
+    public ModelTrainer(ForkJoinPool pool) {
+        this(pool, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Create a parallel trainer with an explicit block size.
+     * Blocks are summed in a fixed order with Kahan compensation, so for a given block size the
+     * learned weights are bit-identical whatever the pool's parallelism.
+     */
+    public ModelTrainer(ForkJoinPool pool, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.pool = pool;
+        this.blockSize = blockSize;
+    }
+
+    public Optimizer getOptimizer() { return hyperparameters.getOptimizer(); }
+    public void setOptimizer(Optimizer optimizer) { this.hyperparameters = hyperparameters.withOptimizer(optimizer); }
+
+    public Hyperparameters getHyperparameters() { return hyperparameters; }
+    public void setHyperparameters(Hyperparameters hyperparameters) { this.hyperparameters = hyperparameters; }
+
+    /**
+     * Whether progress and dataset statistics are printed (on by default; off for concurrent fold training)
+     */
+    public boolean isVerbose() { return verbose; }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    /**
+     * Receives progress after every iteration and the reason each run stopped (null for none)
+     */
+    public void setListener(TrainingListener listener) { this.listener = listener; }
+
+    /**
+     * Checked after every iteration; a cancelled run stops and returns the best model found so far
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) { this.cancellationToken = cancellationToken; }
+
+    /**
+     * Wall-clock limit per training run (null or zero for none). A run that reaches it stops after the
+     * current iteration and returns the best model found so far; the dataset statistics pass is not counted.
+     */
+    public void setTimeBudget(Duration budget) {
+        this.timeBudgetNanos = budget == null ? 0 : budget.toNanos();
+    }
+
+    /**
+     * How the most recent training run ended
+     */
+    public TrainingListener.StopReason getLastStopReason() { return lastStopReason; }
+
+    /**
+     * Number of full passes over the data made by the most recent training run
+     */
+    public int getLastPassCount() { return lastPassCount; }
 
     /**
      * Train logistic regression model on patient data
      */
     public DiabetesPredictor trainModel(List<Patient> patients) {
         // Print dataset statistics
-        DataLoader.printDatasetStatistics(patients);
+        if (verbose) {
+            DataLoader.printDatasetStatistics(patients);
+        }
 
         // Shuffle data
         Collections.shuffle(patients, new Random(42));
 
-        // Calculate feature statistics for normalization
-        double[] featureMeans = calculateFeatureMeans(patients);
-        double[] featureStds = calculateFeatureStds(patients, featureMeans);
+        PatientDataset dataset = PatientDataset.fromPatients(patients);
+        return train(PatientDatasetView.of(dataset), DatasetStatistics.compute(dataset), null);
+    }
 
-        // Initialize weights and bias
-        int numFeatures = 8;
-        double[] weights = new double[numFeatures];
-        double bias = 0.0;
-        Random random = new Random(42);
+    /**
+     * Train logistic regression model on a columnar dataset.
+     * Rows are shuffled in place with the same seed as the List overload, so both produce the same model.
+     */
+    public DiabetesPredictor trainModel(PatientDataset dataset) {
+        // Print dataset statistics
+        if (verbose) {
+            DataLoader.printDatasetStatistics(dataset);
+        }
+
+        // Shuffle data
+        dataset.shuffle(new Random(42));
 
-        // Initialize weights with small random values
-        for (int i = 0; i < numFeatures; i++) {
-            weights[i] = random.nextGaussian() * 0.01;
+        return train(PatientDatasetView.of(dataset), DatasetStatistics.compute(dataset), null);
+    }
+
+    /**
+     * Continue training from an existing model instead of random weights. The model is first
+     * re-expressed against the dataset's normalization statistics, so it starts out making exactly
+     * its old predictions; on data similar to what it was trained on, that is already close to the
+     * optimum and only a few passes are needed.
+     */
+    public DiabetesPredictor trainModel(PatientDataset dataset, DiabetesPredictor initial) {
+        if (verbose) {
+            DataLoader.printDatasetStatistics(dataset);
         }
+        dataset.shuffle(new Random(42));
+        return train(PatientDatasetView.of(dataset), DatasetStatistics.compute(dataset), initial);
+    }
 
-        // Gradient descent training
-        double prevCost = Double.MAX_VALUE;
+    /**
+     * Train on a columnar dataset whose statistics are already known (e.g. from a StatisticsSnapshot),
+     * taking the normalization means and standard deviations from them instead of another pass
+     */
+    public DiabetesPredictor trainModel(PatientDataset dataset, DatasetStatistics statistics) {
+        return trainModel(dataset, statistics, null);
+    }
 
-        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
-            double[] weightGradients = new double[numFeatures];
-            double biasGradient = 0.0;
-            double cost = 0.0;
+    /**
+     * Train with known statistics, warm-starting from an existing model when initial is not null
+     */
+    public DiabetesPredictor trainModel(PatientDataset dataset, DatasetStatistics statistics,
+                                        DiabetesPredictor initial) {
+        if (statistics.getCount() != dataset.size()) {
+            throw new IllegalArgumentException("Statistics cover " + statistics.getCount()
+                    + " rows but the dataset has " + dataset.size());
+        }
+        // Print dataset statistics
+        if (verbose) {
+            DataLoader.printDatasetStatistics(statistics);
+        }
 
-            // Calculate gradients and cost
-            for (Patient patient : patients) {
-                double[] features = normalizeFeatures(patient.getFeatures(), featureMeans, featureStds);
-                double prediction = sigmoid(dotProduct(weights, features) + bias);
-                double error = prediction - patient.getOutcome();
+        // Shuffle data
+        dataset.shuffle(new Random(42));
 
-                // Update gradients
-                for (int i = 0; i < numFeatures; i++) {
-                    weightGradients[i] += error * features[i];
-                }
-                biasGradient += error;
+        return train(PatientDatasetView.of(dataset), statistics, initial);
+    }
 
-                // Calculate cost (log loss)
-                double y = patient.getOutcome();
-                cost += -(y * Math.log(Math.max(prediction, 1e-15)) +
-                        (1 - y) * Math.log(Math.max(1 - prediction, 1e-15)));
-            }
+    /**
+     * Train on a view of a dataset's rows (for example a cross-validation fold) whose statistics are
+     * already known. Neither the view nor the dataset is modified: rows are used in view order.
+     */
+    public DiabetesPredictor trainModel(PatientDatasetView rows, DatasetStatistics statistics) {
+        if (statistics.getCount() != rows.size()) {
+            throw new IllegalArgumentException("Statistics cover " + statistics.getCount()
+                    + " rows but the view has " + rows.size());
+        }
+        return train(rows, statistics, null);
+    }
 
-            // Average gradients
-            int dataSize = patients.size();
+    private DiabetesPredictor train(PatientDatasetView dataset, DatasetStatistics statistics, DiabetesPredictor initial) {
+        // Feature statistics for normalization
+        double[] featureMeans = statistics.getMeans();
+        double[] featureStds = statistics.getStds();
+
+        // Parameters: one weight per feature followed by the bias
+        int numFeatures = PatientDataset.NUM_FEATURES;
+        double[] params = new double[numFeatures + 1];
+        Random random = new Random(42);
+
+        if (initial != null) {
+            // Warm start: the previous model, re-mapped to this data's normalization
+            DiabetesPredictor start = initial.renormalized(featureMeans, featureStds);
+            System.arraycopy(start.getWeights(), 0, params, 0, numFeatures);
+            params[numFeatures] = start.getBias();
+            log("Warm start from model trained on " + initial.getTrainingInfo().getRowCount() + " rows");
+        } else {
+            // Initialize weights with small random values
             for (int i = 0; i < numFeatures; i++) {
-                weightGradients[i] /= dataSize;
+                params[i] = random.nextGaussian() * 0.01;
+            }
+        }
+
+        LogisticObjective objective = new LogisticObjective(dataset, featureMeans, featureStds,
+                hyperparameters.getL2Penalty(), pool, blockSize);
+        Run run = new Run(params.length);
+        switch (hyperparameters.getOptimizer()) {
+            case IRLS:
+                lastPassCount = runIrls(objective, params, run);
+                break;
+            case LBFGS:
+                lastPassCount = runLbfgs(objective, params, run);
+                break;
+            case STREAMING_SGD:
+                throw new IllegalArgumentException("STREAMING_SGD trains from a RowSource; use StreamingTrainer");
+            default:
+                lastPassCount = runGradientDescent(objective, params, run);
+        }
+        run.finish(params);
+        lastStopReason = run.reason;
+
+        TrainingInfo info = new TrainingInfo(dataset.size(), lastPassCount, hyperparameters.getOptimizer().name(),
+                System.currentTimeMillis(), "");
+        return new DiabetesPredictor(Arrays.copyOf(params, numFeatures), params[numFeatures],
+                featureMeans, featureStds, info);
+    }
+
+    /**
+     * Fixed-step batch gradient descent. Returns the number of passes over the data.
+     */
+    private int runGradientDescent(LogisticObjective objective, double[] params, Run run) {
+        double[] gradient = new double[params.length];
+        double prevCost = Double.MAX_VALUE;
+        int passes = 0;
+
+        double learningRate = hyperparameters.getLearningRate();
+        double convergenceThreshold = hyperparameters.getConvergenceThreshold();
+        int maxIterations = hyperparameters.getMaxIterations();
+
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double cost = objective.evaluate(params, gradient);
+            passes++;
+            if (!run.report(iteration + 1, maxIterations, passes, cost, params)) {
+                return passes;
             }
-            biasGradient /= dataSize;
-            cost /= dataSize;
 
             // Update weights and bias
-            for (int i = 0; i < numFeatures; i++) {
-                weights[i] -= LEARNING_RATE * weightGradients[i];
+            for (int i = 0; i < params.length; i++) {
+                params[i] -= learningRate * gradient[i];
             }
-            bias -= LEARNING_RATE * biasGradient;
 
             // Check for convergence
-            if (Math.abs(prevCost - cost) < CONVERGENCE_THRESHOLD) {
-                System.out.println("Converged after " + (iteration + 1) + " iterations");
-                break;
+            if (Math.abs(prevCost - cost) < convergenceThreshold) {
+                run.stop(TrainingListener.StopReason.CONVERGED);
+                return passes;
+            }
+            prevCost = cost;
+        }
+        run.stop(TrainingListener.StopReason.ITERATION_LIMIT);
+        return passes;
+    }
+
+    /**
+     * Newton's method, i.e. iteratively reweighted least squares: each pass computes the gradient
+     * and the Hessian X^T W X, then solves for the full Newton step.
+     * Returns the number of passes over the data.
+     */
+    private int runIrls(LogisticObjective objective, double[] params, Run run) {
+        double[] gradient = new double[params.length];
+        double[] hessian = new double[objective.hessianLength()];
+        double prevCost = Double.MAX_VALUE;
+        int passes = 0;
+
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; iteration++) {
+            double cost = objective.evaluate(params, gradient, hessian);
+            passes++;
+            if (!run.report(iteration + 1, MAX_NEWTON_ITERATIONS, passes, cost, params)) {
+                return passes;
+            }
+
+            // Check for convergence
+            if (Math.abs(prevCost - cost) < NEWTON_TOLERANCE) {
+                run.stop(TrainingListener.StopReason.CONVERGED);
+                return passes;
             }
             prevCost = cost;
 
-            // Print progress every 100 iterations
-            if ((iteration + 1) % 100 == 0) {
-                System.out.println("Iteration " + (iteration + 1) + ", Cost: " + String.format("%.6f", cost));
+            double[] step = solveNewtonStep(hessian, gradient);
+            if (step == null) {
+                // Hessian is singular
+                run.stop(TrainingListener.StopReason.STALLED);
+                return passes;
+            }
+            for (int i = 0; i < params.length; i++) {
+                params[i] -= step[i];
             }
         }
+        run.stop(TrainingListener.StopReason.ITERATION_LIMIT);
+        return passes;
+    }
 
-        return new DiabetesPredictor(weights, bias, featureMeans, featureStds);
+    /**
+     * Solve H * step = gradient for a packed upper-triangular Hessian, or return null if it is singular
+     */
+    private static double[] solveNewtonStep(double[] packedHessian, double[] gradient) {
+        int n = gradient.length;
+        RealMatrix hessian = new Array2DRowRealMatrix(n, n);
+        int k = 0;
+        for (int a = 0; a < n; a++) {
+            for (int b = a; b < n; b++) {
+                hessian.setEntry(a, b, packedHessian[k]);
+                hessian.setEntry(b, a, packedHessian[k]);
+                k++;
+            }
+        }
+        // A tiny ridge keeps nearly separable data from making the system numerically singular
+        for (int a = 0; a < n; a++) {
+            hessian.addToEntry(a, a, NEWTON_RIDGE);
+        }
+
+        RealVector rhs = new ArrayRealVector(gradient, false);
+        try {
+            return new CholeskyDecomposition(hessian).getSolver().solve(rhs).toArray();
+        } catch (MathIllegalArgumentException notPositiveDefinite) {
+            try {
+                return new LUDecomposition(hessian).getSolver().solve(rhs).toArray();
+            } catch (MathIllegalArgumentException singular) {
+                return null;
+            }
+        }
     }
 
     /**
-     * Evaluate model performance
+     * Limited-memory BFGS with an Armijo backtracking line search.
+     * Every objective evaluation, including line-search trials, counts as one pass over the data.
      */
-    public void evaluateModel(DiabetesPredictor predictor, List<Patient> patients) {
-        int truePositives = 0, trueNegatives = 0, falsePositives = 0, falseNegatives = 0;
+    private int runLbfgs(LogisticObjective objective, double[] params, Run run) {
+        int n = params.length;
+        double[][] sHistory = new double[LBFGS_HISTORY][n];
+        double[][] yHistory = new double[LBFGS_HISTORY][n];
+        double[] rhoHistory = new double[LBFGS_HISTORY];
+        double[] alpha = new double[LBFGS_HISTORY];
+        int historySize = 0;
+        int newest = -1;
 
-        for (Patient patient : patients) {
-            boolean actualDiabetes = patient.getOutcome() == 1;
-            boolean predictedDiabetes = predictor.predict(patient);
+        double[] gradient = new double[n];
+        double[] direction = new double[n];
+        double[] candidate = new double[n];
+        double[] candidateGradient = new double[n];
 
-            if (actualDiabetes && predictedDiabetes) truePositives++;
-            else if (!actualDiabetes && !predictedDiabetes) trueNegatives++;
-            else if (!actualDiabetes && predictedDiabetes) falsePositives++;
-            else falseNegatives++;
+        double cost = objective.evaluate(params, gradient);
+        int passes = 1;
+        if (!run.report(0, MAX_NEWTON_ITERATIONS, passes, cost, params)) {
+            return passes;
         }
 
-        double accuracy = (double)(truePositives + trueNegatives) / patients.size();
-        double precision = truePositives > 0 ? (double)truePositives / (truePositives + falsePositives) : 0;
-        double recall = truePositives > 0 ? (double)truePositives / (truePositives + falseNegatives) : 0;
-        double f1Score = (precision + recall) > 0 ? 2 * (precision * recall) / (precision + recall) : 0;
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; iteration++) {
+            if (maxAbs(gradient) < GRADIENT_TOLERANCE) {
+                run.stop(TrainingListener.StopReason.CONVERGED);
+                return passes;
+            }
 
-        System.out.println("=== Model Performance ===");
-        System.out.println("Accuracy: " + String.format("%.2f%%", accuracy * 100));
-        System.out.println("Precision: " + String.format("%.2f%%", precision * 100));
-        System.out.println("Recall: " + String.format("%.2f%%", recall * 100));
-        System.out.println("F1-Score: " + String.format("%.2f%%", f1Score * 100));
-        System.out.println("True Positives: " + truePositives);
-        System.out.println("True Negatives: " + trueNegatives);
-        System.out.println("False Positives: " + falsePositives);
-        System.out.println("False Negatives: " + falseNegatives);
-        System.out.println("========================");
-    }
+            // Two-loop recursion: direction = -H * gradient
+            for (int i = 0; i < n; i++) {
+                direction[i] = -gradient[i];
+            }
+            for (int h = 0; h < historySize; h++) {
+                int slot = Math.floorMod(newest - h, LBFGS_HISTORY);
+                alpha[slot] = rhoHistory[slot] * dot(sHistory[slot], direction);
+                axpy(-alpha[slot], yHistory[slot], direction);
+            }
+            if (historySize > 0) {
+                double gamma = dot(sHistory[newest], yHistory[newest]) / dot(yHistory[newest], yHistory[newest]);
+                for (int i = 0; i < n; i++) {
+                    direction[i] *= gamma;
+                }
+            }
+            for (int h = historySize - 1; h >= 0; h--) {
+                int slot = Math.floorMod(newest - h, LBFGS_HISTORY);
+                double beta = rhoHistory[slot] * dot(yHistory[slot], direction);
+                axpy(alpha[slot] - beta, sHistory[slot], direction);
+            }
+
+            double slope = dot(gradient, direction);
+            if (slope >= 0) {
+                // Not a descent direction: drop the curvature history and use steepest descent
+                historySize = 0;
+                for (int i = 0; i < n; i++) {
+                    direction[i] = -gradient[i];
+                }
+                slope = dot(gradient, direction);
+            }
 
-    private double[] calculateFeatureMeans(List<Patient> patients) {
-        double[] means = new double[8];
-        for (Patient patient : patients) {
-            double[] features = patient.getFeatures();
-            for (int i = 0; i < features.length; i++) {
-                means[i] += features[i];
+            // Backtracking line search on the Armijo condition
+            double step = 1.0;
+            double candidateCost = Double.NaN;
+            boolean accepted = false;
+            for (int trial = 0; trial < MAX_LINE_SEARCH_STEPS; trial++) {
+                for (int i = 0; i < n; i++) {
+                    candidate[i] = params[i] + step * direction[i];
+                }
+                candidateCost = objective.evaluate(candidate, candidateGradient);
+                passes++;
+                if (candidateCost <= cost + ARMIJO_C1 * step * slope) {
+                    accepted = true;
+                    break;
+                }
+                step *= 0.5;
+            }
+            if (!accepted) {
+                run.stop(TrainingListener.StopReason.STALLED);
+                return passes;
+            }
+
+            // Record the curvature pair (s, y) only when it keeps the approximation positive definite
+            int slot = (newest + 1) % LBFGS_HISTORY;
+            double sy = 0.0;
+            for (int i = 0; i < n; i++) {
+                sHistory[slot][i] = candidate[i] - params[i];
+                yHistory[slot][i] = candidateGradient[i] - gradient[i];
+                sy += sHistory[slot][i] * yHistory[slot][i];
+            }
+            if (sy > 1e-12) {
+                rhoHistory[slot] = 1.0 / sy;
+                newest = slot;
+                historySize = Math.min(historySize + 1, LBFGS_HISTORY);
+            }
+
+            double improvement = cost - candidateCost;
+            System.arraycopy(candidate, 0, params, 0, n);
+            System.arraycopy(candidateGradient, 0, gradient, 0, n);
+            cost = candidateCost;
+            if (!run.report(iteration + 1, MAX_NEWTON_ITERATIONS, passes, cost, params)) {
+                return passes;
+            }
+
+            // Check for convergence
+            if (improvement < NEWTON_TOLERANCE) {
+                run.stop(TrainingListener.StopReason.CONVERGED);
+                return passes;
             }
         }
-        for (int i = 0; i < means.length; i++) {
-            means[i] /= patients.size();
-        }
-        return means;
+        run.stop(TrainingListener.StopReason.ITERATION_LIMIT);
+        return passes;
     }
 
-    private double[] calculateFeatureStds(List<Patient> patients, double[] means) {
-        double[] stds = new double[8];
-        for (Patient patient : patients) {
-            double[] features = patient.getFeatures();
-            for (int i = 0; i < features.length; i++) {
-                stds[i] += Math.pow(features[i] - means[i], 2);
+    /**
+     * Per-run bookkeeping: reports each iteration to the listeners, enforces cancellation and the
+     * time budget, and keeps the lowest-cost parameters seen so that a stopped run can return them
+     */
+    private final class Run {
+        private final long startNanos = System.nanoTime();
+        private final double[] bestParams;
+        private double bestCost = Double.POSITIVE_INFINITY;
+        private TrainingProgress last;
+        private TrainingListener.StopReason reason;
+
+        Run(int dimension) {
+            this.bestParams = new double[dimension];
+        }
+
+        /**
+         * Record an evaluated iteration; returns false when the run must stop now
+         */
+        boolean report(int iteration, int maxIterations, int passes, double cost, double[] params) {
+            if (cost < bestCost) {
+                bestCost = cost;
+                System.arraycopy(params, 0, bestParams, 0, params.length);
             }
+            long elapsed = System.nanoTime() - startNanos;
+            last = new TrainingProgress(hyperparameters.getOptimizer(), iteration, maxIterations, passes, cost,
+                    bestCost, elapsed, timeBudgetNanos);
+            if (verbose) {
+                CONSOLE.onIteration(last);
+            }
+            if (listener != null) {
+                listener.onIteration(last);
+            }
+
+            if (cancellationToken != null && cancellationToken.isCancelled()) {
+                reason = TrainingListener.StopReason.CANCELLED;
+                return false;
+            }
+            if (timeBudgetNanos > 0 && elapsed >= timeBudgetNanos) {
+                reason = TrainingListener.StopReason.TIME_BUDGET;
+                return false;
+            }
+            return true;
         }
-        for (int i = 0; i < stds.length; i++) {
-            stds[i] = Math.sqrt(stds[i] / patients.size());
+
+        void stop(TrainingListener.StopReason reason) {
+            this.reason = reason;
         }
-        return stds;
-    }
 
-    private double[] normalizeFeatures(double[] features, double[] means, double[] stds) {
-        double[] normalized = new double[features.length];
-        for (int i = 0; i < features.length; i++) {
-            if (stds[i] != 0) {
-                normalized[i] = (features[i] - means[i]) / stds[i];
-            } else {
-                normalized[i] = 0;
+        /**
+         * Fall back to the best parameters if the run was cut short, and report how it ended
+         */
+        void finish(double[] params) {
+            if ((reason == TrainingListener.StopReason.CANCELLED || reason == TrainingListener.StopReason.TIME_BUDGET)
+                    && bestCost < Double.POSITIVE_INFINITY) {
+                System.arraycopy(bestParams, 0, params, 0, params.length);
+            }
+            if (verbose) {
+                CONSOLE.onFinish(last, reason);
+            }
+            if (listener != null) {
+                listener.onFinish(last, reason);
             }
         }
-        return normalized;
     }
 
-    private double sigmoid(double x) {
-        return 1.0 / (1.0 + Math.exp(-x));
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
     }
 
-    private double dotProduct(double[] weights, double[] features) {
+    private static double dot(double[] a, double[] b) {
         double result = 0.0;
-        for (int i = 0; i < weights.length; i++) {
-            result += weights[i] * features[i];
+        for (int i = 0; i < a.length; i++) {
+            result += a[i] * b[i];
         }
         return result;
     }
+
+    private static void axpy(double scale, double[] x, double[] y) {
+        for (int i = 0; i < y.length; i++) {
+            y[i] += scale * x[i];
+        }
+    }
+
+    private static double maxAbs(double[] values) {
+        double max = 0.0;
+        for (double value : values) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+
+    /**
+     * Evaluate model performance
+     */
+    public void evaluateModel(DiabetesPredictor predictor, List<Patient> patients) {
+        evaluateModel(predictor, PatientDataset.fromPatients(patients));
+    }
+
+    /**
+     * Evaluate model performance on a columnar dataset at the default 0.5 threshold
+     * (see ModelEvaluator for curves and other thresholds)
+     */
+    public void evaluateModel(DiabetesPredictor predictor, PatientDataset dataset) {
+        ModelEvaluator.Evaluation evaluation =
+                new ModelEvaluator(pool != null ? pool : ForkJoinPool.commonPool()).evaluate(predictor, dataset);
+        ModelEvaluator.ThresholdMetrics metrics = evaluation.metricsAt(0.5);
+
+        System.out.println("=== Model Performance ===");
+        System.out.println("Accuracy: " + String.format("%.2f%%", metrics.getAccuracy() * 100));
+        System.out.println("Precision: " + String.format("%.2f%%", metrics.getPrecision() * 100));
+        System.out.println("Recall: " + String.format("%.2f%%", metrics.getRecall() * 100));
+        System.out.println("F1-Score: " + String.format("%.2f%%", metrics.getF1Score() * 100));
+        System.out.println("ROC AUC: " + String.format("%.4f", evaluation.getAuc()));
+        System.out.println("True Positives: " + metrics.getTruePositives());
+        System.out.println("True Negatives: " + metrics.getTrueNegatives());
+        System.out.println("False Positives: " + metrics.getFalsePositives());
+        System.out.println("False Negatives: " + metrics.getFalseNegatives());
+        System.out.println("========================");
+    }
 }
@@ -0,0 +1,106 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.CompactFeatureColumns;
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.FeaturePrecision;
+import com.diabetes.prediction.model.PatientDataset;
+
+/**
+ * How far reduced-precision scoring strays from the double path on a dataset: the observed
+ * probability errors, the number of 0/1 predictions that change, and a guaranteed bound.
+ *
+ * The bound follows from the encoding: each decoded feature is off by at most its recorded maximum
+ * error, so the logit is off by at most the sum of |folded weight| x max error, and since the sigmoid's
+ * slope never exceeds 1/4, the probability by at most a quarter of that (plus double rounding).
+ */
+public class PrecisionReport {
+    private static final int BLOCK_SIZE = 4096;
+    // Covers the difference in double rounding between the two paths' sums
+    private static final double ROUNDING_SLACK = 1e-12;
+
+    private final FeaturePrecision precision;
+    private final CompactFeatureColumns columns;
+    private final long rows;
+    private final double maxError;
+    private final double meanError;
+    private final long changedPredictions;
+    private final double logitErrorBound;
+
+    private PrecisionReport(FeaturePrecision precision, CompactFeatureColumns columns, double maxError,
+                            double meanError, long changedPredictions, double logitErrorBound) {
+        this.precision = precision;
+        this.columns = columns;
+        this.rows = columns.size();
+        this.maxError = maxError;
+        this.meanError = meanError;
+        this.changedPredictions = changedPredictions;
+        this.logitErrorBound = logitErrorBound;
+    }
+
+    /**
+     * Encode the dataset at the given precision and score it both ways
+     */
+    public static PrecisionReport compute(DiabetesPredictor predictor, PatientDataset dataset,
+                                          FeaturePrecision precision) {
+        CompactFeatureColumns columns = CompactFeatureColumns.encode(dataset, predictor, precision);
+        double[] exact = new double[BLOCK_SIZE];
+        double[] reduced = new double[BLOCK_SIZE];
+        double maxError = 0.0;
+        double errorSum = 0.0;
+        long changed = 0;
+        for (int from = 0; from < dataset.size(); from += BLOCK_SIZE) {
+            int to = Math.min(from + BLOCK_SIZE, dataset.size());
+            predictor.predictProbabilities(dataset, from, to, exact);
+            predictor.predictProbabilities(columns, from, to, reduced);
+            for (int r = 0; r < to - from; r++) {
+                double error = Math.abs(exact[r] - reduced[r]);
+                maxError = Math.max(maxError, error);
+                errorSum += error;
+                if ((exact[r] >= 0.5) != (reduced[r] >= 0.5)) {
+                    changed++;
+                }
+            }
+        }
+
+        double[] foldedWeights = predictor.getFoldedWeights();
+        double logitBound = 0.0;
+        for (int i = 0; i < foldedWeights.length; i++) {
+            logitBound += Math.abs(foldedWeights[i]) * columns.getMaxError(i);
+        }
+        return new PrecisionReport(precision, columns, maxError, dataset.isEmpty() ? 0.0 : errorSum / dataset.size(),
+                changed, logitBound);
+    }
+
+    public FeaturePrecision getPrecision() { return precision; }
+    public CompactFeatureColumns getColumns() { return columns; }
+    public long getRows() { return rows; }
+    public double getMaxError() { return maxError; }
+    public double getMeanError() { return meanError; }
+    public long getChangedPredictions() { return changedPredictions; }
+    public double getLogitErrorBound() { return logitErrorBound; }
+
+    /**
+     * Largest possible |probability difference| from the double path for any row of this dataset
+     */
+    public double getErrorBound() {
+        return logitErrorBound / 4 + ROUNDING_SLACK;
+    }
+
+    public void print() {
+        long doubleBytes = rows * columns.getNumFeatures() * Double.BYTES;
+        System.out.println("\n=== REDUCED-PRECISION SCORING: " + precision + " ===");
+        System.out.println("Rows: " + rows + ", feature storage " + columns.getByteSize() + " bytes (double: "
+                + doubleBytes + " bytes, " + String.format("%.0fx", (double) Double.BYTES / precision.getBytesPerValue())
+                + " smaller)");
+        System.out.println("Max probability error: " + String.format("%.3g", maxError)
+                + " (bound " + String.format("%.3g", getErrorBound()) + ")");
+        System.out.println("Mean probability error: " + String.format("%.3g", meanError));
+        System.out.println("Predictions changed at 0.5: " + changedPredictions);
+        System.out.println("Per-feature encoding error:");
+        for (int i = 0; i < columns.getNumFeatures(); i++) {
+            System.out.printf("  %-26s max %-10.3g clipped %d%n", PatientDataset.FEATURE_NAMES[i],
+                    columns.getMaxError(i), columns.getClippedCount(i));
+        }
+        System.out.println("===========================\n");
+    }
+}
@@ -0,0 +1,15 @@
+package com.diabetes.prediction.utils;
+
+import java.io.IOException;
+
+/**
+ * A re-readable sequence of patient rows that can be streamed without holding it in memory
+ */
+public interface RowSource {
+
+    /**
+     * Stream every row, in order, to the sink. May be called repeatedly; each call restarts from the first row.
+     * Returns the number of rows delivered.
+     */
+    long forEachRow(CsvParser.RowSink sink) throws IOException;
+}
@@ -0,0 +1,251 @@
+package com.diabetes.prediction.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent DatasetStatistics for a CSV file that only ever grows by appended rows.
+ *
+ * The snapshot (CSV path + ".stats") records how many bytes of the CSV it has absorbed and a
+ * checksum of the last bytes before that point. When the file has grown and those bytes are
+ * unchanged, only the appended bytes are parsed and merged in, so keeping the statistics current
+ * costs time proportional to the new rows. Any other change (truncation, edits near the end, or a
+ * last line that was extended instead of followed by a new one) rebuilds the snapshot from scratch.
+ *
+ * Layout (big-endian): magic "DPST", format version, absorbed byte count, tail length and CRC32C,
+ * the DatasetStatistics state, then a CRC32 of every preceding byte.
+ */
+public class StatisticsSnapshot {
+    private static final int MAGIC = 0x44505354; // "DPST"
+    private static final short FORMAT_VERSION = 1;
+    private static final String SNAPSHOT_SUFFIX = ".stats";
+    // Bytes before the absorbed position that must be unchanged for an append-only update
+    private static final int TAIL_CHECK_BYTES = 4096;
+
+    private final Path source;
+    private final Path snapshotFile;
+    private DatasetStatistics statistics;
+    private long absorbedBytes;
+    private long tailCrc;
+    private int tailLength;
+    private long lastDeltaRows;
+
+    private StatisticsSnapshot(Path source) {
+        this.source = source;
+        this.snapshotFile = Paths.get(source + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Open the snapshot for a CSV file, bringing it up to date with the file's current contents
+     * (reading only appended rows when possible) and saving it if anything changed
+     */
+    public static StatisticsSnapshot forDataset(String csvPath) throws IOException {
+        StatisticsSnapshot snapshot = new StatisticsSnapshot(Paths.get(csvPath));
+        boolean loaded = false;
+        if (Files.exists(snapshot.snapshotFile)) {
+            try {
+                snapshot.read();
+                loaded = true;
+            } catch (IOException e) {
+                System.err.println("Rebuilding unreadable statistics snapshot " + snapshot.snapshotFile
+                        + ": " + e.getMessage());
+            }
+        }
+        if (!loaded) {
+            snapshot.rebuild();
+        } else {
+            snapshot.update();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Absorb rows appended to the CSV since the last update; rebuilds if the file changed any other way.
+     * Returns the number of rows read.
+     */
+    public long update() throws IOException {
+        long size = Files.size(source);
+        if (size == absorbedBytes && tailMatches()) {
+            lastDeltaRows = 0;
+            return 0;
+        }
+        if (size < absorbedBytes || !tailMatches() || lastLineWasExtended()) {
+            System.out.println("Dataset " + source + " changed in place; recomputing statistics");
+            return rebuild();
+        }
+
+        DatasetStatistics delta = new DatasetStatistics();
+        lastDeltaRows = new CsvStreamReader(source).forEachRowFrom(absorbedBytes, delta);
+        statistics.merge(delta);
+        markAbsorbed(size);
+        write();
+        System.out.println("Statistics updated with " + lastDeltaRows + " appended rows");
+        return lastDeltaRows;
+    }
+
+    /**
+     * Append the data rows of a delta CSV to the dataset file, then absorb just those rows.
+     * Like the loaders, the first line is always taken as the header and skipped, whatever it
+     * starts with (a byte order mark, a quote). Returns the number of rows added to the statistics.
+     */
+    public long appendDelta(Path deltaCsv) throws IOException {
+        byte[] delta = Files.readAllBytes(deltaCsv);
+        int start = CsvParser.skipLine(ByteBuffer.wrap(delta), 0, delta.length);
+        if (start == delta.length) {
+            return update();
+        }
+
+        try (OutputStream out = Files.newOutputStream(source, StandardOpenOption.APPEND)) {
+            // Keep the appended rows on their own lines when the file ends without a line break
+            if (Files.size(source) > 0 && !isLineBreak(byteAt(Files.size(source) - 1))) {
+                out.write('\n');
+            }
+            out.write(delta, start, delta.length - start);
+        }
+        return update();
+    }
+
+    private long rebuild() throws IOException {
+        long size = Files.size(source);
+        statistics = new DatasetStatistics();
+        lastDeltaRows = new CsvStreamReader(source).forEachRow(statistics);
+        markAbsorbed(size);
+        write();
+        return lastDeltaRows;
+    }
+
+    /**
+     * When the absorbed part ended mid-line and the file continues that line, the last row changed
+     */
+    private boolean lastLineWasExtended() throws IOException {
+        return absorbedBytes > 0
+                && !isLineBreak(byteAt(absorbedBytes - 1))
+                && !isLineBreak(byteAt(absorbedBytes));
+    }
+
+    private static boolean isLineBreak(int b) {
+        return b == '\n' || b == '\r';
+    }
+
+    private int byteAt(long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            return channel.read(one, position) == 1 ? one.get(0) : -1;
+        }
+    }
+
+    private void markAbsorbed(long size) throws IOException {
+        absorbedBytes = size;
+        tailLength = (int) Math.min(TAIL_CHECK_BYTES, size);
+        tailCrc = tailChecksum(size - tailLength, tailLength);
+    }
+
+    private boolean tailMatches() throws IOException {
+        if (Files.size(source) < absorbedBytes) {
+            return false;
+        }
+        return tailChecksum(absorbedBytes - tailLength, tailLength) == tailCrc;
+    }
+
+    private long tailChecksum(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                // keep reading until the tail is complete
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        return crc.getValue();
+    }
+
+    private void write() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeLong(absorbedBytes);
+        out.writeInt(tailLength);
+        out.writeLong(tailCrc);
+        statistics.writeTo(out);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        // Write next to the target and move into place so readers never see a partial file
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void read() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        if (bytes.length < 8 + 4 + 2) {
+            throw new IOException("Statistics snapshot is truncated: " + snapshotFile);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        long storedCrc = 0;
+        for (int i = bytes.length - 8; i < bytes.length; i++) {
+            storedCrc = (storedCrc << 8) | (bytes[i] & 0xFF);
+        }
+        if (storedCrc != crc.getValue()) {
+            throw new IOException("Statistics snapshot checksum mismatch: " + snapshotFile);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a statistics snapshot: " + snapshotFile);
+        }
+        short version = in.readShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported statistics snapshot version " + version + ": " + snapshotFile);
+        }
+        absorbedBytes = in.readLong();
+        tailLength = in.readInt();
+        tailCrc = in.readLong();
+        if (absorbedBytes < 0 || tailLength < 0 || tailLength > Math.min(TAIL_CHECK_BYTES, absorbedBytes)) {
+            throw new IOException("Statistics snapshot header is inconsistent: " + snapshotFile);
+        }
+        statistics = DatasetStatistics.readFrom(in);
+    }
+
+    /**
+     * Statistics of every row absorbed so far (a copy; later updates do not change it)
+     */
+    public DatasetStatistics getStatistics() { return statistics.copy(); }
+
+    public Path getSource() { return source; }
+    public long getAbsorbedBytes() { return absorbedBytes; }
+
+    /**
+     * Rows read by the most recent update: only the appended rows, or every row after a rebuild
+     */
+    public long getLastDeltaRows() { return lastDeltaRows; }
+}
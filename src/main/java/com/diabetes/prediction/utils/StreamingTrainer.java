@@ -0,0 +1,359 @@
+package com.diabetes.prediction.utils;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.model.TrainingInfo;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Out-of-core logistic regression training with mini-batch SGD.
+ * The data is streamed from a RowSource: one pass computes the normalization statistics,
+ * then each epoch streams the rows again in mini-batches. Memory use is bounded by the batch
+ * size, the shuffle buffer and the reader's buffer, not by the dataset size.
+ *
+ * Rows reach the mini-batches through a seeded shuffle buffer, so files sorted by outcome or date
+ * still give mixed batches: a file that fits in the buffer is fully reshuffled every epoch, and a
+ * larger one is mixed across a window of that many rows.
+ *
+ * Like ModelTrainer, each epoch is reported to a TrainingListener (as a STREAMING_SGD iteration), and a
+ * run can be cancelled or given a wall-clock budget, checked after every epoch; a run stopped that
+ * way returns the weights from the end of the epoch with the lowest cost.
+ */
+public class StreamingTrainer {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int DEFAULT_MAX_EPOCHS = 20;
+    private static final double DEFAULT_LEARNING_RATE = 0.1;
+    private static final double DEFAULT_DECAY = 0.1;
+    private static final double CONVERGENCE_THRESHOLD = 1e-6;
+    // 64K rows of 8 normalized features: 4 MB
+    private static final int DEFAULT_SHUFFLE_BUFFER_ROWS = 1 << 16;
+    private static final long DEFAULT_SEED = 42;
+
+    private final int batchSize;
+    private final int maxEpochs;
+    private final LearningRateSchedule schedule;
+    private final int shuffleBufferRows;
+    private final long seed;
+    private static final TrainingListener CONSOLE = TrainingListener.console();
+
+    private boolean verbose = true;
+    private TrainingListener listener;
+    private CancellationToken cancellationToken;
+    private long timeBudgetNanos;
+    private int lastPassCount;
+    private TrainingListener.StopReason lastStopReason;
+
+    public StreamingTrainer() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_MAX_EPOCHS,
+                LearningRateSchedule.inverseTime(DEFAULT_LEARNING_RATE, DEFAULT_DECAY));
+    }
+
+    public StreamingTrainer(int batchSize, int maxEpochs, LearningRateSchedule schedule) {
+        this(batchSize, maxEpochs, schedule, DEFAULT_SHUFFLE_BUFFER_ROWS, DEFAULT_SEED);
+    }
+
+    /**
+     * Trainer shuffling through a buffer of up to shuffleBufferRows rows (0 keeps source order),
+     * drawing the initial weights and the shuffle from one Random with the given seed so runs
+     * are reproducible
+     */
+    public StreamingTrainer(int batchSize, int maxEpochs, LearningRateSchedule schedule, int shuffleBufferRows,
+                            long seed) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (maxEpochs <= 0) {
+            throw new IllegalArgumentException("Epoch count must be positive: " + maxEpochs);
+        }
+        if (shuffleBufferRows < 0) {
+            throw new IllegalArgumentException("Shuffle buffer size must not be negative: " + shuffleBufferRows);
+        }
+        this.batchSize = batchSize;
+        this.maxEpochs = maxEpochs;
+        this.schedule = schedule;
+        this.shuffleBufferRows = shuffleBufferRows;
+        this.seed = seed;
+    }
+
+    /**
+     * Whether progress is printed (on by default)
+     */
+    public boolean isVerbose() { return verbose; }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    /**
+     * Receives progress after every epoch and the reason each run stopped (null for none)
+     */
+    public void setListener(TrainingListener listener) { this.listener = listener; }
+
+    /**
+     * Checked after every epoch; a cancelled run stops and returns the best model found so far
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) { this.cancellationToken = cancellationToken; }
+
+    /**
+     * Wall-clock limit per training run (null or zero for none). A run that reaches it stops after the
+     * current epoch and returns the best model found so far; the statistics pass is not counted.
+     */
+    public void setTimeBudget(Duration budget) {
+        this.timeBudgetNanos = budget == null ? 0 : budget.toNanos();
+    }
+
+    /**
+     * How the most recent training run ended
+     */
+    public TrainingListener.StopReason getLastStopReason() { return lastStopReason; }
+
+    /**
+     * Number of full passes over the data made by the most recent training run, statistics pass included
+     */
+    public int getLastPassCount() { return lastPassCount; }
+
+    /**
+     * Train by streaming a file from disk: a binary dataset file (".bin", see BinaryDatasetFile)
+     * is read through memory mappings, anything else is parsed as CSV
+     */
+    public DiabetesPredictor trainModel(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(".bin")) {
+            return trainModel(BinaryDatasetFile.open(file));
+        }
+        return trainModel(new CsvStreamReader(file));
+    }
+
+    /**
+     * Train by streaming rows from the given source
+     */
+    public DiabetesPredictor trainModel(RowSource source) throws IOException {
+        int numFeatures = PatientDataset.NUM_FEATURES;
+
+        // First pass: normalization statistics
+        DatasetStatistics statistics = new DatasetStatistics();
+        long rows = source.forEachRow(statistics);
+        if (rows == 0) {
+            throw new IllegalArgumentException("No rows to train on");
+        }
+        double[] featureMeans = statistics.getMeans();
+        double[] featureStds = statistics.getStds();
+        if (verbose) {
+            System.out.println("Streaming " + rows + " rows, " + statistics.getPositiveCount() + " with diabetes");
+        }
+
+        // Initialize weights with small random values; the same generator then drives the shuffle
+        double[] weights = new double[numFeatures];
+        Random random = new Random(seed);
+        for (int i = 0; i < numFeatures; i++) {
+            weights[i] = random.nextGaussian() * 0.01;
+        }
+
+        // No bigger than the data: a file that fits is shuffled whole
+        int bufferRows = (int) Math.min(shuffleBufferRows, rows);
+        MiniBatchSgd sgd = new MiniBatchSgd(weights, featureMeans, featureStds, bufferRows, random);
+        double prevCost = Double.MAX_VALUE;
+        int passes = 1;
+
+        // Best-so-far bookkeeping, as in ModelTrainer's runs
+        long startNanos = System.nanoTime();
+        double[] bestWeights = weights.clone();
+        double bestBias = 0.0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        TrainingProgress last = null;
+        TrainingListener.StopReason reason = TrainingListener.StopReason.ITERATION_LIMIT;
+
+        for (int epoch = 0; epoch < maxEpochs; epoch++) {
+            passes++;
+            sgd.startEpoch(epoch);
+            source.forEachRow(sgd);
+            sgd.flush();
+
+            double cost = sgd.epochCost / sgd.epochRows;
+            if (cost < bestCost) {
+                bestCost = cost;
+                System.arraycopy(weights, 0, bestWeights, 0, weights.length);
+                bestBias = sgd.bias;
+            }
+            long elapsed = System.nanoTime() - startNanos;
+            last = new TrainingProgress(ModelTrainer.Optimizer.STREAMING_SGD, epoch + 1, maxEpochs, passes, cost,
+                    bestCost, elapsed, timeBudgetNanos);
+            if (verbose) {
+                CONSOLE.onIteration(last);
+            }
+            if (listener != null) {
+                listener.onIteration(last);
+            }
+
+            if (cancellationToken != null && cancellationToken.isCancelled()) {
+                reason = TrainingListener.StopReason.CANCELLED;
+                break;
+            }
+            if (timeBudgetNanos > 0 && elapsed >= timeBudgetNanos) {
+                reason = TrainingListener.StopReason.TIME_BUDGET;
+                break;
+            }
+            // Check for convergence
+            if (Math.abs(prevCost - cost) < CONVERGENCE_THRESHOLD) {
+                reason = TrainingListener.StopReason.CONVERGED;
+                break;
+            }
+            prevCost = cost;
+        }
+
+        double bias = sgd.bias;
+        if (reason == TrainingListener.StopReason.CANCELLED || reason == TrainingListener.StopReason.TIME_BUDGET) {
+            System.arraycopy(bestWeights, 0, weights, 0, weights.length);
+            bias = bestBias;
+        }
+        if (verbose) {
+            CONSOLE.onFinish(last, reason);
+        }
+        if (listener != null) {
+            listener.onFinish(last, reason);
+        }
+        lastPassCount = passes;
+        lastStopReason = reason;
+
+        TrainingInfo info = new TrainingInfo(rows, passes, ModelTrainer.Optimizer.STREAMING_SGD.name(),
+                System.currentTimeMillis(), "");
+        return new DiabetesPredictor(weights, bias, featureMeans, featureStds, info);
+    }
+
+    /**
+     * Normalizes rows into a shuffle buffer, moves a random buffered row into the mini-batch for each
+     * row that arrives once the buffer is full, and applies one SGD update per full batch
+     */
+    private class MiniBatchSgd implements CsvParser.RowSink {
+        private final double[] weights;
+        private final double[] means;
+        private final double[] stds;
+        private final double[][] batch;
+        private final double[] labels;
+        private final double[] gradients;
+        private final double[][] shuffleRows;
+        private final double[] shuffleLabels;
+        private final Random random;
+        private double bias;
+        private int batchRows;
+        private int buffered;
+        private int epoch;
+        private long step;
+        private double epochCost;
+        private long epochRows;
+
+        MiniBatchSgd(double[] weights, double[] means, double[] stds, int bufferRows, Random random) {
+            this.weights = weights;
+            this.means = means;
+            this.stds = stds;
+            this.batch = new double[batchSize][weights.length];
+            this.labels = new double[batchSize];
+            this.gradients = new double[weights.length];
+            this.shuffleRows = new double[bufferRows][weights.length];
+            this.shuffleLabels = new double[bufferRows];
+            this.random = random;
+        }
+
+        void startEpoch(int epoch) {
+            this.epoch = epoch;
+            epochCost = 0.0;
+            epochRows = 0;
+        }
+
+        @Override
+        public void accept(double[] features, int outcome) {
+            double[] row;
+            if (shuffleRows.length == 0) {
+                row = batch[batchRows];
+                labels[batchRows] = outcome;
+                normalize(features, row);
+                addedToBatch();
+                return;
+            }
+            if (buffered < shuffleRows.length) {
+                row = shuffleRows[buffered];
+                shuffleLabels[buffered++] = outcome;
+            } else {
+                // Full: a random buffered row goes to the batch and the new row takes its slot
+                int slot = random.nextInt(shuffleRows.length);
+                moveToBatch(slot);
+                row = shuffleRows[slot];
+                shuffleLabels[slot] = outcome;
+            }
+            normalize(features, row);
+        }
+
+        private void normalize(double[] features, double[] row) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = stds[i] != 0 ? (features[i] - means[i]) / stds[i] : 0;
+            }
+        }
+
+        private void moveToBatch(int slot) {
+            System.arraycopy(shuffleRows[slot], 0, batch[batchRows], 0, weights.length);
+            labels[batchRows] = shuffleLabels[slot];
+            addedToBatch();
+        }
+
+        private void addedToBatch() {
+            if (++batchRows == batchSize) {
+                update();
+            }
+        }
+
+        /**
+         * End of the epoch: drain the shuffle buffer in random order, then update with the final partial batch
+         */
+        void flush() {
+            while (buffered > 0) {
+                int slot = random.nextInt(buffered);
+                moveToBatch(slot);
+                // Keep the rows still waiting in [0, buffered)
+                buffered--;
+                double[] last = shuffleRows[buffered];
+                shuffleRows[buffered] = shuffleRows[slot];
+                shuffleRows[slot] = last;
+                shuffleLabels[slot] = shuffleLabels[buffered];
+            }
+            update();
+        }
+
+        /**
+         * Apply the update for the rows collected so far (a full batch, or the epoch's final partial batch)
+         */
+        private void update() {
+            if (batchRows == 0) {
+                return;
+            }
+            Arrays.fill(gradients, 0.0);
+            double biasGradient = 0.0;
+
+            for (int r = 0; r < batchRows; r++) {
+                double[] row = batch[r];
+                double logit = bias;
+                for (int i = 0; i < row.length; i++) {
+                    logit += weights[i] * row[i];
+                }
+                double prediction = 1.0 / (1.0 + Math.exp(-logit));
+                double y = labels[r];
+                double error = prediction - y;
+
+                for (int i = 0; i < row.length; i++) {
+                    gradients[i] += error * row[i];
+                }
+                biasGradient += error;
+                epochCost += -(y * Math.log(Math.max(prediction, 1e-15)) +
+                        (1 - y) * Math.log(Math.max(1 - prediction, 1e-15)));
+            }
+
+            double rate = schedule.rate(epoch, step++) / batchRows;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] -= rate * gradients[i];
+            }
+            bias -= rate * biasGradient;
+
+            epochRows += batchRows;
+            batchRows = 0;
+        }
+    }
+}
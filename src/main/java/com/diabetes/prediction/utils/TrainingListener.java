@@ -0,0 +1,55 @@
+package com.diabetes.prediction.utils;
+
+/**
+ * Observer of a ModelTrainer run. Callbacks arrive on the training thread, so implementations
+ * should be quick and hand work to other threads (e.g. Platform.runLater) themselves.
+ */
+public interface TrainingListener {
+
+    /**
+     * Why a training run stopped
+     */
+    enum StopReason {
+        CONVERGED,
+        ITERATION_LIMIT,
+        // The optimizer could not make further progress (singular Hessian, failed line search)
+        STALLED,
+        CANCELLED,
+        TIME_BUDGET
+    }
+
+    /**
+     * Called after each iteration's objective evaluation
+     */
+    void onIteration(TrainingProgress progress);
+
+    /**
+     * Called once when the run stops, with its last progress snapshot
+     */
+    default void onFinish(TrainingProgress progress, StopReason reason) {
+    }
+
+    /**
+     * Prints the cost every 100 iterations for gradient descent, and every iteration for the
+     * second-order optimizers, then how the run ended
+     */
+    static TrainingListener console() {
+        return new TrainingListener() {
+            @Override
+            public void onIteration(TrainingProgress progress) {
+                if (progress.getOptimizer() != ModelTrainer.Optimizer.GRADIENT_DESCENT
+                        || progress.getIteration() % 100 == 0) {
+                    System.out.println(progress.getOptimizer() + " iteration " + progress.getIteration()
+                            + ", Cost: " + String.format("%.6f", progress.getCost()));
+                }
+            }
+
+            @Override
+            public void onFinish(TrainingProgress progress, StopReason reason) {
+                System.out.println(String.format("%s finished after %d passes in %.2f s (%s)",
+                        progress.getOptimizer(), progress.getPasses(), progress.getElapsedNanos() / 1e9,
+                        reason.name().toLowerCase().replace('_', ' ')));
+            }
+        };
+    }
+}
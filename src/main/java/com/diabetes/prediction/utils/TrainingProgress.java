@@ -0,0 +1,65 @@
+package com.diabetes.prediction.utils;
+
+/**
+ * Snapshot of a training run after one iteration, as reported to a TrainingListener
+ */
+public class TrainingProgress {
+    private final ModelTrainer.Optimizer optimizer;
+    private final int iteration;
+    private final int maxIterations;
+    private final int passes;
+    private final double cost;
+    private final double bestCost;
+    private final long elapsedNanos;
+    private final long budgetNanos;
+
+    TrainingProgress(ModelTrainer.Optimizer optimizer, int iteration, int maxIterations, int passes, double cost,
+                     double bestCost, long elapsedNanos, long budgetNanos) {
+        this.optimizer = optimizer;
+        this.iteration = iteration;
+        this.maxIterations = maxIterations;
+        this.passes = passes;
+        this.cost = cost;
+        this.bestCost = bestCost;
+        this.elapsedNanos = elapsedNanos;
+        this.budgetNanos = budgetNanos;
+    }
+
+    public ModelTrainer.Optimizer getOptimizer() { return optimizer; }
+
+    /**
+     * One-based number of the iteration just completed
+     */
+    public int getIteration() { return iteration; }
+    public int getMaxIterations() { return maxIterations; }
+
+    /**
+     * Passes over the data so far (line-search trials count too)
+     */
+    public int getPasses() { return passes; }
+
+    /**
+     * Training objective at this iteration, and the lowest seen so far (the model returned if stopped now)
+     */
+    public double getCost() { return cost; }
+    public double getBestCost() { return bestCost; }
+
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Wall-clock budget of the run, or 0 when it has none
+     */
+    public long getBudgetNanos() { return budgetNanos; }
+
+    /**
+     * Completed fraction in [0, 1] for progress bars: iterations used or budget spent, whichever is further along.
+     * Runs that converge early jump to the end when they finish.
+     */
+    public double getFraction() {
+        double fraction = (double) iteration / maxIterations;
+        if (budgetNanos > 0) {
+            fraction = Math.max(fraction, (double) elapsedNanos / budgetNanos);
+        }
+        return Math.min(1.0, fraction);
+    }
+}
@@ -0,0 +1,60 @@
+package com.diabetes.prediction.model;
+
+/**
+ * Arithmetic kernels over feature columns shared by batch scoring and training.
+ *
+ * This is the Java 17 version, loaded from the multi-release JAR. When the JVM was started with
+ * --add-modules jdk.incubator.vector and has SIMD registers to use, the kernels process a full
+ * vector of rows per instruction; otherwise they run the same scalar loops as the Java 11 version.
+ * Lane-wise operations are applied in the same order as the scalar loops, so results are bit-identical.
+ */
+public final class ColumnKernels {
+    private static final boolean VECTORIZED = vectorApiAvailable();
+
+    private ColumnKernels() {
+    }
+
+    private static boolean vectorApiAvailable() {
+        // Incubator modules are not resolved by default; touching the vector classes without it would fail
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorizedKernels.isUseful();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether the kernels run on SIMD vectors
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * out[r] = initial + weights[0] * columns[0][offset + r] + ... for r in [0, length), with the terms
+     * added in column order. Only the first columns.length weights are used.
+     */
+    public static void linear(double[][] columns, int offset, int length, double[] weights, double initial,
+                              double[] out) {
+        ScalarKernels.checkLinear(columns, weights, out, length);
+        if (VECTORIZED) {
+            VectorizedKernels.linear(columns, offset, length, weights, initial, out);
+        } else {
+            ScalarKernels.linear(columns, offset, length, weights, initial, out, 0);
+        }
+    }
+
+    /**
+     * Replace column[0, length) with its z-scores, (x - mean) / std, or zeros when std is 0
+     */
+    public static void standardize(double[] column, int length, double mean, double std) {
+        if (VECTORIZED && std != 0) {
+            VectorizedKernels.standardize(column, length, mean, std);
+        } else {
+            ScalarKernels.standardize(column, 0, length, mean, std);
+        }
+    }
+}
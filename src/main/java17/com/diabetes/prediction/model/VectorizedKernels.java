@@ -0,0 +1,55 @@
+package com.diabetes.prediction.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * jdk.incubator.vector implementations of the ColumnKernels operations, one lane per row.
+ * Only loaded once ColumnKernels has checked that the incubator module is present. Each lane sees
+ * the same sequence of IEEE operations as the scalar loop (separate multiply and add, never fused),
+ * and rows left over after the last full vector go through ScalarKernels.
+ */
+final class VectorizedKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorizedKernels() {
+    }
+
+    /**
+     * Whether the preferred shape holds more than one double; a single lane would only add overhead
+     */
+    static boolean isUseful() {
+        return SPECIES.length() > 1;
+    }
+
+    static void linear(double[][] columns, int offset, int length, double[] weights, double initial,
+                       double[] out) {
+        int lanes = SPECIES.length();
+        int bound = SPECIES.loopBound(length);
+        DoubleVector start = DoubleVector.broadcast(SPECIES, initial);
+        int r = 0;
+        for (; r < bound; r += lanes) {
+            // All columns for one vector of rows, keeping the running sums in a register
+            DoubleVector sum = start;
+            for (int i = 0; i < columns.length; i++) {
+                sum = sum.add(DoubleVector.fromArray(SPECIES, columns[i], offset + r).mul(weights[i]));
+            }
+            sum.intoArray(out, r);
+        }
+        if (r < length) {
+            ScalarKernels.linear(columns, offset + r, length - r, weights, initial, out, r);
+        }
+    }
+
+    static void standardize(double[] column, int length, double mean, double std) {
+        int lanes = SPECIES.length();
+        int bound = SPECIES.loopBound(length);
+        int r = 0;
+        for (; r < bound; r += lanes) {
+            DoubleVector.fromArray(SPECIES, column, r).sub(mean).div(std).intoArray(column, r);
+        }
+        if (r < length) {
+            ScalarKernels.standardize(column, r, length - r, mean, std);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.BatchScorer;
+import com.diabetes.prediction.utils.DataLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the headless batch scoring pipeline
+ */
+public class BatchScorerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testScoresEveryRowInInputOrder() throws IOException {
+        DiabetesPredictor predictor = TestModels.sample();
+        PatientDataset dataset = DataLoader.loadColumnar("data/diabetes.csv");
+        Path output = tempDir.resolve("scores.csv");
+
+        // Small batches and several workers so batches complete out of order
+        long rows = new BatchScorer(predictor, 4, 7).score(Paths.get("data/diabetes.csv"), output);
+        assertEquals(dataset.size(), rows);
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(dataset.size() + 1, lines.size());
+        assertTrue(lines.get(0).endsWith("Probability,Prediction"));
+
+        for (int row = 0; row < dataset.size(); row++) {
+            String[] fields = lines.get(row + 1).split(",");
+            assertEquals(10, fields.length);
+            for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+                assertEquals(dataset.get(row, f), Double.parseDouble(fields[f]), 0.0);
+            }
+            double expected = predictor.predictProbability(dataset, row);
+            assertEquals(expected, Double.parseDouble(fields[8]), 1e-6);
+            assertEquals(predictor.predict(dataset, row) ? "1" : "0", fields[9]);
+        }
+    }
+
+    @Test
+    void testMissingInputFails() {
+        BatchScorer scorer = new BatchScorer(TestModels.sample(), 2, 16);
+        assertThrows(IOException.class,
+                () -> scorer.score(tempDir.resolve("missing.csv"), tempDir.resolve("out.csv")));
+    }
+}
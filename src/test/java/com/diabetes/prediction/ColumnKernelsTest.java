@@ -0,0 +1,122 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.ColumnKernels;
+import com.diabetes.prediction.model.DiabetesPredictor;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the column kernels: every implementation must match the plain loops bit for bit
+ */
+public class ColumnKernelsTest {
+
+    private static final int NUM_FEATURES = 8;
+    private static final int ROWS = 1000;
+
+    private final double[][] columns = new double[NUM_FEATURES][ROWS];
+    private final double[] weights = new double[NUM_FEATURES];
+
+    ColumnKernelsTest() {
+        Random random = new Random(3);
+        for (int i = 0; i < NUM_FEATURES; i++) {
+            weights[i] = random.nextGaussian();
+            for (int r = 0; r < ROWS; r++) {
+                columns[i][r] = random.nextGaussian() * 50 + 100;
+            }
+        }
+    }
+
+    private double expectedLinear(int row, double initial) {
+        double sum = initial;
+        for (int i = 0; i < NUM_FEATURES; i++) {
+            sum += weights[i] * columns[i][row];
+        }
+        return sum;
+    }
+
+    @Test
+    void testKernelsMatchPlainLoops() {
+        // Lengths around vector widths exercise both the vector body and the scalar tail
+        for (int length : new int[]{0, 1, 3, 4, 7, 8, 9, 17, 255, 256, 999}) {
+            double[] out = new double[length];
+            ColumnKernels.linear(columns, 1, length, weights, 0.25, out);
+            for (int r = 0; r < length; r++) {
+                assertEquals(expectedLinear(1 + r, 0.25), out[r], 0.0);
+            }
+
+            double[] column = Arrays.copyOf(columns[2], length);
+            ColumnKernels.standardize(column, length, 100.0, 7.5);
+            for (int r = 0; r < length; r++) {
+                assertEquals((columns[2][r] - 100.0) / 7.5, column[r], 0.0);
+            }
+            ColumnKernels.standardize(column, length, 100.0, 0.0);
+            for (int r = 0; r < length; r++) {
+                assertEquals(0.0, column[r]);
+            }
+        }
+    }
+
+    @Test
+    void testBatchScoringMatchesSingleRows() {
+        DiabetesPredictor predictor = new DiabetesPredictor(weights, -0.85, new double[NUM_FEATURES],
+                new double[]{1, 1, 1, 1, 1, 1, 1, 1});
+        double[] out = new double[ROWS];
+        predictor.predictProbabilities(columns, 0, ROWS, out);
+        double[] features = new double[NUM_FEATURES];
+        for (int r = 0; r < ROWS; r++) {
+            for (int i = 0; i < NUM_FEATURES; i++) {
+                features[i] = columns[i][r];
+            }
+            assertEquals(predictor.predictProbability(features), out[r], 0.0);
+        }
+    }
+
+    /**
+     * The Java 17 classes only replace the base ones inside the multi-release JAR, so load them
+     * from the versioned output directory ahead of the base classes
+     */
+    @Test
+    void testVectorizedKernelsMatchPlainLoops() throws Exception {
+        Path classes = Paths.get(ColumnKernels.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path versioned = classes.resolve("META-INF/versions/17");
+        assumeTrue(Files.isDirectory(versioned), "Built without the Java 17 classes");
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "jdk.incubator.vector not added to this JVM");
+
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[]{versioned.toUri().toURL(), classes.toUri().toURL()}, ClassLoader.getPlatformClassLoader())) {
+            Class<?> kernels = loader.loadClass(ColumnKernels.class.getName());
+            assertNotSame(ColumnKernels.class, kernels);
+            assertTrue((Boolean) kernels.getMethod("isVectorized").invoke(null));
+
+            Method linear = kernels.getMethod("linear", double[][].class, int.class, int.class, double[].class,
+                    double.class, double[].class);
+            Method standardize = kernels.getMethod("standardize", double[].class, int.class, double.class,
+                    double.class);
+            for (int length : new int[]{1, 3, 8, 9, 17, 256, 999}) {
+                double[] out = new double[length];
+                linear.invoke(null, columns, 1, length, weights, 0.25, out);
+                for (int r = 0; r < length; r++) {
+                    assertEquals(expectedLinear(1 + r, 0.25), out[r], 0.0);
+                }
+
+                double[] column = Arrays.copyOf(columns[2], length);
+                standardize.invoke(null, column, length, 100.0, 7.5);
+                for (int r = 0; r < length; r++) {
+                    assertEquals((columns[2][r] - 100.0) / 7.5, column[r], 0.0);
+                }
+            }
+        }
+    }
+}
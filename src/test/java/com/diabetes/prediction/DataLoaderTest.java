@@ -0,0 +1,133 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.BinaryDatasetFile;
+import com.diabetes.prediction.utils.CsvStreamReader;
+import com.diabetes.prediction.utils.DataLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dataset loaders
+ */
+public class DataLoaderTest {
+
+    private static final String DATASET_PATH = "data/diabetes.csv";
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameRows(List<Patient> expected, PatientDataset actual) {
+        assertEquals(expected.size(), actual.size(), "Row count");
+        for (int row = 0; row < expected.size(); row++) {
+            assertArrayEquals(expected.get(row).getFeatures(), actual.getPatient(row).getFeatures(), 0.0,
+                    "Features of row " + row);
+            assertEquals(expected.get(row).getOutcome(), actual.getOutcome(row), "Outcome of row " + row);
+        }
+    }
+
+    private Path writeCsv(String content) throws IOException {
+        Path file = tempDir.resolve("patients.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void testMappedLoaderMatchesTextLoaderOnDataset() throws IOException {
+        List<Patient> expected = DataLoader.loadDataset(DATASET_PATH);
+        assertSameRows(expected, DataLoader.loadMapped(DATASET_PATH));
+    }
+
+    @Test
+    void testMappedLoaderKeepsInvalidRowSemantics() throws IOException {
+        Path file = writeCsv("Pregnancies,Glucose,BloodPressure,SkinThickness,Insulin,BMI,DPF,Age,Outcome\r\n"
+                + "6,148,72,35,0,33.6,0.627,50,1\r\n"
+                + "\r\n"
+                + "1,85,66,29,0,26.6,0.351,31\n"
+                + " 2 , 1.2e2 ,+70,.5,7.,-0.0,0.12345678901234567890,33 ,0\n"
+                + "x,85,66,29,0,26.6,0.351,31,0\n"
+                + "1,85,66,29,0,26.6,0.351,31.5,0\n"
+                + "1,85,66,29,0,26.6,0.351,31,0,extra\n"
+                + "3,NaN,1e400,29,0,26.6,0.351,31,1\r"
+                + "4,90,66,29,0,26.6,0.351,44,0");
+
+        List<Patient> expected = DataLoader.loadDataset(file.toString());
+        PatientDataset actual = DataLoader.loadMapped(file.toString());
+
+        assertEquals(5, expected.size());
+        assertSameRows(expected, actual);
+    }
+
+    @Test
+    void testParallelLoaderPreservesRowOrder() throws IOException {
+        List<Patient> expected = DataLoader.loadDataset(DATASET_PATH);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            // Tiny chunks force many newline-aligned splits across the file
+            assertSameRows(expected, DataLoader.loadParallel(DATASET_PATH, pool, 97));
+            assertSameRows(expected, DataLoader.loadParallel(DATASET_PATH, pool, 0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testStreamReaderWithSmallBufferMatchesTextLoader() throws IOException {
+        List<Patient> expected = DataLoader.loadDataset(DATASET_PATH);
+        PatientDataset.Builder builder = new PatientDataset.Builder();
+
+        // A buffer shorter than the header forces buffer growth and many partial lines
+        long rows = new CsvStreamReader(Paths.get(DATASET_PATH), 16).forEachRow(builder::add);
+
+        assertEquals(expected.size(), rows);
+        assertSameRows(expected, builder.build());
+    }
+
+    @Test
+    void testBinaryCacheIsBuiltReusedAndRebuilt() throws IOException {
+        Path csv = tempDir.resolve("diabetes.csv");
+        Files.copy(Paths.get(DATASET_PATH), csv);
+        List<Patient> expected = DataLoader.loadDataset(csv.toString());
+
+        assertSameRows(expected, DataLoader.loadCached(csv.toString()));
+        Path cache = tempDir.resolve("diabetes.csv.bin");
+        assertTrue(Files.exists(cache));
+
+        BinaryDatasetFile binary = BinaryDatasetFile.open(cache);
+        assertEquals(expected.size(), binary.getRowCount());
+        assertEquals(expected.stream().filter(p -> p.getOutcome() == 1).count(), binary.getPositiveCount());
+        assertEquals(199.0, binary.getMax(1), 0.0);
+        assertSameRows(expected, DataLoader.loadCached(csv.toString()));
+
+        // Streaming straight from the mapped columns yields the same rows
+        PatientDataset.Builder streamed = new PatientDataset.Builder();
+        assertEquals(expected.size(), binary.forEachRow(streamed::add));
+        assertSameRows(expected, streamed.build());
+
+        // Changing the source invalidates the cache
+        Files.write(csv, "\n1,85,66,29,0,26.6,0.351,31,0\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertEquals(expected.size() + 1, DataLoader.loadCached(csv.toString()).size());
+        assertEquals(expected.size() + 1, BinaryDatasetFile.open(cache).getRowCount());
+    }
+
+    @Test
+    void testHeaderOnlyFile() throws IOException {
+        Path file = writeCsv("Pregnancies,Glucose,BloodPressure,SkinThickness,Insulin,BMI,DPF,Age,Outcome");
+        assertEquals(0, DataLoader.loadMapped(file.toString()).size());
+        assertEquals(0, DataLoader.loadParallel(file.toString()).size());
+    }
+}
@@ -0,0 +1,154 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.DatasetStatistics;
+import com.diabetes.prediction.utils.StatisticsSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the single-pass dataset statistics
+ */
+public class DatasetStatisticsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesTwoPassStatistics() throws IOException {
+        PatientDataset dataset = DataLoader.loadColumnar("data/diabetes.csv");
+        DatasetStatistics statistics = DatasetStatistics.compute(dataset);
+        int n = dataset.size();
+        byte[] outcomes = dataset.getOutcomes();
+
+        int positives = 0;
+        for (byte outcome : outcomes) positives += outcome == 1 ? 1 : 0;
+        assertEquals(n, statistics.getCount());
+        assertEquals(positives, statistics.getPositiveCount());
+
+        double outcomeMean = (double) positives / n;
+        for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+            double[] column = dataset.getColumn(f);
+            double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            double positiveSum = 0;
+            for (int row = 0; row < n; row++) {
+                sum += column[row];
+                min = Math.min(min, column[row]);
+                max = Math.max(max, column[row]);
+                if (outcomes[row] == 1) positiveSum += column[row];
+            }
+            double mean = sum / n;
+            double squares = 0, cross = 0;
+            for (int row = 0; row < n; row++) {
+                squares += (column[row] - mean) * (column[row] - mean);
+                cross += (column[row] - mean) * (outcomes[row] - outcomeMean);
+            }
+            double correlation = cross / Math.sqrt(squares * n * outcomeMean * (1 - outcomeMean));
+
+            assertEquals(mean, statistics.getMean(f), 1e-9 * Math.max(1, Math.abs(mean)));
+            assertEquals(Math.sqrt(squares / n), statistics.getStd(f), 1e-9 * Math.max(1, Math.sqrt(squares / n)));
+            assertEquals(min, statistics.getMin(f), 0.0);
+            assertEquals(max, statistics.getMax(f), 0.0);
+            assertEquals(positiveSum / positives, statistics.getClassMean(f, 1), 1e-9 * Math.max(1, Math.abs(mean)));
+            assertEquals(correlation, statistics.getCorrelationWithOutcome(f), 1e-12);
+        }
+    }
+
+    @Test
+    void testMergedPartsEqualWholeAndThreadCountDoesNotMatter() {
+        PatientDataset dataset = randomDataset(300_000, 1e9);
+
+        DatasetStatistics whole = new DatasetStatistics();
+        whole.addRange(dataset, 0, dataset.size());
+        DatasetStatistics merged = new DatasetStatistics();
+        merged.addRange(dataset, 0, 1000);
+        DatasetStatistics rest = new DatasetStatistics();
+        rest.addRange(dataset, 1000, dataset.size());
+        merged.merge(rest);
+
+        DatasetStatistics onePool = DatasetStatistics.compute(dataset, new ForkJoinPool(1));
+        DatasetStatistics fourPools = DatasetStatistics.compute(dataset, new ForkJoinPool(4));
+        for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+            assertEquals(whole.getMean(f), merged.getMean(f), 1e-12 * Math.abs(whole.getMean(f)));
+            assertEquals(whole.getVariance(f), merged.getVariance(f), 1e-6 * whole.getVariance(f));
+            assertEquals(onePool.getMean(f), fourPools.getMean(f), 0.0);
+            assertEquals(onePool.getVariance(f), fourPools.getVariance(f), 0.0);
+            // Values are offset by 1e9 with unit spread: a sum-of-squares formula would lose the variance
+            assertEquals(1.0, onePool.getVariance(f), 0.05);
+        }
+    }
+
+    @Test
+    void testSnapshotAbsorbsOnlyAppendedRows() throws IOException {
+        Path dataset = tempDir.resolve("diabetes.csv");
+        Files.copy(Paths.get("data/diabetes.csv"), dataset);
+
+        StatisticsSnapshot snapshot = StatisticsSnapshot.forDataset(dataset.toString());
+        assertEquals(768, snapshot.getLastDeltaRows());
+        assertEquals(0, StatisticsSnapshot.forDataset(dataset.toString()).getLastDeltaRows());
+
+        Path delta = tempDir.resolve("delta.csv");
+        Files.write(delta, ("Pregnancies,Glucose,BloodPressure,SkinThickness,Insulin,BMI,DiabetesPedigreeFunction,Age,Outcome\n"
+                + "2,197,70,45,543,30.5,0.158,53,1\n"
+                + "0,99,60,20,0,24.1,0.2,22,0\n").getBytes());
+        assertEquals(2, snapshot.appendDelta(delta));
+
+        DatasetStatistics incremental = StatisticsSnapshot.forDataset(dataset.toString()).getStatistics();
+        DatasetStatistics full = DatasetStatistics.compute(DataLoader.loadColumnar(dataset.toString()));
+        assertEquals(770, incremental.getCount());
+        assertEquals(full.getPositiveCount(), incremental.getPositiveCount());
+        for (int f = 0; f < PatientDataset.NUM_FEATURES; f++) {
+            assertEquals(full.getMean(f), incremental.getMean(f), 1e-9);
+            assertEquals(full.getVariance(f), incremental.getVariance(f), 1e-9 * full.getVariance(f));
+            assertEquals(full.getCorrelationWithOutcome(f), incremental.getCorrelationWithOutcome(f), 1e-12);
+        }
+
+        // An edit that is not an append forces a full recompute
+        String text = new String(Files.readAllBytes(dataset));
+        Files.write(dataset, text.replace("0,99,60,20,0,24.1,0.2,22,0", "0,98,60,20,0,24.1,0.2,22,0").getBytes());
+        assertEquals(770, StatisticsSnapshot.forDataset(dataset.toString()).getLastDeltaRows());
+    }
+
+    @Test
+    void testAppendedDeltaAlwaysDropsItsHeader() throws IOException {
+        Path dataset = tempDir.resolve("diabetes.csv");
+        Files.copy(Paths.get("data/diabetes.csv"), dataset);
+        StatisticsSnapshot snapshot = StatisticsSnapshot.forDataset(dataset.toString());
+
+        // Headers starting with a byte order mark or a quote are still headers, not data rows
+        Path delta = tempDir.resolve("delta.csv");
+        Files.write(delta, ("\uFEFF\"Pregnancies\",\"Glucose\",\"BloodPressure\",\"SkinThickness\",\"Insulin\",\"BMI\","
+                + "\"DiabetesPedigreeFunction\",\"Age\",\"Outcome\"\r\n"
+                + "2,197,70,45,543,30.5,0.158,53,1\r\n").getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, snapshot.appendDelta(delta));
+
+        String text = new String(Files.readAllBytes(dataset), StandardCharsets.UTF_8);
+        assertFalse(text.contains("Glucose\""), "Delta header must not be appended");
+        assertEquals(769, DataLoader.loadColumnar(dataset.toString()).size());
+        assertEquals(769, snapshot.getStatistics().getCount());
+    }
+
+    private static PatientDataset randomDataset(int rows, double offset) {
+        Random random = new Random(3);
+        PatientDataset.Builder builder = new PatientDataset.Builder(rows);
+        double[] features = new double[PatientDataset.NUM_FEATURES];
+        for (int r = 0; r < rows; r++) {
+            for (int f = 0; f < features.length; f++) {
+                features[f] = offset + random.nextGaussian();
+            }
+            builder.add(features, random.nextInt(2));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.CsvStreamReader;
+import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.ModelEvaluator;
+import com.diabetes.prediction.utils.ModelTrainer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the curve-based model evaluator
+ */
+public class ModelEvaluatorTest {
+
+    private static final String DATASET_PATH = "data/diabetes.csv";
+
+    private static PatientDataset dataset;
+    private static DiabetesPredictor predictor;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        ModelTrainer trainer = new ModelTrainer();
+        trainer.setOptimizer(ModelTrainer.Optimizer.IRLS);
+        trainer.setVerbose(false);
+        predictor = trainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+        dataset = DataLoader.loadMapped(DATASET_PATH);
+    }
+
+    @Test
+    void testExactCurvesMatchBruteForce() {
+        ModelEvaluator.Evaluation evaluation = new ModelEvaluator().evaluate(predictor, dataset);
+
+        // AUC is the probability that a random positive outscores a random negative, ties counting half
+        double wins = 0;
+        long pairs = 0;
+        for (int a = 0; a < dataset.size(); a++) {
+            if (dataset.getOutcome(a) != 1) continue;
+            double positive = predictor.predictProbability(dataset, a);
+            for (int b = 0; b < dataset.size(); b++) {
+                if (dataset.getOutcome(b) == 1) continue;
+                double negative = predictor.predictProbability(dataset, b);
+                wins += positive > negative ? 1 : positive == negative ? 0.5 : 0;
+                pairs++;
+            }
+        }
+        assertEquals(wins / pairs, evaluation.getAuc(), 1e-12);
+
+        for (double threshold : new double[]{0.2, 0.5, 0.8}) {
+            long tp = 0, fp = 0;
+            for (int row = 0; row < dataset.size(); row++) {
+                if (predictor.predictProbability(dataset, row) >= threshold) {
+                    if (dataset.getOutcome(row) == 1) tp++; else fp++;
+                }
+            }
+            ModelEvaluator.ThresholdMetrics metrics = evaluation.metricsAt(threshold);
+            assertEquals(tp, metrics.getTruePositives(), "TP at " + threshold);
+            assertEquals(fp, metrics.getFalsePositives(), "FP at " + threshold);
+            assertEquals(dataset.size(), metrics.getTruePositives() + metrics.getFalsePositives()
+                    + metrics.getTrueNegatives() + metrics.getFalseNegatives());
+        }
+
+        ModelEvaluator.ThresholdMetrics screening = evaluation.thresholdForRecall(0.9);
+        assertTrue(screening.getRecall() >= 0.9);
+        assertTrue(evaluation.bestF1().getF1Score() >= evaluation.metricsAt(0.5).getF1Score());
+        assertTrue(evaluation.getAveragePrecision() > 0.5 && evaluation.getAveragePrecision() < 1);
+    }
+
+    @Test
+    void testHistogramModeApproximatesExactMode() throws IOException {
+        ModelEvaluator evaluator = new ModelEvaluator();
+        ModelEvaluator.Evaluation exact = evaluator.evaluate(predictor, dataset);
+        ModelEvaluator.Evaluation inMemory = evaluator.evaluateHistogram(predictor, dataset, 10_000);
+        ModelEvaluator.Evaluation streamed = evaluator.evaluateHistogram(predictor,
+                new CsvStreamReader(Paths.get(DATASET_PATH)), 10_000);
+
+        assertFalse(inMemory.isExact());
+        assertEquals(exact.getAuc(), inMemory.getAuc(), 1e-3);
+        assertEquals(exact.getLogLoss(), inMemory.getLogLoss(), 1e-12);
+        // Bin edges are exact thresholds, so counts there agree with exact mode
+        assertEquals(exact.metricsAt(0.5).getTruePositives(), inMemory.metricsAt(0.5).getTruePositives());
+        assertEquals(exact.metricsAt(0.5).getFalsePositives(), inMemory.metricsAt(0.5).getFalsePositives());
+
+        assertEquals(inMemory.getAuc(), streamed.getAuc(), 0.0);
+        assertArrayEquals(inMemory.getThresholds(), streamed.getThresholds(), 0.0);
+    }
+}
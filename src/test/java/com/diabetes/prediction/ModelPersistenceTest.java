@@ -0,0 +1,75 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.utils.ModelLoader;
+import com.diabetes.prediction.utils.ModelTrainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for saving and loading trained models
+ */
+public class ModelPersistenceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws IOException {
+        DiabetesPredictor model = TestModels.sample(TestModels.DEFAULT_BIAS, 1700000000000L);
+        Path file = tempDir.resolve("model.bin");
+        model.save(file);
+
+        DiabetesPredictor loaded = DiabetesPredictor.load(file);
+        assertArrayEquals(model.getWeights(), loaded.getWeights(), 0.0);
+        assertEquals(model.getBias(), loaded.getBias(), 0.0);
+        assertArrayEquals(model.getFeatureMeans(), loaded.getFeatureMeans(), 0.0);
+        assertArrayEquals(model.getFeatureStds(), loaded.getFeatureStds(), 0.0);
+        assertEquals(768, loaded.getTrainingInfo().getRowCount());
+        assertEquals("GRADIENT_DESCENT", loaded.getTrainingInfo().getOptimizer());
+        assertEquals("300-abc", loaded.getTrainingInfo().getDatasetFingerprint());
+    }
+
+    @Test
+    void testCorruptFileIsRejected() throws IOException {
+        Path file = tempDir.resolve("model.bin");
+        TestModels.sample(TestModels.DEFAULT_BIAS, 1700000000000L).save(file);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 0x01;
+        Files.write(file, bytes);
+
+        IOException error = assertThrows(IOException.class, () -> DiabetesPredictor.load(file));
+        assertTrue(error.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testLoadOrTrainReusesModelUntilDatasetChanges() throws IOException {
+        Path dataset = tempDir.resolve("diabetes.csv");
+        Files.copy(Paths.get("data/diabetes.csv"), dataset);
+        String modelPath = tempDir.resolve("diabetes.model").toString();
+
+        DiabetesPredictor trained = ModelLoader.loadOrTrain(dataset.toString(), modelPath, false);
+        DiabetesPredictor reused = ModelLoader.loadOrTrain(dataset.toString(), modelPath, false);
+        assertEquals(trained.getTrainingInfo().getTrainedAtMillis(), reused.getTrainingInfo().getTrainedAtMillis());
+        assertArrayEquals(trained.getWeights(), reused.getWeights(), 0.0);
+
+        Files.write(dataset, "\n1,85,66,29,0,26.6,0.351,31,0\n".getBytes(), StandardOpenOption.APPEND);
+        ModelTrainer trainer = new ModelTrainer();
+        DiabetesPredictor retrained = ModelLoader.loadOrTrain(dataset.toString(), modelPath, false, trainer);
+        assertEquals(trained.getTrainingInfo().getRowCount() + 1, retrained.getTrainingInfo().getRowCount());
+        // The warm refresh ran with IRLS, but the trainer keeps its own optimizer for later runs
+        assertEquals(ModelTrainer.Optimizer.IRLS.name(), retrained.getTrainingInfo().getOptimizer());
+        assertEquals(ModelTrainer.Optimizer.GRADIENT_DESCENT, trainer.getOptimizer());
+        assertNotEquals(trained.getTrainingInfo().getDatasetFingerprint(),
+                retrained.getTrainingInfo().getDatasetFingerprint());
+    }
+}
@@ -0,0 +1,119 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.ModelRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for publishing, rolling back and hot-reloading model versions
+ */
+public class ModelRegistryTest {
+
+    private static final double[] FEATURES = {6, 148, 72, 35, 0, 33.6, 0.627, 50};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPublishAndRollback() {
+        DiabetesPredictor first = TestModels.sample(TestModels.DEFAULT_BIAS, 1L);
+        DiabetesPredictor second = TestModels.sample(0.5, 2L);
+        ModelRegistry registry = new ModelRegistry(first);
+        AtomicInteger notifications = new AtomicInteger();
+        registry.addListener(version -> notifications.incrementAndGet());
+
+        ModelRegistry.ModelVersion published = registry.publish(second);
+        assertEquals(2, published.getNumber());
+        assertSame(second, registry.getPredictor());
+        // Scribbling on returned arrays changes neither the served model nor the same-model check
+        registry.getPredictor().getWeights()[0] = 9.0;
+        assertSame(published, registry.publishIfChanged(TestModels.sample(0.5, 2L), null), "Same model must not be republished");
+
+        ModelRegistry.ModelVersion restored = registry.rollback();
+        assertEquals(1, restored.getNumber());
+        assertSame(first, registry.getPredictor());
+        assertTrue(registry.getHistory().isEmpty());
+        assertThrows(IllegalStateException.class, registry::rollback);
+        assertEquals(2, notifications.get());
+    }
+
+    @Test
+    void testSwapsDoNotDisturbScoringInFlight() throws InterruptedException {
+        DiabetesPredictor a = TestModels.sample(TestModels.DEFAULT_BIAS, 1L);
+        DiabetesPredictor b = TestModels.sample(0.5, 2L);
+        double expectedA = a.predictProbability(FEATURES);
+        double expectedB = b.predictProbability(FEATURES);
+        ModelRegistry registry = new ModelRegistry(1);
+        registry.publish(a);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread[] scorers = new Thread[4];
+        for (int t = 0; t < scorers.length; t++) {
+            scorers[t] = new Thread(() -> {
+                while (running.get()) {
+                    // One read per request: whichever version it gets, it scores consistently with it
+                    DiabetesPredictor predictor = registry.getPredictor();
+                    double expected = predictor == a ? expectedA : expectedB;
+                    if (predictor.predictProbability(FEATURES) != expected) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+            scorers[t].start();
+        }
+        for (int i = 0; i < 10_000; i++) {
+            registry.publish(i % 2 == 0 ? b : a);
+        }
+        running.set(false);
+        for (Thread scorer : scorers) {
+            scorer.join();
+        }
+        assertEquals(0, mismatches.get());
+        assertEquals(1, registry.getHistory().size());
+    }
+
+    @Test
+    void testWatchedDirectoryPublishesNewModels() throws Exception {
+        TestModels.sample(TestModels.DEFAULT_BIAS, 1L).save(tempDir.resolve("nightly-1.model"));
+        try (ModelRegistry registry = new ModelRegistry()) {
+            registry.watch(tempDir);
+            assertEquals(1, registry.publishLatest(tempDir).getNumber());
+
+            // Neither a corrupt model nor an unrelated file replaces the one being served
+            Files.write(tempDir.resolve("broken.model"), new byte[]{1, 2, 3});
+            Files.write(tempDir.resolve("notes.txt"), new byte[]{1, 2, 3});
+            DiabetesPredictor nightly = TestModels.sample(0.5, 2L);
+            nightly.save(tempDir.resolve("nightly-2.model"));
+
+            ModelRegistry.ModelVersion version = awaitVersion(registry, 2);
+            assertEquals(tempDir.resolve("nightly-2.model"), version.getSource());
+            assertEquals(nightly.predictProbability(FEATURES), registry.getPredictor().predictProbability(FEATURES));
+
+            assertEquals(1, registry.rollback().getNumber());
+        }
+    }
+
+    private static ModelRegistry.ModelVersion awaitVersion(ModelRegistry registry, long number)
+            throws InterruptedException, IOException {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            ModelRegistry.ModelVersion version = registry.getCurrent();
+            if (version.getNumber() >= number) {
+                return version;
+            }
+            Thread.sleep(20);
+        }
+        fail("Model version " + number + " was not published");
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.HyperparameterSpace;
+import com.diabetes.prediction.utils.Hyperparameters;
+import com.diabetes.prediction.utils.ModelSelector;
+import com.diabetes.prediction.utils.ModelTrainer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for cross-validated hyperparameter selection
+ */
+public class ModelSelectorTest {
+
+    private static final String DATASET_PATH = "data/diabetes.csv";
+
+    private static List<Hyperparameters> candidates() {
+        return new HyperparameterSpace()
+                .optimizers(ModelTrainer.Optimizer.GRADIENT_DESCENT, ModelTrainer.Optimizer.IRLS)
+                .learningRates(0.001, 0.1)
+                .maxIterations(200)
+                .l2Penalties(0.0, 1.0)
+                .grid();
+    }
+
+    @Test
+    void testGridExpandsOnlyRelevantSettings() {
+        List<Hyperparameters> grid = candidates();
+        // 2 learning rates x 2 penalties for gradient descent, one per penalty for IRLS
+        assertEquals(6, grid.size());
+        assertEquals(6, new HashSet<>(grid).size());
+
+        List<Hyperparameters> sample = new HyperparameterSpace()
+                .learningRates(0.001, 0.01, 0.1, 1.0)
+                .l2Penalties(0.0, 0.1, 1.0)
+                .sample(5, 7);
+        assertEquals(5, sample.size());
+        assertEquals(5, new HashSet<>(sample).size());
+    }
+
+    @Test
+    void testSelectionRanksCandidatesAndLeavesDatasetUntouched() throws IOException {
+        PatientDataset dataset = DataLoader.loadMapped(DATASET_PATH);
+        double[] firstColumn = dataset.getColumn(1).clone();
+
+        ModelSelector.Report report = new ModelSelector().select(dataset, candidates());
+
+        assertArrayEquals(firstColumn, dataset.getColumn(1), 0.0, "Folds must be views, not a reshuffle");
+        List<ModelSelector.CandidateResult> results = report.getResults();
+        assertEquals(6, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getMeanLogLoss() <= results.get(i).getMeanLogLoss());
+        }
+        // A tiny step for 200 iterations underfits, and so does a heavy penalty
+        ModelSelector.CandidateResult best = report.getBest();
+        assertEquals(0.0, best.getHyperparameters().getL2Penalty());
+        assertNotEquals(0.001, best.getHyperparameters().getLearningRate());
+        assertTrue(best.getMeanAccuracy() > 0.74, "Cross-validated accuracy " + best.getMeanAccuracy());
+        assertEquals(dataset.size(), report.getBestPredictor().getTrainingInfo().getRowCount());
+    }
+
+    @Test
+    void testResultsDoNotDependOnPoolSize() throws IOException {
+        PatientDataset dataset = DataLoader.loadMapped(DATASET_PATH);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            ModelSelector.Report a = new ModelSelector(4, single).select(dataset, candidates());
+            ModelSelector.Report b = new ModelSelector(4, parallel).select(dataset, candidates());
+            for (int i = 0; i < a.getResults().size(); i++) {
+                assertArrayEquals(a.getResults().get(i).getFoldLogLoss(), b.getResults().get(i).getFoldLogLoss(), 0.0);
+            }
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+}
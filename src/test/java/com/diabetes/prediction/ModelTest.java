@@ -2,6 +2,7 @@ package com.diabetes.prediction;
 
 import com.diabetes.prediction.model.DiabetesPredictor;
 import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
 import com.diabetes.prediction.utils.DataLoader;
 import com.diabetes.prediction.utils.ModelTrainer;
 import org.junit.jupiter.api.BeforeEach;
@@ -80,4 +81,62 @@ public class ModelTest {
         assertTrue(probability >= 0.0 && probability <= 1.0,
                 "Low risk patient should have valid probability");
     }
+
+    @Test
+    void testFoldedScoringMatchesNormalizedFormula() {
+        double[] weights = predictor.getWeights();
+        double[] means = predictor.getFeatureMeans();
+        double[] stds = predictor.getFeatureStds();
+
+        for (Patient patient : testPatients) {
+            double[] features = patient.getFeatures();
+            double logit = predictor.getBias();
+            for (int i = 0; i < weights.length; i++) {
+                if (stds[i] != 0) {
+                    logit += weights[i] * (features[i] - means[i]) / stds[i];
+                }
+            }
+            double expected = 1.0 / (1.0 + Math.exp(-logit));
+            assertEquals(expected, predictor.predictProbability(patient), 1e-12);
+        }
+    }
+
+    @Test
+    void testPredictorIsUnaffectedByArrayMutation() {
+        double[] weights = TestModels.weights();
+        double[] means = TestModels.means();
+        double[] stds = TestModels.stds();
+        DiabetesPredictor model = new DiabetesPredictor(weights, TestModels.DEFAULT_BIAS, means, stds);
+        Patient patient = testPatients.get(1);
+        double probability = model.predictProbability(patient);
+
+        weights[1] = 50;
+        means[1] = 0;
+        model.getWeights()[1] = 50;
+        model.getFeatureStds()[1] = 1;
+        assertEquals(1.1, model.getWeights()[1]);
+        assertEquals(120.9, model.getFeatureMeans()[1]);
+        assertEquals(31.9, model.getFeatureStds()[1]);
+        assertEquals(probability, model.predictProbability(patient));
+    }
+
+    @Test
+    void testBatchScoringMatchesSingleScoring() {
+        PatientDataset dataset = PatientDataset.fromPatients(testPatients);
+        double[] columnar = new double[dataset.size()];
+        predictor.predictProbabilities(dataset, 0, dataset.size(), columnar);
+
+        double[][] rows = new double[dataset.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = testPatients.get(i).getFeatures();
+        }
+        double[] rowMajor = new double[rows.length];
+        predictor.predictProbabilities(rows, rowMajor);
+
+        for (int i = 0; i < testPatients.size(); i++) {
+            double single = predictor.predictProbability(testPatients.get(i));
+            assertEquals(single, columnar[i], 1e-15);
+            assertEquals(single, rowMajor[i], 1e-15);
+        }
+    }
 }
@@ -0,0 +1,320 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.CancellationToken;
+import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.LearningRateSchedule;
+import com.diabetes.prediction.utils.ModelTrainer;
+import com.diabetes.prediction.utils.StreamingTrainer;
+import com.diabetes.prediction.utils.TrainingListener;
+import com.diabetes.prediction.utils.TrainingProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the training engines on the full Pima dataset
+ */
+public class ModelTrainerTest {
+
+    private static final String DATASET_PATH = "data/diabetes.csv";
+
+    private PatientDataset dataset;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataset = DataLoader.loadMapped(DATASET_PATH);
+    }
+
+    private DiabetesPredictor trainOnPool(int parallelism, int blockSize) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return new ModelTrainer(pool, blockSize).trainModel(DataLoader.loadMapped(DATASET_PATH));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelTrainingIsBitIdenticalAcrossThreadCounts() throws IOException {
+        DiabetesPredictor single = trainOnPool(1, 64);
+        for (int parallelism : new int[]{2, 4, 7}) {
+            DiabetesPredictor parallel = trainOnPool(parallelism, 64);
+            assertArrayEquals(single.getWeights(), parallel.getWeights(), 0.0,
+                    "Weights with parallelism " + parallelism);
+            assertEquals(single.getBias(), parallel.getBias(), 0.0);
+        }
+    }
+
+    @Test
+    void testParallelTrainingMatchesSequentialTraining() throws IOException {
+        DiabetesPredictor sequential = new ModelTrainer().trainModel(dataset);
+        DiabetesPredictor parallel = trainOnPool(4, 64);
+
+        assertArrayEquals(sequential.getWeights(), parallel.getWeights(), 1e-9);
+        assertEquals(sequential.getBias(), parallel.getBias(), 1e-9);
+    }
+
+    private static double accuracy(DiabetesPredictor predictor, PatientDataset data) {
+        int correct = 0;
+        for (int row = 0; row < data.size(); row++) {
+            if (predictor.predict(data, row) == (data.getOutcome(row) == 1)) {
+                correct++;
+            }
+        }
+        return (double) correct / data.size();
+    }
+
+    @Test
+    void testStreamingTrainerLearnsFromDisk() throws IOException {
+        StreamingTrainer trainer = new StreamingTrainer(32, 30, LearningRateSchedule.inverseTime(0.1, 0.1));
+        trainer.setVerbose(false);
+        List<TrainingProgress> reported = new ArrayList<>();
+        trainer.setListener(reported::add);
+        DiabetesPredictor streamed = trainer.trainModel(Paths.get(DATASET_PATH));
+
+        // One report per epoch; the first pass only computes statistics
+        assertEquals(trainer.getLastPassCount() - 1, reported.size());
+        assertEquals(ModelTrainer.Optimizer.STREAMING_SGD, reported.get(0).getOptimizer());
+        assertEquals("STREAMING_SGD", streamed.getTrainingInfo().getOptimizer());
+
+        assertTrue(accuracy(streamed, dataset) > 0.75, "Streaming SGD should fit the training data");
+    }
+
+    private static double logLoss(DiabetesPredictor predictor, PatientDataset data) {
+        double loss = 0.0;
+        for (int row = 0; row < data.size(); row++) {
+            double probability = predictor.predictProbability(data, row);
+            loss -= Math.log(data.getOutcome(row) == 1 ? probability : 1 - probability);
+        }
+        return loss / data.size();
+    }
+
+    @Test
+    void testStreamingTrainerShufflesOutcomeSortedFiles() throws IOException {
+        // An export sorted by outcome: every negative row, then every positive one
+        List<String> lines = Files.readAllLines(Paths.get(DATASET_PATH));
+        List<String> rows = new ArrayList<>(lines.subList(1, lines.size()));
+        rows.sort(Comparator.comparing(line -> line.substring(line.lastIndexOf(',') + 1)));
+        rows.add(0, lines.get(0));
+        Path sorted = tempDir.resolve("sorted.csv");
+        Files.write(sorted, rows);
+
+        LearningRateSchedule schedule = LearningRateSchedule.inverseTime(0.1, 0.1);
+        DiabetesPredictor fromOriginal = quiet(new StreamingTrainer(32, 10, schedule)).trainModel(Paths.get(DATASET_PATH));
+        DiabetesPredictor shuffled = quiet(new StreamingTrainer(32, 10, schedule)).trainModel(sorted);
+        DiabetesPredictor inFileOrder = quiet(new StreamingTrainer(32, 10, schedule, 0, 42)).trainModel(sorted);
+
+        // Shuffled, the sorted file trains like the original; in file order the last class seen biases the model
+        assertEquals(fromOriginal.getBias(), shuffled.getBias(), 0.05);
+        assertTrue(Math.abs(inFileOrder.getBias() - fromOriginal.getBias()) > 0.05);
+        assertTrue(logLoss(shuffled, dataset) < logLoss(inFileOrder, dataset));
+        assertTrue(accuracy(shuffled, dataset) > 0.75);
+
+        // Same seed, same model
+        DiabetesPredictor again = quiet(new StreamingTrainer(32, 10, schedule)).trainModel(sorted);
+        assertArrayEquals(shuffled.getWeights(), again.getWeights(), 0.0);
+
+        // Without a shuffle the seed still picks the initial weights
+        DiabetesPredictor otherSeed = quiet(new StreamingTrainer(32, 10, schedule, 0, 7)).trainModel(sorted);
+        assertFalse(Arrays.equals(inFileOrder.getWeights(), otherSeed.getWeights()));
+    }
+
+    private static StreamingTrainer quiet(StreamingTrainer trainer) {
+        trainer.setVerbose(false);
+        return trainer;
+    }
+
+    @Test
+    void testStreamingTrainerStopsWithBestModelSoFar() throws IOException {
+        // A rate this high oscillates, so the last epoch is not necessarily the best one
+        StreamingTrainer trainer = quiet(new StreamingTrainer(32, 30, LearningRateSchedule.constant(5.0)));
+        CancellationToken token = new CancellationToken();
+        trainer.setCancellationToken(token);
+        List<TrainingProgress> reported = new ArrayList<>();
+        TrainingListener.StopReason[] finished = new TrainingListener.StopReason[1];
+        trainer.setListener(new TrainingListener() {
+            @Override
+            public void onIteration(TrainingProgress progress) {
+                reported.add(progress);
+                if (progress.getIteration() == 4) {
+                    token.cancel();
+                }
+            }
+
+            @Override
+            public void onFinish(TrainingProgress progress, TrainingListener.StopReason reason) {
+                finished[0] = reason;
+            }
+        });
+        DiabetesPredictor stopped = trainer.trainModel(Paths.get(DATASET_PATH));
+
+        assertEquals(TrainingListener.StopReason.CANCELLED, trainer.getLastStopReason());
+        assertEquals(TrainingListener.StopReason.CANCELLED, finished[0]);
+        assertEquals(4, reported.size());
+        assertEquals(5, trainer.getLastPassCount());
+
+        // The returned model is the one from the end of the lowest-cost epoch: replaying with a
+        // budget of exactly that many epochs reproduces it
+        int bestEpoch = 0;
+        for (int i = 1; i < reported.size(); i++) {
+            if (reported.get(i).getCost() < reported.get(bestEpoch).getCost()) {
+                bestEpoch = i;
+            }
+        }
+        assertTrue(bestEpoch < 3, "The last epoch should not be the best one, or the fallback goes untested");
+        assertEquals(reported.get(bestEpoch).getCost(), reported.get(3).getBestCost(), 0.0);
+        DiabetesPredictor replay = quiet(new StreamingTrainer(32, bestEpoch + 1, LearningRateSchedule.constant(5.0)))
+                .trainModel(Paths.get(DATASET_PATH));
+        assertArrayEquals(replay.getWeights(), stopped.getWeights(), 0.0);
+        assertEquals(replay.getBias(), stopped.getBias(), 0.0);
+
+        trainer.setCancellationToken(null);
+        trainer.setListener(null);
+        trainer.setTimeBudget(Duration.ofNanos(1));
+        trainer.trainModel(Paths.get(DATASET_PATH));
+        assertEquals(TrainingListener.StopReason.TIME_BUDGET, trainer.getLastStopReason());
+        assertEquals(2, trainer.getLastPassCount());
+    }
+
+    @Test
+    void testSecondOrderOptimizersAgreeInFewPasses() throws IOException {
+        ModelTrainer irlsTrainer = new ModelTrainer();
+        irlsTrainer.setOptimizer(ModelTrainer.Optimizer.IRLS);
+        DiabetesPredictor irls = irlsTrainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+
+        ModelTrainer lbfgsTrainer = new ModelTrainer();
+        lbfgsTrainer.setOptimizer(ModelTrainer.Optimizer.LBFGS);
+        DiabetesPredictor lbfgs = lbfgsTrainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+
+        ModelTrainer gdTrainer = new ModelTrainer();
+        gdTrainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+
+        assertTrue(irlsTrainer.getLastPassCount() <= 30, "IRLS passes: " + irlsTrainer.getLastPassCount());
+        assertTrue(lbfgsTrainer.getLastPassCount() <= 100, "L-BFGS passes: " + lbfgsTrainer.getLastPassCount());
+        assertTrue(gdTrainer.getLastPassCount() > irlsTrainer.getLastPassCount());
+
+        // Both reach the same unique optimum of the convex log-loss
+        assertArrayEquals(irls.getWeights(), lbfgs.getWeights(), 1e-3);
+        assertEquals(irls.getBias(), lbfgs.getBias(), 1e-3);
+        assertTrue(accuracy(irls, dataset) > 0.75);
+    }
+
+    @Test
+    void testRenormalizedModelPredictsTheSame() throws IOException {
+        DiabetesPredictor predictor = new ModelTrainer().trainModel(DataLoader.loadMapped(DATASET_PATH));
+        double[] means = {1, 100, 60, 20, 80, 30, 0.4, 35};
+        double[] stds = {2, 25, 15, 10, 90, 6, 0.3, 10};
+        DiabetesPredictor renormalized = predictor.renormalized(means, stds);
+
+        assertArrayEquals(means, renormalized.getFeatureMeans(), 0.0);
+        for (int row = 0; row < dataset.size(); row++) {
+            Patient patient = dataset.getPatient(row);
+            assertEquals(predictor.predictProbability(patient), renormalized.predictProbability(patient), 1e-9);
+        }
+    }
+
+    @Test
+    void testWarmStartConvergesInFewerPasses() throws IOException {
+        // Yesterday's model saw the first 600 rows; today the full dataset is available
+        PatientDataset older = DataLoader.loadMapped(DATASET_PATH);
+        PatientDataset yesterday = new PatientDataset(columnsOf(older), older.getOutcomes(), 600);
+        ModelTrainer.Optimizer[] optimizers = {ModelTrainer.Optimizer.IRLS, ModelTrainer.Optimizer.LBFGS};
+        for (ModelTrainer.Optimizer optimizer : optimizers) {
+            ModelTrainer previousTrainer = new ModelTrainer();
+            previousTrainer.setOptimizer(optimizer);
+            DiabetesPredictor previous = previousTrainer.trainModel(yesterday);
+
+            ModelTrainer coldTrainer = new ModelTrainer();
+            coldTrainer.setOptimizer(optimizer);
+            DiabetesPredictor cold = coldTrainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+            ModelTrainer warmTrainer = new ModelTrainer();
+            warmTrainer.setOptimizer(optimizer);
+            DiabetesPredictor warm = warmTrainer.trainModel(DataLoader.loadMapped(DATASET_PATH), previous);
+
+            assertTrue(warmTrainer.getLastPassCount() < coldTrainer.getLastPassCount(), optimizer
+                    + " warm passes " + warmTrainer.getLastPassCount() + ", cold passes " + coldTrainer.getLastPassCount());
+            // Same convex problem, so the same optimum
+            assertArrayEquals(cold.getWeights(), warm.getWeights(), 1e-3);
+            assertEquals(cold.getBias(), warm.getBias(), 1e-3);
+        }
+    }
+
+    @Test
+    void testCancellationStopsWithBestModelSoFar() throws IOException {
+        CancellationToken token = new CancellationToken();
+        List<TrainingProgress> reported = new ArrayList<>();
+        TrainingListener.StopReason[] finished = new TrainingListener.StopReason[1];
+        ModelTrainer trainer = new ModelTrainer();
+        trainer.setVerbose(false);
+        trainer.setCancellationToken(token);
+        trainer.setListener(new TrainingListener() {
+            @Override
+            public void onIteration(TrainingProgress progress) {
+                reported.add(progress);
+                if (progress.getIteration() == 50) {
+                    token.cancel();
+                }
+            }
+
+            @Override
+            public void onFinish(TrainingProgress progress, TrainingListener.StopReason reason) {
+                finished[0] = reason;
+            }
+        });
+        DiabetesPredictor stopped = trainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+
+        assertEquals(TrainingListener.StopReason.CANCELLED, trainer.getLastStopReason());
+        assertEquals(TrainingListener.StopReason.CANCELLED, finished[0]);
+        assertEquals(50, reported.size());
+        assertEquals(50, trainer.getLastPassCount());
+        assertEquals(0.05, reported.get(49).getFraction(), 1e-12);
+        // Gradient descent only improves here, so the best model is the one evaluated last
+        TrainingProgress last = reported.get(49);
+        assertEquals(last.getCost(), last.getBestCost(), 0.0);
+        assertEquals(50, stopped.getTrainingInfo().getPasses());
+    }
+
+    @Test
+    void testTimeBudgetEndsTrainingEarly() throws IOException {
+        ModelTrainer trainer = new ModelTrainer();
+        trainer.setVerbose(false);
+        trainer.setTimeBudget(Duration.ofNanos(1));
+        DiabetesPredictor predictor = trainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+
+        assertEquals(TrainingListener.StopReason.TIME_BUDGET, trainer.getLastStopReason());
+        assertEquals(1, trainer.getLastPassCount());
+        assertNotNull(predictor);
+
+        trainer.setTimeBudget(null);
+        trainer.setOptimizer(ModelTrainer.Optimizer.IRLS);
+        trainer.trainModel(DataLoader.loadMapped(DATASET_PATH));
+        assertEquals(TrainingListener.StopReason.CONVERGED, trainer.getLastStopReason());
+    }
+
+    private static double[][] columnsOf(PatientDataset data) {
+        double[][] columns = new double[PatientDataset.NUM_FEATURES][];
+        for (int f = 0; f < columns.length; f++) {
+            columns[f] = data.getColumn(f);
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,82 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.ModelTrainer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the columnar patient dataset
+ */
+public class PatientDatasetTest {
+
+    private static List<Patient> samplePatients() {
+        return new ArrayList<>(Arrays.asList(
+                new Patient(6, 148, 72, 35, 0, 33.6, 0.627, 50, 1),
+                new Patient(1, 85, 66, 29, 0, 26.6, 0.351, 31, 0),
+                new Patient(8, 183, 64, 0, 0, 23.3, 0.672, 32, 1),
+                new Patient(1, 89, 66, 23, 94, 28.1, 0.167, 21, 0),
+                new Patient(0, 137, 40, 35, 168, 43.1, 2.288, 33, 1),
+                new Patient(5, 116, 74, 0, 0, 25.6, 0.201, 30, 0)
+        ));
+    }
+
+    @Test
+    void testRoundTripThroughPatients() {
+        List<Patient> patients = samplePatients();
+        PatientDataset dataset = PatientDataset.fromPatients(patients);
+
+        assertEquals(patients.size(), dataset.size());
+        List<Patient> restored = dataset.toPatients();
+        for (int i = 0; i < patients.size(); i++) {
+            assertArrayEquals(patients.get(i).getFeatures(), restored.get(i).getFeatures(), 0.0);
+            assertEquals(patients.get(i).getOutcome(), restored.get(i).getOutcome());
+        }
+    }
+
+    @Test
+    void testShuffleMatchesCollectionsShuffle() {
+        List<Patient> patients = samplePatients();
+        PatientDataset dataset = PatientDataset.fromPatients(patients);
+
+        Collections.shuffle(patients, new Random(42));
+        dataset.shuffle(new Random(42));
+
+        for (int i = 0; i < patients.size(); i++) {
+            assertArrayEquals(patients.get(i).getFeatures(), dataset.getPatient(i).getFeatures(), 0.0);
+        }
+    }
+
+    @Test
+    void testColumnarTrainingMatchesListTraining() {
+        ModelTrainer trainer = new ModelTrainer();
+        DiabetesPredictor fromList = trainer.trainModel(samplePatients());
+        DiabetesPredictor fromDataset = trainer.trainModel(PatientDataset.fromPatients(samplePatients()));
+
+        assertArrayEquals(fromList.getWeights(), fromDataset.getWeights(), 0.0);
+        assertEquals(fromList.getBias(), fromDataset.getBias(), 0.0);
+    }
+
+    @Test
+    void testBuilderGrowsAndTrims() {
+        PatientDataset.Builder builder = new PatientDataset.Builder(1);
+        for (int i = 0; i < 100; i++) {
+            builder.add(i, 100 + i, 70, 20, 80, 30.0, 0.5, 20 + i, i % 2);
+        }
+        PatientDataset dataset = builder.build();
+
+        assertEquals(100, dataset.size());
+        assertEquals(100, dataset.getColumn(0).length);
+        assertEquals(199.0, dataset.get(99, 1), 0.0);
+        assertEquals(1, dataset.getOutcome(99));
+    }
+}
@@ -0,0 +1,64 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.CompactFeatureColumns;
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.FeaturePrecision;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.utils.DataLoader;
+import com.diabetes.prediction.utils.PrecisionReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for float and quantized feature storage and their scoring error bounds
+ */
+public class PrecisionReportTest {
+
+    private static final String DATASET_PATH = "data/diabetes.csv";
+
+    @Test
+    void testObservedErrorStaysWithinBound() throws IOException {
+        PatientDataset dataset = DataLoader.loadMapped(DATASET_PATH);
+        DiabetesPredictor predictor = TestModels.sample();
+
+        double previousBound = 0.0;
+        for (FeaturePrecision precision : FeaturePrecision.values()) {
+            PrecisionReport report = PrecisionReport.compute(predictor, dataset, precision);
+            assertEquals(dataset.size(), report.getRows());
+            assertTrue(report.getMaxError() <= report.getErrorBound(),
+                    precision + ": " + report.getMaxError() + " > " + report.getErrorBound());
+            assertTrue(report.getMeanError() <= report.getMaxError());
+            assertTrue(report.getErrorBound() > previousBound, "Fewer bits must not tighten the bound");
+            previousBound = report.getErrorBound();
+            assertEquals((long) dataset.size() * PatientDataset.NUM_FEATURES * precision.getBytesPerValue(),
+                    report.getColumns().getByteSize());
+        }
+        assertTrue(PrecisionReport.compute(predictor, dataset, FeaturePrecision.FLOAT32).getErrorBound() < 1e-5);
+        assertTrue(PrecisionReport.compute(predictor, dataset, FeaturePrecision.INT16).getErrorBound() < 1e-3);
+    }
+
+    @Test
+    void testOutliersAreClippedAndCounted() {
+        double[] means = TestModels.means();
+        double[] stds = TestModels.stds();
+        double[][] columns = new double[PatientDataset.NUM_FEATURES][3];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][0] = means[i];
+            columns[i][1] = means[i] + stds[i];
+            columns[i][2] = means[i] + 100 * stds[i];
+        }
+
+        CompactFeatureColumns encoded = CompactFeatureColumns.encode(columns, 0, 3, means, stds, FeaturePrecision.INT8);
+        double clipStds = FeaturePrecision.INT8.getClipStds();
+        for (int i = 0; i < columns.length; i++) {
+            assertEquals(means[i], encoded.get(0, i), 1e-12);
+            assertEquals(means[i] + stds[i], encoded.get(1, i), stds[i] * clipStds / 127);
+            assertEquals(means[i] + clipStds * stds[i], encoded.get(2, i), 1e-9);
+            assertEquals(1, encoded.getClippedCount(i));
+            assertEquals((100 - clipStds) * stds[i], encoded.getMaxError(i), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PredictionCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the prediction cache
+ */
+public class PredictionCacheTest {
+
+    @Test
+    void testRepeatedVectorsHitTheCache() {
+        DiabetesPredictor predictor = TestModels.sample();
+        PredictionCache cache = new PredictionCache(100);
+        Patient patient = new Patient(6, 148, 72, 35, 0, 33.6, 0.627, 50, 1);
+
+        double first = cache.predictProbability(predictor, patient);
+        double second = cache.predictProbability(predictor, new Patient(6, 148, 72, 35, 0, 33.6, 0.627, 50, 0));
+        assertEquals(predictor.predictProbability(patient), first, 0.0);
+        assertEquals(first, second, 0.0);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.predictProbability(predictor, new Patient(6, 148, 72, 35, 0, 33.7, 0.627, 50, 0));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testSizeIsBoundedWithLruEviction() {
+        DiabetesPredictor predictor = TestModels.sample();
+        PredictionCache cache = new PredictionCache(64, 1);
+        for (int glucose = 0; glucose < 200; glucose++) {
+            cache.predictProbability(predictor, new double[]{1, glucose, 70, 20, 0, 30, 0.5, 30});
+        }
+        assertEquals(64, cache.size());
+        assertEquals(200 - 64, cache.getEvictionCount());
+
+        // The most recent entries survive, the oldest were evicted
+        assertFalse(Double.isNaN(cache.lookup(predictor, new double[]{1, 199, 70, 20, 0, 30, 0.5, 30})));
+        assertTrue(Double.isNaN(cache.lookup(predictor, new double[]{1, 0, 70, 20, 0, 30, 0.5, 30})));
+    }
+
+    @Test
+    void testNewPredictorInvalidatesEntries() {
+        DiabetesPredictor oldModel = TestModels.sample();
+        DiabetesPredictor newModel = TestModels.sample(0.5);
+        PredictionCache cache = new PredictionCache(100);
+        double[] features = {2, 120, 70, 20, 80, 31.5, 0.4, 35};
+
+        assertEquals(oldModel.predictProbability(features), cache.predictProbability(oldModel, features), 0.0);
+        assertEquals(newModel.predictProbability(features), cache.predictProbability(newModel, features), 0.0);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getInvalidationCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.PatientDataset;
+import com.diabetes.prediction.server.PredictionCoalescer;
+import com.diabetes.prediction.utils.DataLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for coalescing single predictions into batches
+ */
+public class PredictionCoalescerTest {
+
+    private final DiabetesPredictor predictor = TestModels.sample();
+
+    @Test
+    void testConcurrentRequestsGetTheirOwnResults() throws Exception {
+        PatientDataset dataset = DataLoader.loadColumnar("data/diabetes.csv");
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try (PredictionCoalescer coalescer = new PredictionCoalescer(predictor, 32, 200)) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                int offset = t;
+                tasks.add(callers.submit(() -> {
+                    for (int row = offset; row < dataset.size(); row += 16) {
+                        double[] features = new double[PatientDataset.NUM_FEATURES];
+                        for (int f = 0; f < features.length; f++) {
+                            features[f] = dataset.get(row, f);
+                        }
+                        double expected = predictor.predictProbability(dataset, row);
+                        assertEquals(expected, coalescer.submit(features).join(), 1e-12);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+
+            assertEquals(dataset.size(), coalescer.getRequestCount());
+            assertTrue(coalescer.getLargestBatch() <= 32);
+            assertTrue(coalescer.getBatchCount() <= coalescer.getRequestCount());
+        } finally {
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void testSequentialRequestsAreNotHeldBack() {
+        try (PredictionCoalescer coalescer = new PredictionCoalescer(predictor, 64, 1_000_000)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                coalescer.submit(new double[]{1, 85, 66, 29, 0, 26.6, 0.351, 31}).join();
+            }
+            // A one-second wait window would make this take 20 s if lone requests waited for company
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            assertEquals(1.0, coalescer.getAverageBatchSize(), 0.0);
+        }
+    }
+
+    @Test
+    void testSubmitAfterCloseIsRejected() {
+        PredictionCoalescer coalescer = new PredictionCoalescer(predictor);
+        coalescer.close();
+        CompletableFuture<Double> result = coalescer.submit(new double[]{1, 85, 66, 29, 0, 26.6, 0.351, 31});
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, coalescer.getRejectedCount());
+    }
+}
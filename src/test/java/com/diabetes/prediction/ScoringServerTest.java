@@ -0,0 +1,157 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.server.ScoringServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the embedded HTTP scoring server
+ */
+public class ScoringServerTest {
+
+    private final DiabetesPredictor predictor = TestModels.sample();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ScoringServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new ScoringServer(predictor, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testSinglePrediction() throws Exception {
+        HttpResponse<String> response = post("/predict", "6,148,72,35,0,33.6,0.627,50\n");
+        assertEquals(200, response.statusCode());
+
+        String[] fields = response.body().trim().split(",");
+        double expected = predictor.predictProbability(new double[]{6, 148, 72, 35, 0, 33.6, 0.627, 50});
+        assertEquals(expected, Double.parseDouble(fields[0]), 1e-6);
+        assertEquals(expected >= 0.5 ? "1" : "0", fields[1]);
+    }
+
+    @Test
+    void testBatchPredictionKeepsOrderAndSkipsHeader() throws Exception {
+        String body = "Pregnancies,Glucose,BloodPressure,SkinThickness,Insulin,BMI,DiabetesPedigreeFunction,Age,Outcome\n"
+                + "6,148,72,35,0,33.6,0.627,50,1\n"
+                + "1,85,66,29,0,26.6,0.351,31,0\n"
+                + "8,183,64,0,0,23.3,0.672,32,1\n";
+        HttpResponse<String> response = post("/predict/batch", body);
+        assertEquals(200, response.statusCode());
+
+        String[] lines = response.body().split("\n");
+        assertEquals(3, lines.length);
+        double[][] rows = {
+                {6, 148, 72, 35, 0, 33.6, 0.627, 50},
+                {1, 85, 66, 29, 0, 26.6, 0.351, 31},
+                {8, 183, 64, 0, 0, 23.3, 0.672, 32}
+        };
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(predictor.predictProbability(rows[i]), Double.parseDouble(lines[i].split(",")[0]), 1e-6);
+        }
+        assertEquals(3, server.getRowsScored());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() throws Exception {
+        assertEquals(400, post("/predict", "6,148,72\n").statusCode());
+        assertEquals(400, post("/predict", "6,abc,72,35,0,33.6,0.627,50\n").statusCode());
+        assertEquals(400, post("/predict", "6,148,72,35,0,33.6,0.627,50\n1,85,66,29,0,26.6,0.351,31\n").statusCode());
+        assertEquals("Not a number: abc\n", post("/predict", "6, abc ,72,35,0,33.6,0.627,50\n").body());
+        assertEquals("Not a finite number: 1e400\n", post("/predict", "6,1e400,72,35,0,33.6,0.627,50\n").body());
+        assertEquals("Not a finite number: NaN\n", post("/predict", "6,NaN,72,35,0,33.6,0.627,50\n").body());
+
+        // Fields outside the byte-level fast path still parse through the JDK
+        HttpResponse<String> slow = post("/predict", "6,1.48e2,72,35,0,336e-1,627000000000000000000e-21,50\n");
+        assertEquals(200, slow.statusCode());
+        assertEquals(predictor.predictProbability(new double[]{6, 148, 72, 35, 0, 33.6, 0.627, 50}),
+                Double.parseDouble(slow.body().split(",")[0]), 1e-6);
+
+        HttpRequest get = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/predict")).build();
+        assertEquals(405, client.send(get, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testOnlyExactPathsAndMethodsAreServed() throws Exception {
+        String patient = "6,148,72,35,0,33.6,0.627,50\n";
+        assertEquals(404, post("/predict/foo", patient).statusCode());
+        assertEquals(404, post("/predict/batch/foo", patient).statusCode());
+        assertEquals(404, send("GET", "/modelXYZ").statusCode());
+        assertEquals(404, send("GET", "/healthcheck").statusCode());
+
+        assertEquals(200, send("GET", "/health").statusCode());
+        assertEquals(200, send("GET", "/model").statusCode());
+        for (String method : new String[]{"POST", "DELETE", "PUT"}) {
+            for (String path : new String[]{"/metrics", "/health", "/model"}) {
+                HttpResponse<String> response = send(method, path);
+                assertEquals(405, response.statusCode(), method + " " + path);
+                assertEquals("GET", response.headers().firstValue("Allow").orElse(null));
+            }
+        }
+        assertEquals(405, send("GET", "/model/rollback").statusCode());
+        assertEquals(0, server.getRowsScored());
+    }
+
+    @Test
+    void testMetricsReportCountsAndLatency() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            post("/predict", "1,85,66,29,0,26.6,0.351,31\n");
+        }
+        post("/predict", "bad\n");
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics")).build();
+        String metrics = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        assertTrue(metrics.contains("requests_total 6\n"));
+        assertTrue(metrics.contains("rows_scored_total 5\n"));
+        assertTrue(metrics.contains("client_errors_total 1\n"));
+        assertTrue(metrics.contains("single_latency_p99_micros "));
+        assertTrue(server.getSingleLatency().getPercentileNanos(99) >= server.getSingleLatency().getPercentileNanos(50));
+    }
+
+    @Test
+    void testModelSwapAndRollback() throws Exception {
+        double[] features = {6, 148, 72, 35, 0, 33.6, 0.627, 50};
+        DiabetesPredictor replacement = new DiabetesPredictor(
+                new double[]{0.1, 0.9, 0.0, 0.0, 0.0, 0.5, 0.2, 0.4}, 0.3,
+                predictor.getFeatureMeans(), predictor.getFeatureStds());
+        server.getRegistry().publish(replacement);
+
+        String body = "6,148,72,35,0,33.6,0.627,50\n";
+        assertEquals(replacement.predictProbability(features),
+                Double.parseDouble(post("/predict", body).body().split(",")[0]), 1e-6);
+
+        assertEquals(200, post("/model/rollback", "").statusCode());
+        assertEquals(predictor.predictProbability(features),
+                Double.parseDouble(post("/predict", body).body().split(",")[0]), 1e-6);
+        assertEquals(409, post("/model/rollback", "").statusCode());
+    }
+}
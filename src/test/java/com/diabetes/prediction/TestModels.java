@@ -0,0 +1,45 @@
+package com.diabetes.prediction;
+
+import com.diabetes.prediction.model.DiabetesPredictor;
+import com.diabetes.prediction.model.TrainingInfo;
+
+/**
+ * The fixed logistic model the tests score with: plausible Pima weights and normalization statistics
+ */
+final class TestModels {
+    static final double DEFAULT_BIAS = -0.85;
+
+    private TestModels() {
+    }
+
+    static double[] weights() {
+        return new double[]{0.4, 1.1, -0.2, 0.05, -0.1, 0.7, 0.3, 0.2};
+    }
+
+    static double[] means() {
+        return new double[]{3.8, 120.9, 69.1, 20.5, 79.8, 32.0, 0.47, 33.2};
+    }
+
+    static double[] stds() {
+        return new double[]{3.4, 31.9, 19.3, 15.9, 115.2, 7.9, 0.33, 11.7};
+    }
+
+    static DiabetesPredictor sample() {
+        return sample(DEFAULT_BIAS);
+    }
+
+    /**
+     * The sample model with a different bias, so tests can tell two models apart
+     */
+    static DiabetesPredictor sample(double bias) {
+        return new DiabetesPredictor(weights(), bias, means(), stds());
+    }
+
+    /**
+     * The sample model with training metadata, as if trained by gradient descent at trainedAt
+     */
+    static DiabetesPredictor sample(double bias, long trainedAt) {
+        return new DiabetesPredictor(weights(), bias, means(), stds(),
+                new TrainingInfo(768, 1000, "GRADIENT_DESCENT", trainedAt, "300-abc"));
+    }
+}
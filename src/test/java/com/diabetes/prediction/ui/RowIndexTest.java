@@ -0,0 +1,102 @@
+package com.diabetes.prediction.ui;
+
+import com.diabetes.prediction.model.Patient;
+import com.diabetes.prediction.model.PatientDataset;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dataset viewer's row index: filtering, stable multi-key sorting and cancellation
+ */
+public class RowIndexTest {
+
+    private static final int PREGNANCIES = 0;
+    private static final int GLUCOSE = 1;
+    private static final int[] NO_KEYS = {};
+    private static final boolean[] NO_DIRECTIONS = {};
+
+    private static PatientDataset sampleDataset() {
+        return PatientDataset.fromPatients(Arrays.asList(
+                new Patient(6, 148, 72, 35, 0, 33.6, 0.627, 50, 1),
+                new Patient(1, 85, 66, 29, 0, 26.6, 0.351, 31, 0),
+                new Patient(8, 183, 64, 0, 0, 23.3, 0.672, 32, 1),
+                new Patient(1, 89, 66, 23, 94, 28.1, 0.167, 21, 0),
+                new Patient(0, 137, 40, 35, 168, 43.1, 2.288, 33, 1),
+                new Patient(5, 116, 74, 0, 0, 25.6, 0.201, 30, 0),
+                new Patient(1, 137, 50, 32, 88, 31.0, 0.248, 26, 1)
+        ));
+    }
+
+    private static List<Integer> rows(RowIndex index) {
+        return new ArrayList<>(index);
+    }
+
+    @Test
+    void testFilterKeepsDatasetOrder() {
+        PatientDataset dataset = sampleDataset();
+        assertEquals(Arrays.asList(0, 2, 4, 6),
+                rows(RowIndex.build(dataset, row -> dataset.getOutcome(row) == 1, NO_KEYS, NO_DIRECTIONS, () -> false)));
+
+        RowIndex all = RowIndex.build(dataset, row -> true, NO_KEYS, NO_DIRECTIONS, () -> false);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), rows(all));
+        assertTrue(RowIndex.build(dataset, row -> false, NO_KEYS, NO_DIRECTIONS, () -> false).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> all.get(7));
+    }
+
+    @Test
+    void testMultiKeySortIsStable() {
+        PatientDataset dataset = sampleDataset();
+
+        // Pregnancies ascending, then outcome descending; rows 1 and 3 tie on both and keep their order
+        RowIndex sorted = RowIndex.build(dataset, row -> true, new int[]{PREGNANCIES, RowIndex.OUTCOME_KEY},
+                new boolean[]{false, true}, () -> false);
+        assertEquals(Arrays.asList(4, 6, 1, 3, 5, 0, 2), rows(sorted));
+
+        // Glucose descending: rows 4 and 6 tie and keep dataset order
+        RowIndex descending = RowIndex.build(dataset, row -> dataset.getOutcome(row) == 1, new int[]{GLUCOSE},
+                new boolean[]{true}, () -> false);
+        assertEquals(Arrays.asList(2, 0, 4, 6), rows(descending));
+    }
+
+    @Test
+    void testSortMatchesStableListSort() {
+        Random random = new Random(11);
+        PatientDataset.Builder builder = new PatientDataset.Builder();
+        for (int i = 0; i < 5000; i++) {
+            // Few distinct values, so most comparisons are ties that only stability can order
+            builder.add(random.nextInt(4), random.nextInt(6), 70, 20, 0, 30, 0.5, 30, random.nextInt(2));
+        }
+        PatientDataset dataset = builder.build();
+
+        List<Integer> expected = IntStream.range(0, dataset.size()).boxed()
+                .filter(row -> dataset.get(row, GLUCOSE) != 0)
+                .sorted(Comparator.<Integer>comparingDouble(row -> -dataset.get(row, GLUCOSE))
+                        .thenComparingDouble(row -> dataset.get(row, PREGNANCIES)))
+                .collect(Collectors.toList());
+        RowIndex sorted = RowIndex.build(dataset, row -> dataset.get(row, GLUCOSE) != 0,
+                new int[]{GLUCOSE, PREGNANCIES}, new boolean[]{true, false}, () -> false);
+        assertEquals(expected, rows(sorted));
+    }
+
+    @Test
+    void testCancelledBuildReturnsNull() {
+        PatientDataset dataset = sampleDataset();
+        assertNull(RowIndex.build(dataset, row -> true, new int[]{GLUCOSE}, new boolean[]{false}, () -> true));
+
+        // Cancelled between the passes of a multi-key sort
+        AtomicInteger checks = new AtomicInteger();
+        assertNull(RowIndex.build(dataset, row -> true, new int[]{GLUCOSE, PREGNANCIES}, new boolean[]{false, false},
+                () -> checks.incrementAndGet() > 1));
+        assertEquals(2, checks.get());
+    }
+}